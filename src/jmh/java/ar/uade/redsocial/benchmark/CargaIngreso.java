@@ -0,0 +1,92 @@
+package ar.uade.redsocial.benchmark;
+
+import ar.uade.redsocial.service.HistogramaLatencias;
+import ar.uade.redsocial.service.IngresoSolicitudes;
+import ar.uade.redsocial.service.RedSocialEmpresarial;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Generador de carga para {@link IngresoSolicitudes}: un hilo por productor,
+ * cada uno enviando solicitudes distintas tan rápido como puede; informa el
+ * throughput sostenido y la latencia de ingreso (p50 / p99 / máx).
+ *
+ * Hilos de plataforma: el proyecto compila con release 17 (sin hilos virtuales).
+ *
+ * Uso: java ... CargaIngreso [productores] [solicitudesPorProductor] [capacidad] [BLOQUEAR|RECHAZAR|DESCARTAR_ANTIGUA]
+ */
+public final class CargaIngreso {
+
+    private CargaIngreso() { }
+
+    public static void main(String[] args) throws Exception {
+        int productores = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int porProductor = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int capacidad = args.length > 2 ? Integer.parseInt(args[2]) : 8_192;
+        IngresoSolicitudes.Contrapresion politica = args.length > 3
+                ? IngresoSolicitudes.Contrapresion.valueOf(args[3])
+                : IngresoSolicitudes.Contrapresion.BLOQUEAR;
+
+        // Cada solicitud usa un solicitante propio: ninguna choca con otra pendiente
+        int clientes = productores * porProductor + 1;
+        RedSocialEmpresarial red = new RedSocialEmpresarial();
+        for (int i = 0; i < clientes; i++) {
+            red.agregarCliente(GeneradorRed.nombre(i), i % GeneradorRed.SCORING_MAXIMO);
+        }
+        red.checkpoint();
+
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> hilos = new ArrayList<>(productores);
+        List<List<CompletableFuture<Void>>> resultados = new ArrayList<>(productores);
+        long inicio;
+        long fin;
+        try (IngresoSolicitudes ingreso = new IngresoSolicitudes(red, capacidad, politica)) {
+            for (int p = 0; p < productores; p++) {
+                int base = p * porProductor + 1;
+                List<CompletableFuture<Void>> propios = new ArrayList<>(porProductor);
+                resultados.add(propios);
+                Thread t = new Thread(() -> {
+                    try {
+                        largada.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < porProductor; i++) {
+                        propios.add(ingreso.solicitarSeguir(GeneradorRed.nombre(base + i), GeneradorRed.nombre(0)));
+                    }
+                }, "productor-" + p);
+                t.start();
+                hilos.add(t);
+            }
+
+            inicio = System.nanoTime();
+            largada.countDown();
+            for (Thread t : hilos) {
+                t.join();
+            }
+            long fallidas = 0;
+            for (List<CompletableFuture<Void>> propios : resultados) {
+                for (CompletableFuture<Void> f : propios) {
+                    try {
+                        f.join();
+                    } catch (RuntimeException e) {
+                        fallidas++;
+                    }
+                }
+            }
+            fin = System.nanoTime();
+
+            HistogramaLatencias latencias = ingreso.latencias();
+            long total = (long) productores * porProductor;
+            System.out.printf("productores=%d solicitudes=%d capacidad=%d politica=%s%n",
+                    productores, total, capacidad, politica);
+            System.out.printf("throughput: %.0f solicitudes/s (%d aplicadas, %d fallidas)%n",
+                    total * 1e9 / (fin - inicio), ingreso.aplicadas(), fallidas);
+            System.out.printf("latencia de ingreso: p50=%.1f us p99=%.1f us max=%.1f us%n",
+                    latencias.percentil(50) / 1e3, latencias.percentil(99) / 1e3, latencias.maximo() / 1e3);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ar.uade.redsocial.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.SplittableRandom;
+
+/**
+ * Generador determinístico de redes sintéticas en el formato de
+ * {@code loadFromJson}: misma cantidad y semilla, mismo archivo byte a byte,
+ * para comparar mediciones antes / después de un cambio.
+ *
+ * - nombres "cliente-0" .. "cliente-(n-1)"
+ * - scoring uniforme en [0, 100)
+ * - 0 a 2 seguidos por cliente (el límite de la red), sesgados hacia los
+ *   primeros clientes para que haya clientes muy seguidos
+ *
+ * Uso: java ... GeneradorRed &lt;clientes&gt; &lt;archivo&gt; [semilla]
+ */
+public final class GeneradorRed {
+
+    public static final long SEMILLA = 20240501L;
+    public static final int SCORING_MAXIMO = 100;
+
+    private GeneradorRed() { }
+
+    public static String nombre(int i) {
+        return "cliente-" + i;
+    }
+
+    public static void escribirJson(Path destino, int clientes, long semilla) throws IOException {
+        if (clientes < 0) {
+            throw new IllegalArgumentException("Cantidad de clientes inválida");
+        }
+        SplittableRandom random = new SplittableRandom(semilla);
+
+        try (Writer w = new BufferedWriter(Files.newBufferedWriter(destino, StandardCharsets.UTF_8), 1 << 16)) {
+            w.write("{\"clientes\":[\n");
+            for (int i = 0; i < clientes; i++) {
+                if (i > 0) w.write(",\n");
+                w.write("{\"nombre\":\"");
+                w.write(nombre(i));
+                w.write("\",\"scoring\":");
+                w.write(Integer.toString(random.nextInt(SCORING_MAXIMO)));
+                w.write(",\"siguiendo\":[");
+
+                int seguidos = clientes > 2 ? random.nextInt(3) : 0;
+                int primero = -1;
+                for (int j = 0; j < seguidos; j++) {
+                    int objetivo;
+                    do {
+                        // u^2: los ids chicos son más seguidos
+                        double u = random.nextDouble();
+                        objetivo = (int) (clientes * u * u);
+                    } while (objetivo == i || objetivo == primero);
+                    primero = objetivo;
+
+                    if (j > 0) w.write(',');
+                    w.write('"');
+                    w.write(nombre(objetivo));
+                    w.write('"');
+                }
+                w.write("],\"conexiones\":[]}");
+            }
+            w.write("\n]}\n");
+        }
+    }
+
+    /**
+     * Archivo generado en el directorio temporal, reutilizado entre ejecuciones
+     * (el nombre incluye cantidad y semilla).
+     */
+    public static Path json(int clientes, long semilla) throws IOException {
+        Path destino = Paths.get(System.getProperty("java.io.tmpdir"),
+                "red-" + clientes + "-" + semilla + ".json");
+        if (!Files.exists(destino)) {
+            Path parcial = Files.createTempFile(destino.getParent(), "red-", ".parcial");
+            escribirJson(parcial, clientes, semilla);
+            Files.move(parcial, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return destino;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: GeneradorRed <clientes> <archivo> [semilla]");
+            System.exit(2);
+        }
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : SEMILLA;
+        escribirJson(Paths.get(args[1]), Integer.parseInt(args[0]), semilla);
+    }
+}
@@ -0,0 +1,56 @@
+package ar.uade.redsocial.benchmark;
+
+import ar.uade.redsocial.model.Cliente;
+import ar.uade.redsocial.service.RedSocialEmpresarial;
+
+/**
+ * Memoria retenida por la red en modo por defecto (HashSets) y en modo
+ * compacto (ids + arreglos de int): cada cliente sigue a 2 y tiene 2
+ * conexiones, y las altas quedan en el historial en los dos modos.
+ *
+ * Un modo por ejecución (el heap de la medición anterior no interfiere):
+ * heap usado después de GC con la red armada, menos el de antes.
+ *
+ * Uso: java -Xmx4g ... MemoriaRelaciones [clientes] [hash|compacto]
+ */
+public final class MemoriaRelaciones {
+
+    private MemoriaRelaciones() { }
+
+    public static void main(String[] args) throws InterruptedException {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        boolean compacta = args.length > 1 && args[1].equals("compacto");
+
+        long antes = heapUsado();
+        RedSocialEmpresarial red = new RedSocialEmpresarial(compacta);
+        for (int i = 0; i < clientes; i++) {
+            red.agregarCliente(GeneradorRed.nombre(i), i % GeneradorRed.SCORING_MAXIMO);
+        }
+        for (int i = 0; i < clientes; i++) {
+            Cliente cliente = red.buscarPorNombre(GeneradorRed.nombre(i));
+            cliente.seguirA(GeneradorRed.nombre((i + 1) % clientes));
+            cliente.seguirA(GeneradorRed.nombre((i + 2) % clientes));
+            cliente.agregarConexion(GeneradorRed.nombre((i + 3) % clientes));
+            cliente.agregarConexion(GeneradorRed.nombre((i + 4) % clientes));
+        }
+        long despues = heapUsado();
+
+        System.out.printf("modo=%s clientes=%d memoria=%d MB (%d bytes por cliente)%n",
+                compacta ? "compacto" : "hash", clientes, (despues - antes) >> 20,
+                (despues - antes) / Math.max(1, clientes));
+        // la red tiene que seguir viva durante la medición
+        System.out.println(red.cantidadClientes() == clientes ? "ok" : "inconsistente");
+    }
+
+    private static long heapUsado() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long usado = Long.MAX_VALUE;
+        // varias pasadas: un solo System.gc() no siempre llega a un heap estable
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+            usado = Math.min(usado, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return usado;
+    }
+}
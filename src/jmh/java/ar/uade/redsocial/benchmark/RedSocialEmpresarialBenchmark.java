@@ -0,0 +1,242 @@
+package ar.uade.redsocial.benchmark;
+
+import ar.uade.redsocial.model.Cliente;
+import ar.uade.redsocial.model.FollowRequest;
+import ar.uade.redsocial.service.RedSocialEmpresarial;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminos calientes de RedSocialEmpresarial sobre redes de {@link GeneradorRed}.
+ *
+ * Consultas: tiempo promedio por llamada. Escrituras: tiempo de un lote de
+ * {@link #LOTE} llamadas (SingleShotTime), para preparar y limpiar cada
+ * iteración fuera de la medición; dividir por LOTE para el costo unitario.
+ *
+ * mvn -P benchmark compile exec:exec -Djmh.args=RedSocialEmpresarialBenchmark
+ * (la carga de 10M clientes necesita ~12 GB de heap; filtrar con -p archivo=...)
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RedSocialEmpresarialBenchmark {
+
+    static final int LOTE = 10_000;
+
+    /**
+     * Red generada y cargada una vez por trial.
+     */
+    @State(Scope.Benchmark)
+    public static class Red {
+
+        @Param({ "10000", "1000000" })
+        public int clientes;
+
+        RedSocialEmpresarial red;
+        int siguiente;
+        int altas;
+
+        RedSocialEmpresarial red() throws IOException {
+            if (red == null) {
+                red = new RedSocialEmpresarial();
+                red.loadFromJson(GeneradorRed.json(clientes, GeneradorRed.SEMILLA).toString());
+            }
+            return red;
+        }
+
+        @Setup(Level.Trial)
+        public void cargar() throws IOException {
+            red();
+        }
+
+        // Las escrituras medidas no acumulan historial entre iteraciones
+        @TearDown(Level.Iteration)
+        public void descartarHistorial() {
+            red.checkpoint();
+        }
+
+        String clienteAlAzar() {
+            // Paso coprimo con la cantidad: recorre todos sin repetir ni cachear en orden
+            siguiente = (int) ((siguiente + 7_919L) % clientes);
+            return GeneradorRed.nombre(siguiente);
+        }
+    }
+
+    /**
+     * Cola con {@link #PROFUNDIDAD} solicitudes pendientes antes de medir.
+     */
+    @State(Scope.Benchmark)
+    public static class ColaProfunda extends Red {
+
+        static final int PROFUNDIDAD = 100_000;
+
+        long solicitudes;
+
+        @Setup(Level.Trial)
+        public void encolar() throws IOException {
+            for (int i = 0; i < PROFUNDIDAD; i++) {
+                solicitar();
+            }
+            red().checkpoint();
+        }
+
+        // Par (solicitante, objetivo) distinto en cada llamada
+        void solicitar() throws IOException {
+            long k = solicitudes++;
+            int solicitante = (int) (k % clientes);
+            int objetivo = (int) ((solicitante + 1 + k / clientes) % clientes);
+            red().solicitarSeguir(GeneradorRed.nombre(solicitante), GeneradorRed.nombre(objetivo));
+        }
+    }
+
+    /**
+     * {@link #LOTE} solicitudes válidas al frente de la cola en cada iteración.
+     */
+    @State(Scope.Benchmark)
+    public static class ColaPreparada extends Red {
+
+        int iteracion;
+
+        @Setup(Level.Iteration)
+        public void encolar() throws IOException {
+            RedSocialEmpresarial r = red();
+            for (int i = 0; i < LOTE; i++) {
+                // solicitantes nuevos: nunca alcanzan el límite de seguidos
+                String solicitante = "solicitante-" + iteracion + "-" + i;
+                r.agregarCliente(solicitante, i % GeneradorRed.SCORING_MAXIMO);
+                r.solicitarSeguir(solicitante, clienteAlAzar());
+            }
+            iteracion++;
+        }
+    }
+
+    /**
+     * {@link #LOTE} altas en el tope del historial en cada iteración.
+     */
+    @State(Scope.Benchmark)
+    public static class AltasPorDeshacer extends Red {
+
+        int iteracion;
+
+        @Setup(Level.Iteration)
+        public void agregar() throws IOException {
+            RedSocialEmpresarial r = red();
+            for (int i = 0; i < LOTE; i++) {
+                r.agregarCliente("baja-" + iteracion + "-" + i, i % GeneradorRed.SCORING_MAXIMO);
+            }
+            iteracion++;
+        }
+    }
+
+    /**
+     * Archivo generado para la carga (no se incluye en la medición).
+     */
+    @State(Scope.Benchmark)
+    public static class Archivo {
+
+        @Param({ "10000", "100000", "1000000", "10000000" })
+        public int archivo;
+
+        Path ruta;
+        RedSocialEmpresarial red;
+
+        @Setup(Level.Trial)
+        public void generar() throws IOException {
+            ruta = GeneradorRed.json(archivo, GeneradorRed.SEMILLA);
+        }
+
+        @Setup(Level.Iteration)
+        public void vaciar() {
+            red = null; // la red anterior se libera antes de cargar la siguiente
+            System.gc();
+            red = new RedSocialEmpresarial();
+        }
+    }
+
+    // ---------------- CONSULTAS ----------------
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Cliente buscarPorNombre(Red r) {
+        return r.red.buscarPorNombre(r.clienteAlAzar());
+    }
+
+    // ~2% de los clientes (2 de 100 scorings)
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Cliente> buscarPorScoringEntre(Red r) {
+        int desde = r.siguiente++ % (GeneradorRed.SCORING_MAXIMO - 1);
+        return r.red.buscarPorScoringEntre(desde, desde + 1);
+    }
+
+    // ---------------- ESCRITURAS ----------------
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3, batchSize = LOTE)
+    @Measurement(iterations = 5, batchSize = LOTE)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void agregarCliente(Red r) {
+        int i = r.altas++;
+        r.red.agregarCliente("nuevo-" + i, i % GeneradorRed.SCORING_MAXIMO);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3, batchSize = LOTE)
+    @Measurement(iterations = 5, batchSize = LOTE)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void solicitarSeguirConColaProfunda(ColaProfunda c) throws IOException {
+        c.solicitar();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3, batchSize = LOTE)
+    @Measurement(iterations = 5, batchSize = LOTE)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public FollowRequest procesarSiguienteSolicitud(ColaPreparada c) {
+        return c.red.procesarSiguienteSolicitud();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3, batchSize = LOTE)
+    @Measurement(iterations = 5, batchSize = LOTE)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Optional<?> undoAltaEnRedGrande(AltasPorDeshacer a) {
+        return a.red.undo();
+    }
+
+    // ---------------- CARGA ----------------
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public RedSocialEmpresarial loadFromJson(Archivo a) {
+        a.red.loadFromJson(a.ruta.toString());
+        return a.red;
+    }
+}
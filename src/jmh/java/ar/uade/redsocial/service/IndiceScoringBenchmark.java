@@ -0,0 +1,89 @@
+package ar.uade.redsocial.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Índice por scoring: árbol (ConcurrentSkipListMap) contra arreglo denso, en
+ * alta, consulta puntual y rango, para un dominio chico y uno que desborda el arreglo.
+ *
+ * mvn -P benchmark compile exec:exec -Djmh.args=IndiceScoringBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndiceScoringBenchmark {
+
+    private static final int CLIENTES = 100_000;
+
+    @Param({ "ARBOL", "DENSO" })
+    public TipoIndiceScoring tipo;
+
+    // scorings en [0, dominio)
+    @Param({ "100", "1000000" })
+    public int dominio;
+
+    private IndiceScoring indice;
+    private String[] nombres;
+    private int[] scorings;
+    private int siguiente;
+
+    @Setup(Level.Iteration)
+    public void preparar() {
+        SplittableRandom random = new SplittableRandom(42);
+        nombres = new String[CLIENTES];
+        scorings = new int[CLIENTES];
+        indice = tipo.crear();
+        for (int i = 0; i < CLIENTES; i++) {
+            nombres[i] = "cliente-" + i;
+            scorings[i] = random.nextInt(dominio);
+            indice.agregar(scorings[i], nombres[i]);
+        }
+    }
+
+    // alta + baja para que el índice no crezca entre invocaciones
+    @Benchmark
+    public void altaYBaja() {
+        int i = siguiente++ % CLIENTES;
+        indice.remover(scorings[i], nombres[i]);
+        indice.agregar(scorings[i], nombres[i]);
+    }
+
+    @Benchmark
+    public GrupoNombres puntual() {
+        return indice.grupo(scorings[siguiente++ % CLIENTES]);
+    }
+
+    // ~10% del dominio
+    @Benchmark
+    public int contarRango() {
+        int desde = scorings[siguiente++ % CLIENTES];
+        return indice.contar(desde, desde + dominio / 10);
+    }
+
+    @Benchmark
+    public void recorrerRango(Blackhole bh) {
+        int desde = scorings[siguiente++ % CLIENTES];
+        IndiceScoring.Recorrido r = indice.recorrer(desde, desde + dominio / 10, false);
+        while (r.avanzar()) {
+            bh.consume(r.grupo());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ar.uade.redsocial.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DeltaDTO {
+    public List<ClienteDTO> altas = new ArrayList<>();
+    public List<ClienteDTO> scorings = new ArrayList<>();
+    public List<SeguimientoDTO> seguir = new ArrayList<>();
+    public List<SeguimientoDTO> dejarDeSeguir = new ArrayList<>();
+}
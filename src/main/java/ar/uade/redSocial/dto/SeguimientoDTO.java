@@ -0,0 +1,7 @@
+package ar.uade.redsocial.dto;
+
+public class SeguimientoDTO {
+    public String solicitante;
+    public String objetivo;
+    public String fechaHora; // sólo en solicitudes pendientes (ISO-8601)
+}
@@ -6,5 +6,6 @@ package ar.uade.redsocial.model;
 public enum ActionType {
     ADD_CLIENT,
     REQUEST_FOLLOW,
-    PROCESS_FOLLOW
+    PROCESS_FOLLOW,
+    PROCESS_FOLLOW_BATCH
 }
\ No newline at end of file
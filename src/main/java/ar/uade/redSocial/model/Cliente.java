@@ -1,25 +1,50 @@
 package ar.uade.redsocial.model;
 
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * TAD Cliente
  * Invariantes:
  * - nombre != null && !nombre.isBlank()
  * - scoring >= 0
+ *
+ * El scoring puede cambiar (importación de deltas); sólo lo cambia la red,
+ * a través de la {@link FabricaClientes} que lo creó, y mantiene sus índices.
+ *
+ * Las relaciones se guardan en sets propios, o bien (modo compacto)
+ * en un {@link GrafoCompacto} compartido indexado por id denso; en ese caso
+ * los getters son vistas sobre el grafo.
  */
 public class Cliente {
 
     private final String nombre;
-    private final int scoring;
+    private volatile int scoring;
 
-    // Preparado para iteraciones futuras
-    private final Set<String> siguiendo = new HashSet<>();
-    private final Set<String> conexiones = new HashSet<>();
+    // Preparado para iteraciones futuras (null en modo compacto)
+    private final Set<String> siguiendo;
+    private final Set<String> conexiones;
+
+    // Modo compacto: grafo compartido + id denso del cliente
+    private final GrafoCompacto grafo;
+    private final int id;
+
+    // Notificado en cada cambio de relaciones (índice inverso de la red);
+    // lo fija la fábrica al crearlo y sólo ella lo quita
+    private final FabricaClientes fabrica;
+    private volatile ObservadorRelaciones observador;
 
     public Cliente(String nombre, int scoring) {
+        this(nombre, scoring, null, -1);
+    }
+
+    public Cliente(String nombre, int scoring, GrafoCompacto grafo, int id) {
+        this(nombre, scoring, grafo, id, null, null);
+    }
+
+    Cliente(String nombre, int scoring, GrafoCompacto grafo, int id,
+            FabricaClientes fabrica, ObservadorRelaciones observador) {
         if (nombre == null || nombre.isBlank()) {
             throw new IllegalArgumentException("Nombre inválido");
         }
@@ -28,6 +53,13 @@ public class Cliente {
         }
         this.nombre = nombre;
         this.scoring = scoring;
+        this.grafo = grafo;
+        this.id = id;
+        this.fabrica = fabrica;
+        this.observador = observador;
+        // Sets concurrentes: se leen sin lock mientras la red aplica seguimientos
+        this.siguiendo = grafo == null ? ConcurrentHashMap.newKeySet() : null;
+        this.conexiones = grafo == null ? ConcurrentHashMap.newKeySet() : null;
     }
 
     public String getNombre() {
@@ -38,29 +70,90 @@ public class Cliente {
         return scoring;
     }
 
+    // Sólo vía FabricaClientes: no actualiza los índices por scoring
+    void setScoring(int scoring) {
+        if (scoring < 0) {
+            throw new IllegalArgumentException("Scoring inválido");
+        }
+        this.scoring = scoring;
+    }
+
+    /**
+     * @return el id denso en modo compacto, o -1.
+     */
+    public int getId() {
+        return id;
+    }
+
     public Set<String> getSiguiendo() {
+        if (grafo != null) {
+            return grafo.vistaSiguiendo(id, nombre);
+        }
         return Collections.unmodifiableSet(siguiendo);
     }
 
     public Set<String> getConexiones() {
+        if (grafo != null) {
+            return grafo.vistaConexiones(id, nombre);
+        }
         return Collections.unmodifiableSet(conexiones);
     }
 
+    FabricaClientes getFabrica() {
+        return fabrica;
+    }
+
+    void desvincular() {
+        this.observador = null;
+    }
+
     // Métodos para iteración 2 / 3
     public void seguirA(String nombreCliente) {
-        siguiendo.add(nombreCliente);
+        boolean agregado = grafo != null
+                ? grafo.seguir(id, idExistente(nombreCliente))
+                : siguiendo.add(nombreCliente);
+        if (agregado && observador != null) {
+            observador.seguimientoAgregado(nombre, nombreCliente);
+        }
     }
 
     public void agregarConexion(String nombreCliente) {
-        conexiones.add(nombreCliente);
+        boolean agregada = grafo != null
+                ? grafo.conectar(id, idExistente(nombreCliente))
+                : conexiones.add(nombreCliente);
+        if (agregada && observador != null) {
+            observador.conexionAgregada(nombre, nombreCliente);
+        }
     }
 
     // Métodos necesarios para mantener consistencia en Undo (Iteración 1)
     public void dejarDeSeguir(String nombreCliente) {
-        siguiendo.remove(nombreCliente);
+        boolean removido = grafo != null
+                ? grafo.vigente(id, nombre) && grafo.dejarDeSeguir(id, grafo.getNombres().id(nombreCliente))
+                : siguiendo.remove(nombreCliente);
+        if (removido && observador != null) {
+            observador.seguimientoRemovido(nombre, nombreCliente);
+        }
     }
 
     public void removerConexion(String nombreCliente) {
-        conexiones.remove(nombreCliente);
+        boolean removida = grafo != null
+                ? grafo.vigente(id, nombre) && grafo.desconectar(id, grafo.getNombres().id(nombreCliente))
+                : conexiones.remove(nombreCliente);
+        if (removida && observador != null) {
+            observador.conexionRemovida(nombre, nombreCliente);
+        }
+    }
+
+    // En modo compacto sólo se puede relacionar con clientes existentes (con id)
+    private int idExistente(String nombreCliente) {
+        if (!grafo.vigente(id, nombre)) {
+            throw new IllegalStateException("El cliente '" + nombre + "' ya no pertenece a la red.");
+        }
+        int destino = grafo.getNombres().id(nombreCliente);
+        if (destino < 0) {
+            throw new IllegalArgumentException("Cliente inexistente: " + nombreCliente);
+        }
+        return destino;
     }
 }
@@ -0,0 +1,52 @@
+package ar.uade.redsocial.model;
+
+/**
+ * Crea los clientes de una red con su observador de relaciones ya fijado.
+ *
+ * Sólo la fábrica que creó a un cliente lo puede desvincular o cambiarle el
+ * scoring: la red la mantiene privada, así que nadie más puede quitarle el
+ * observador ni mover su scoring por fuera de los índices.
+ */
+public final class FabricaClientes {
+
+    private final ObservadorRelaciones observador;
+
+    // Modo compacto: grafo compartido donde se internan los ids (null si no)
+    private final GrafoCompacto grafo;
+
+    public FabricaClientes(ObservadorRelaciones observador, GrafoCompacto grafo) {
+        if (observador == null) {
+            throw new IllegalArgumentException("Observador inválido");
+        }
+        this.observador = observador;
+        this.grafo = grafo;
+    }
+
+    public Cliente crear(String nombre, int scoring) {
+        return grafo == null
+                ? new Cliente(nombre, scoring, null, -1, this, observador)
+                : new Cliente(nombre, scoring, grafo, grafo.getNombres().intern(nombre), this, observador);
+    }
+
+    /**
+     * Deja de notificar los cambios del cliente (se eliminó de la red).
+     */
+    public void desvincular(Cliente cliente) {
+        verificarPropio(cliente);
+        cliente.desvincular();
+    }
+
+    /**
+     * Sólo cambia el valor: los índices por scoring los actualiza quien llama.
+     */
+    public void cambiarScoring(Cliente cliente, int scoring) {
+        verificarPropio(cliente);
+        cliente.setScoring(scoring);
+    }
+
+    private void verificarPropio(Cliente cliente) {
+        if (cliente.getFabrica() != this) {
+            throw new IllegalArgumentException("El cliente '" + cliente.getNombre() + "' no pertenece a esta red.");
+        }
+    }
+}
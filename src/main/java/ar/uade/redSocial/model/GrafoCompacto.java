@@ -0,0 +1,223 @@
+package ar.uade.redsocial.model;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Almacenamiento compacto de relaciones sobre ids densos (ver {@link TablaNombres}).
+ *
+ * Estructuras utilizadas:
+ * - int[] con 2 ranuras fijas por cliente para "siguiendo" (límite de negocio: 2)
+ * - {@link ListasAdyacencia} (int[] creciente por cliente) para "conexiones"
+ *
+ * Los getters de {@link Cliente} en modo compacto son vistas sobre este grafo.
+ */
+public class GrafoCompacto {
+
+    private static final int SIN_ID = -1;
+
+    private final TablaNombres nombres;
+
+    // id * 2, id * 2 + 1 -> ids seguidos
+    private volatile int[] seguidos = nuevasRanuras(32);
+
+    // id -> ids conectados
+    private final ListasAdyacencia conexiones = new ListasAdyacencia();
+
+    public GrafoCompacto(TablaNombres nombres) {
+        this.nombres = nombres;
+    }
+
+    public TablaNombres getNombres() {
+        return nombres;
+    }
+
+    /**
+     * @return true si el id sigue asignado a ese nombre (el cliente no fue eliminado).
+     */
+    public boolean vigente(int id, String nombre) {
+        return nombres.nombre(id) == nombre;
+    }
+
+    // ---------------- SIGUIENDO ----------------
+
+    public boolean seguir(int origen, int destino) {
+        if (destino == SIN_ID) {
+            throw new IllegalArgumentException("Id de cliente inválido");
+        }
+        asegurarCapacidad(origen);
+        int base = origen * 2;
+        if (seguidos[base] == destino || seguidos[base + 1] == destino) {
+            return false;
+        }
+        if (seguidos[base] == SIN_ID) {
+            seguidos[base] = destino;
+        } else if (seguidos[base + 1] == SIN_ID) {
+            seguidos[base + 1] = destino;
+        } else {
+            throw new IllegalStateException(
+                    "El cliente '" + nombres.nombre(origen) + "' ya sigue a 2 clientes (límite alcanzado).");
+        }
+        return true;
+    }
+
+    public boolean dejarDeSeguir(int origen, int destino) {
+        if (destino == SIN_ID || origen * 2 >= seguidos.length) return false;
+        int base = origen * 2;
+        if (seguidos[base] == destino) {
+            seguidos[base] = seguidos[base + 1];
+            seguidos[base + 1] = SIN_ID;
+            return true;
+        }
+        if (seguidos[base + 1] == destino) {
+            seguidos[base + 1] = SIN_ID;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean sigueA(int origen, int destino) {
+        if (destino == SIN_ID || origen * 2 >= seguidos.length) return false;
+        return seguidos[origen * 2] == destino || seguidos[origen * 2 + 1] == destino;
+    }
+
+    public int cantidadSeguidos(int origen) {
+        if (origen * 2 >= seguidos.length) return 0;
+        if (seguidos[origen * 2] == SIN_ID) return 0;
+        return seguidos[origen * 2 + 1] == SIN_ID ? 1 : 2;
+    }
+
+    public int seguido(int origen, int ranura) {
+        return seguidos[origen * 2 + ranura];
+    }
+
+    // ---------------- CONEXIONES ----------------
+
+    public boolean conectar(int origen, int destino) {
+        return conexiones.agregar(origen, destino);
+    }
+
+    public boolean desconectar(int origen, int destino) {
+        return conexiones.remover(origen, destino);
+    }
+
+    public boolean conectado(int origen, int destino) {
+        return conexiones.contiene(origen, destino);
+    }
+
+    public int gradoConexiones(int origen) {
+        return conexiones.grado(origen);
+    }
+
+    /**
+     * Recorre las conexiones del id (una misma versión de la lista, sin copiar).
+     */
+    public void recorrerConexiones(int origen, IntConsumer accion) {
+        conexiones.recorrer(origen, accion);
+    }
+
+    /**
+     * Borra todas las relaciones salientes del id (al eliminar el cliente).
+     */
+    public void liberar(int id) {
+        if (id * 2 < seguidos.length) {
+            seguidos[id * 2] = SIN_ID;
+            seguidos[id * 2 + 1] = SIN_ID;
+        }
+        conexiones.extraer(id);
+    }
+
+    // ---------------- VISTAS ----------------
+
+    public Set<String> vistaSiguiendo(int id, String propietario) {
+        return new AbstractSet<>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String n && vigente(id, propietario) && sigueA(id, nombres.id(n));
+            }
+
+            @Override
+            public int size() {
+                return vigente(id, propietario) ? cantidadSeguidos(id) : 0;
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                int cantidad = size();
+                return new IteradorNombres(cantidad) {
+                    @Override
+                    int idEn(int posicion) {
+                        return seguido(id, posicion);
+                    }
+                };
+            }
+        };
+    }
+
+    public Set<String> vistaConexiones(int id, String propietario) {
+        return new AbstractSet<>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String n && vigente(id, propietario) && conectado(id, nombres.id(n));
+            }
+
+            @Override
+            public int size() {
+                return vigente(id, propietario) ? gradoConexiones(id) : 0;
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                int[] adyacentes = vigente(id, propietario) ? conexiones.copia(id) : new int[0];
+                return new IteradorNombres(adyacentes.length) {
+                    @Override
+                    int idEn(int posicion) {
+                        return adyacentes[posicion];
+                    }
+                };
+            }
+        };
+    }
+
+    private abstract class IteradorNombres implements Iterator<String> {
+        private final int cantidad;
+        private int posicion;
+
+        IteradorNombres(int cantidad) {
+            this.cantidad = cantidad;
+        }
+
+        abstract int idEn(int posicion);
+
+        @Override
+        public boolean hasNext() {
+            return posicion < cantidad;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return nombres.nombre(idEn(posicion++));
+        }
+    }
+
+    private void asegurarCapacidad(int id) {
+        if (id * 2 >= seguidos.length) {
+            // Se llena antes de publicarlo: las vistas leen sin lock
+            int anterior = seguidos.length;
+            int[] nuevas = Arrays.copyOf(seguidos, Math.max(id * 2 + 2, anterior * 2));
+            Arrays.fill(nuevas, anterior, nuevas.length, SIN_ID);
+            seguidos = nuevas;
+        }
+    }
+
+    private static int[] nuevasRanuras(int capacidad) {
+        int[] r = new int[capacidad];
+        Arrays.fill(r, SIN_ID);
+        return r;
+    }
+}
@@ -0,0 +1,125 @@
+package ar.uade.redsocial.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Listas de adyacencia de ints por id denso (int[] creciente por id, sin boxing).
+ * Agregar es O(1) amortizado; remover y buscar son O(grado).
+ *
+ * Un solo escritor y lecturas sin lock: cada cambio publica un par inmutable
+ * (arreglo, grado) por id. Agregar escribe después del grado publicado (los
+ * lectores no llegan ahí); crecer y remover (que mueve el último al hueco)
+ * trabajan sobre una copia, así que un lector nunca ve un arreglo viejo con
+ * un grado nuevo ni un elemento corrido.
+ */
+public class ListasAdyacencia {
+
+    private record Lista(int[] ids, int grado) { }
+
+    private static final int[] VACIA = new int[0];
+
+    private volatile AtomicReferenceArray<Lista> listas = new AtomicReferenceArray<>(16);
+
+    public boolean agregar(int origen, int destino) {
+        asegurarCapacidad(origen);
+        if (contiene(origen, destino)) {
+            return false;
+        }
+        Lista actual = listas.get(origen);
+        int[] ids;
+        int grado;
+        if (actual == null) {
+            ids = new int[2];
+            grado = 0;
+        } else {
+            grado = actual.grado();
+            ids = grado == actual.ids().length ? Arrays.copyOf(actual.ids(), grado * 2) : actual.ids();
+        }
+        ids[grado] = destino;
+        listas.set(origen, new Lista(ids, grado + 1));
+        return true;
+    }
+
+    public boolean remover(int origen, int destino) {
+        Lista actual = lista(origen);
+        if (destino < 0 || actual == null) return false;
+        int[] ids = actual.ids();
+        int grado = actual.grado();
+        for (int i = 0; i < grado; i++) {
+            if (ids[i] == destino) {
+                if (grado == 1) {
+                    listas.set(origen, null);
+                } else {
+                    int[] copia = Arrays.copyOf(ids, grado - 1);
+                    if (i < grado - 1) copia[i] = ids[grado - 1];
+                    listas.set(origen, new Lista(copia, grado - 1));
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean contiene(int origen, int destino) {
+        Lista actual = lista(origen);
+        if (destino < 0 || actual == null) return false;
+        int[] ids = actual.ids();
+        for (int i = 0; i < actual.grado(); i++) {
+            if (ids[i] == destino) return true;
+        }
+        return false;
+    }
+
+    public int grado(int origen) {
+        Lista actual = lista(origen);
+        return actual == null ? 0 : actual.grado();
+    }
+
+    /**
+     * Recorre los elementos de una misma versión de la lista (sin copiar).
+     */
+    public void recorrer(int origen, IntConsumer accion) {
+        Lista actual = lista(origen);
+        if (actual == null) return;
+        int[] ids = actual.ids();
+        for (int i = 0; i < actual.grado(); i++) {
+            accion.accept(ids[i]);
+        }
+    }
+
+    /**
+     * @return copia de los elementos actuales (largo = grado).
+     */
+    public int[] copia(int origen) {
+        Lista actual = lista(origen);
+        return actual == null ? VACIA : Arrays.copyOf(actual.ids(), actual.grado());
+    }
+
+    /**
+     * Vacía la lista del id y devuelve sus elementos.
+     */
+    public int[] extraer(int origen) {
+        int[] elementos = copia(origen);
+        if (elementos.length > 0) listas.set(origen, null);
+        return elementos;
+    }
+
+    private Lista lista(int origen) {
+        AtomicReferenceArray<Lista> actuales = listas;
+        return origen >= 0 && origen < actuales.length() ? actuales.get(origen) : null;
+    }
+
+    private void asegurarCapacidad(int id) {
+        AtomicReferenceArray<Lista> actuales = listas;
+        if (id >= actuales.length()) {
+            // Se llena antes de publicarlo
+            AtomicReferenceArray<Lista> nuevas = new AtomicReferenceArray<>(Math.max(id + 1, actuales.length() * 2));
+            for (int i = 0; i < actuales.length(); i++) {
+                nuevas.set(i, actuales.get(i));
+            }
+            listas = nuevas;
+        }
+    }
+}
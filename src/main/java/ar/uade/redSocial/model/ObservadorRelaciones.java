@@ -0,0 +1,16 @@
+package ar.uade.redsocial.model;
+
+/**
+ * Recibe los cambios de relaciones (siguiendo / conexiones) de un Cliente.
+ * Permite mantener índices externos sin recorrer toda la red.
+ */
+public interface ObservadorRelaciones {
+
+    void seguimientoAgregado(String seguidor, String objetivo);
+
+    void seguimientoRemovido(String seguidor, String objetivo);
+
+    void conexionAgregada(String origen, String destino);
+
+    void conexionRemovida(String origen, String destino);
+}
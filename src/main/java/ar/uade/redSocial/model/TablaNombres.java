@@ -0,0 +1,154 @@
+package ar.uade.redsocial.model;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de internado nombre <-> id denso (0..capacidad-1).
+ *
+ * Hash abierto con sondeo lineal sobre un int[] (sin boxing), y los ids
+ * liberados se reutilizan para mantener la numeración densa.
+ *
+ * Un solo escritor (la red serializa las escrituras en modo compacto) y
+ * lecturas sin lock: los arreglos crecidos se llenan aparte y se publican
+ * de una vez, así que un lector nunca ve una tabla a medio armar.
+ */
+public class TablaNombres {
+
+    private static final int VACIO = -1;
+
+    private volatile String[] nombres = new String[16];
+    private volatile int[] slots = nuevoSlots(32);
+
+    private int[] libres = new int[8];
+    private int cantLibres;
+
+    private int siguienteId;
+    private int size;
+
+    /**
+     * @return el id del nombre, asignándole uno nuevo si no existía.
+     */
+    public int intern(String nombre) {
+        int id = id(nombre);
+        if (id != VACIO) {
+            return id;
+        }
+        if ((size + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+
+        id = cantLibres > 0 ? libres[--cantLibres] : siguienteId++;
+        if (id >= nombres.length) {
+            nombres = Arrays.copyOf(nombres, Math.max(id + 1, nombres.length * 2));
+        }
+        nombres[id] = nombre;
+
+        int[] s = slots;
+        int i = indice(nombre, s.length);
+        while (s[i] != VACIO) {
+            i = (i + 1) & (s.length - 1);
+        }
+        s[i] = id;
+        size++;
+        return id;
+    }
+
+    /**
+     * @return el id del nombre o -1 si no está.
+     */
+    public int id(String nombre) {
+        int[] s = slots;
+        String[] n = nombres;
+        int i = indice(nombre, s.length);
+        int id;
+        while ((id = s[i]) != VACIO) {
+            // id >= n.length: asignado después de leer los arreglos
+            if (id < n.length && nombre.equals(n[id])) {
+                return id;
+            }
+            i = (i + 1) & (s.length - 1);
+        }
+        return VACIO;
+    }
+
+    public String nombre(int id) {
+        String[] n = nombres;
+        return id >= 0 && id < n.length ? n[id] : null;
+    }
+
+    /**
+     * Libera el id del nombre para reutilizarlo (borrado con corrimiento
+     * hacia atrás, sin marcas de borrado).
+     */
+    public int liberar(String nombre) {
+        int[] slots = this.slots;
+        int mascara = slots.length - 1;
+        int i = indice(nombre, slots.length);
+        int id;
+        while ((id = slots[i]) != VACIO && !nombres[id].equals(nombre)) {
+            i = (i + 1) & mascara;
+        }
+        if (id == VACIO) {
+            return VACIO;
+        }
+
+        // Corrimiento: re-ubicar los elementos del mismo racimo
+        int hueco = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            int otro = slots[j];
+            if (otro == VACIO) break;
+            int ideal = indice(nombres[otro], slots.length);
+            boolean mover = hueco <= j ? (ideal <= hueco || ideal > j) : (ideal <= hueco && ideal > j);
+            if (mover) {
+                slots[hueco] = otro;
+                hueco = j;
+            }
+        }
+        slots[hueco] = VACIO;
+
+        nombres[id] = null;
+        if (cantLibres == libres.length) {
+            libres = Arrays.copyOf(libres, libres.length * 2);
+        }
+        libres[cantLibres++] = id;
+        size--;
+        return id;
+    }
+
+    /**
+     * Cota superior (exclusiva) de los ids asignados; útil para bitsets.
+     */
+    public int capacidad() {
+        return siguienteId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int indice(String nombre, int capacidad) {
+        int h = nombre.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (capacidad - 1);
+    }
+
+    private void rehash(int nuevaCapacidad) {
+        int[] nuevos = nuevoSlots(nuevaCapacidad);
+        for (int id = 0; id < siguienteId; id++) {
+            if (nombres[id] == null) continue;
+            int i = indice(nombres[id], nuevaCapacidad);
+            while (nuevos[i] != VACIO) {
+                i = (i + 1) & (nuevaCapacidad - 1);
+            }
+            nuevos[i] = id;
+        }
+        slots = nuevos; // se publica completo
+    }
+
+    private static int[] nuevoSlots(int capacidad) {
+        int[] s = new int[capacidad];
+        Arrays.fill(s, VACIO);
+        return s;
+    }
+}
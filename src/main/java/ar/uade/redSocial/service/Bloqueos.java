@@ -0,0 +1,101 @@
+package ar.uade.redsocial.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Política de bloqueo de RedSocialEmpresarial.
+ *
+ * - Exclusivo: cambios estructurales (carga, undo, bajas de clientes).
+ * - Compartido + franjas por cliente: altas y seguimientos sobre clientes
+ *   puntuales; operaciones sobre clientes disjuntos corren en paralelo.
+ * - Las lecturas no toman ningún lock (estructuras concurrentes).
+ *
+ * En modo serializado (estructuras no concurrentes, p. ej. modo compacto)
+ * toda escritura toma el lock exclusivo.
+ */
+final class Bloqueos {
+
+    /**
+     * Lock adquirido; se libera con try-with-resources.
+     */
+    interface Permiso extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Permiso NINGUNO = () -> { };
+
+    private final ReentrantReadWriteLock estructura = new ReentrantReadWriteLock();
+    private final ReentrantLock[] franjas;
+    private final boolean serializado;
+
+    Bloqueos(int cantidadFranjas, boolean serializado) {
+        if (Integer.bitCount(cantidadFranjas) != 1) {
+            throw new IllegalArgumentException("La cantidad de franjas debe ser potencia de 2");
+        }
+        this.serializado = serializado;
+        this.franjas = new ReentrantLock[cantidadFranjas];
+        for (int i = 0; i < cantidadFranjas; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+    }
+
+    Permiso exclusivo() {
+        ReentrantReadWriteLock.WriteLock lock = estructura.writeLock();
+        lock.lock();
+        return lock::unlock;
+    }
+
+    Permiso compartido() {
+        if (serializado) {
+            return exclusivo();
+        }
+        ReentrantReadWriteLock.ReadLock lock = estructura.readLock();
+        lock.lock();
+        return lock::unlock;
+    }
+
+    /**
+     * Lecturas que recorren varias estructuras: sin lock, salvo en modo
+     * serializado (estructuras no concurrentes), donde toma el lock de lectura:
+     * excluye a las escrituras (que toman el de escritura) pero no a otras
+     * lecturas. Se puede tomar con el exclusivo ya tomado, no al revés.
+     */
+    Permiso lectura() {
+        if (!serializado) {
+            return NINGUNO;
+        }
+        ReentrantReadWriteLock.ReadLock lock = estructura.readLock();
+        lock.lock();
+        return lock::unlock;
+    }
+
+    /**
+     * Bloquea las franjas de los dos clientes en orden fijo (sin deadlock).
+     * Debe llamarse con el permiso compartido ya tomado.
+     */
+    Permiso clientes(String a, String b) {
+        if (serializado) {
+            return NINGUNO;
+        }
+        int i = franja(a);
+        int j = franja(b);
+        ReentrantLock primero = franjas[Math.min(i, j)];
+        ReentrantLock segundo = franjas[Math.max(i, j)];
+        primero.lock();
+        if (segundo == primero) {
+            return primero::unlock;
+        }
+        segundo.lock();
+        return () -> {
+            segundo.unlock();
+            primero.unlock();
+        };
+    }
+
+    private int franja(String nombre) {
+        int h = nombre.hashCode();
+        return (h ^ (h >>> 16)) & (franjas.length - 1);
+    }
+}
@@ -0,0 +1,120 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.Cliente;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache LRU de resultados de {@code buscarPorScoringEntre}, por rango [min, max].
+ *
+ * Un alta o baja con scoring s invalida sólo los rangos que contienen s
+ * (recorre las entradas: la capacidad es chica, pensada para pocos rangos muy
+ * consultados). Los resultados son listas inmutables compartidas entre llamadas.
+ *
+ * Un cálculo que se cruza con una invalidación no se guarda (versión global),
+ * igual que en {@link CacheRecomendaciones}.
+ */
+final class CacheRangos {
+
+    // nodo del LinkedHashMap + clave + lista inmutable (aprox., referencias comprimidas)
+    private static final int BYTES_POR_ENTRADA = 112;
+    private static final int BYTES_POR_CLIENTE = 4;
+
+    private record Rango(int min, int max) {
+        boolean contiene(int scoring) {
+            return min <= scoring && scoring <= max;
+        }
+    }
+
+    private final int capacidad;
+    private final Map<Rango, List<Cliente>> entradas;
+    private final AtomicLong version = new AtomicLong();
+
+    // tamaño publicado para que las invalidaciones con la cache vacía no tomen el monitor
+    private volatile int tamanio;
+
+    // guardados por el monitor
+    private long aciertos;
+    private long fallos;
+    private long invalidaciones;
+    private long desalojos;
+    private long clientesRetenidos;
+
+    CacheRangos(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("Capacidad inválida");
+        }
+        this.capacidad = capacidad;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Rango, List<Cliente>> mayor) {
+                if (size() <= CacheRangos.this.capacidad) return false;
+                desalojos++;
+                clientesRetenidos -= mayor.getValue().size();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Leer antes de calcular y pasar a {@link #guardar}.
+     */
+    long version() {
+        return version.get();
+    }
+
+    /**
+     * @return null si no está (cuenta un fallo).
+     */
+    synchronized List<Cliente> obtener(int min, int max) {
+        List<Cliente> resultado = entradas.get(new Rango(min, max));
+        if (resultado == null) {
+            fallos++;
+        } else {
+            aciertos++;
+        }
+        return resultado;
+    }
+
+    synchronized void guardar(int min, int max, List<Cliente> resultado, long versionLeida) {
+        if (version.get() != versionLeida) return;
+        Rango rango = new Rango(min, max);
+        List<Cliente> anterior = entradas.put(rango, resultado);
+        clientesRetenidos += resultado.size() - (anterior == null ? 0 : anterior.size());
+        tamanio = entradas.size();
+        // Una invalidación que leyó tamanio == 0 antes del put no lo borró: se revisa acá
+        if (version.get() != versionLeida) {
+            clientesRetenidos -= entradas.remove(rango).size();
+            tamanio = entradas.size();
+        }
+    }
+
+    /**
+     * Un cliente con este scoring se agregó o se quitó.
+     */
+    void invalidar(int scoring) {
+        version.incrementAndGet();
+        if (tamanio == 0) return;
+        synchronized (this) {
+            Iterator<Map.Entry<Rango, List<Cliente>>> it = entradas.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Rango, List<Cliente>> entrada = it.next();
+                if (entrada.getKey().contiene(scoring)) {
+                    clientesRetenidos -= entrada.getValue().size();
+                    it.remove();
+                    invalidaciones++;
+                }
+            }
+            tamanio = entradas.size();
+        }
+    }
+
+    synchronized EstadisticasCache estadisticas() {
+        return new EstadisticasCache(aciertos, fallos, invalidaciones, desalojos, entradas.size(),
+                (long) entradas.size() * BYTES_POR_ENTRADA + clientesRetenidos * BYTES_POR_CLIENTE);
+    }
+}
@@ -0,0 +1,114 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.ObservadorRelaciones;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache LRU de recomendaciones por cliente, invalidada por los eventos de
+ * relaciones: las recomendaciones de X dependen de sus seguidos, de los
+ * seguidos de sus seguidos y de sus solicitudes pendientes, así que un cambio
+ * en los seguidos de S invalida a S y a quienes siguen a S, y un cambio en la
+ * cola invalida al solicitante.
+ *
+ * Un cálculo que se cruza con una invalidación no se guarda (versión global):
+ * nunca queda en la cache un resultado anterior a un cambio que lo afecta.
+ */
+final class CacheRecomendaciones implements ObservadorRelaciones {
+
+    private final int capacidad;
+    private final Function<String, Collection<String>> seguidoresDe;
+    private final Map<String, List<String>> entradas;
+    private final AtomicLong version = new AtomicLong();
+
+    // tamaño publicado para que las invalidaciones con la cache vacía no tomen el monitor
+    private volatile int tamanio;
+
+    CacheRecomendaciones(int capacidad, Function<String, Collection<String>> seguidoresDe) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("Capacidad inválida");
+        }
+        this.capacidad = capacidad;
+        this.seguidoresDe = seguidoresDe;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<String>> mayor) {
+                return size() > CacheRecomendaciones.this.capacidad;
+            }
+        };
+    }
+
+    /**
+     * Leer antes de calcular y pasar a {@link #guardar}.
+     */
+    long version() {
+        return version.get();
+    }
+
+    /**
+     * @return null si no está en la cache.
+     */
+    synchronized List<String> obtener(String nombre) {
+        return entradas.get(nombre);
+    }
+
+    synchronized void guardar(String nombre, List<String> recomendaciones, long versionLeida) {
+        if (version.get() != versionLeida) return;
+        entradas.put(nombre, recomendaciones);
+        tamanio = entradas.size();
+        // Una invalidación que leyó tamanio == 0 antes del put no lo borró: se revisa acá
+        if (version.get() != versionLeida) {
+            entradas.remove(nombre);
+            tamanio = entradas.size();
+        }
+    }
+
+    void invalidar(String nombre) {
+        version.incrementAndGet();
+        if (tamanio == 0) return;
+        synchronized (this) {
+            entradas.remove(nombre);
+            tamanio = entradas.size();
+        }
+    }
+
+    synchronized void vaciar() {
+        version.incrementAndGet();
+        entradas.clear();
+        tamanio = 0;
+    }
+
+    synchronized int size() {
+        return entradas.size();
+    }
+
+    private void seguidosCambiaron(String seguidor) {
+        version.incrementAndGet();
+        if (tamanio == 0) return;
+        invalidar(seguidor);
+        for (String indirecto : seguidoresDe.apply(seguidor)) {
+            invalidar(indirecto);
+        }
+    }
+
+    @Override
+    public void seguimientoAgregado(String seguidor, String objetivo) {
+        seguidosCambiaron(seguidor);
+    }
+
+    @Override
+    public void seguimientoRemovido(String seguidor, String objetivo) {
+        seguidosCambiaron(seguidor);
+    }
+
+    @Override
+    public void conexionAgregada(String origen, String destino) { }
+
+    @Override
+    public void conexionRemovida(String origen, String destino) { }
+}
@@ -0,0 +1,86 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.FollowRequest;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Cola FIFO de solicitudes de seguimiento con índice hash por par
+ * (solicitante, objetivo).
+ *
+ * LinkedHashMap conserva el orden de inserción, por lo que encolar,
+ * desencolar, detectar duplicados y remover una solicitud puntual
+ * (undo) son O(1) promedio.
+ *
+ * Avisa cada alta / baja al observador con el nombre del solicitante.
+ *
+ * No es thread-safe: RedSocialEmpresarial sincroniza sobre la instancia.
+ */
+class ColaSolicitudes implements Iterable<FollowRequest> {
+
+    private record Par(String solicitante, String objetivo) { }
+
+    private final Map<Par, FollowRequest> solicitudes = new LinkedHashMap<>();
+    private final Consumer<String> cambioDeSolicitante;
+
+    ColaSolicitudes(Consumer<String> cambioDeSolicitante) {
+        this.cambioDeSolicitante = cambioDeSolicitante;
+    }
+
+    public boolean contiene(String solicitante, String objetivo) {
+        return solicitudes.containsKey(new Par(solicitante, objetivo));
+    }
+
+    /**
+     * @return false si ya había una solicitud pendiente para el mismo par.
+     */
+    public boolean encolar(FollowRequest request) {
+        if (solicitudes.putIfAbsent(clave(request), request) != null) return false;
+        cambioDeSolicitante.accept(request.solicitante());
+        return true;
+    }
+
+    /**
+     * @return la solicitud más antigua, o null si la cola está vacía.
+     */
+    public FollowRequest desencolar() {
+        Iterator<FollowRequest> it = solicitudes.values().iterator();
+        if (!it.hasNext()) {
+            return null;
+        }
+        FollowRequest primera = it.next();
+        it.remove();
+        cambioDeSolicitante.accept(primera.solicitante());
+        return primera;
+    }
+
+    /**
+     * Remueve exactamente esta solicitud (mismo par y misma fecha).
+     */
+    public boolean remover(FollowRequest request) {
+        if (!solicitudes.remove(clave(request), request)) return false;
+        cambioDeSolicitante.accept(request.solicitante());
+        return true;
+    }
+
+    public int size() {
+        return solicitudes.size();
+    }
+
+    public boolean isEmpty() {
+        return solicitudes.isEmpty();
+    }
+
+    @Override
+    public Iterator<FollowRequest> iterator() {
+        return Collections.unmodifiableCollection(solicitudes.values()).iterator();
+    }
+
+    private static Par clave(FollowRequest request) {
+        return new Par(request.solicitante(), request.objetivo());
+    }
+}
@@ -0,0 +1,8 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.Cliente;
+
+/**
+ * Cliente alcanzado por conexiones y su distancia (cantidad de conexiones) al origen.
+ */
+public record ConexionAlcanzada(Cliente cliente, int distancia) { }
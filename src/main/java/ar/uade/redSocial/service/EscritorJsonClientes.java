@@ -0,0 +1,73 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.Cliente;
+import ar.uade.redsocial.model.FollowRequest;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Escritura en streaming (JsonWriter) del formato que lee {@link LectorJsonClientes}:
+ * <pre>
+ * { "clientes": [ { "nombre": ..., "scoring": ..., "siguiendo": [...], "conexiones": [...] } ],
+ *   "solicitudesPendientes": [ { "solicitante": ..., "objetivo": ..., "fechaHora": ... } ] }
+ * </pre>
+ * Cada cliente se escribe directo desde la red, sin armar DTOs: la memoria
+ * extra es el buffer del destino. "conexiones" se omite si está vacío y la
+ * cola sólo se escribe si se pide.
+ */
+final class EscritorJsonClientes {
+
+    private EscritorJsonClientes() { }
+
+    /**
+     * No cierra {@code destino}.
+     *
+     * @param pendientes solicitudes a incluir en orden FIFO; null para omitir la cola.
+     */
+    static void escribir(Writer destino, Collection<Cliente> clientes, Iterable<FollowRequest> pendientes)
+            throws IOException {
+        JsonWriter writer = new JsonWriter(destino);
+        writer.beginObject();
+
+        writer.name("clientes").beginArray();
+        for (Cliente cliente : clientes) {
+            writer.beginObject();
+            writer.name("nombre").value(cliente.getNombre());
+            writer.name("scoring").value(cliente.getScoring());
+            escribirNombres(writer.name("siguiendo"), cliente.getSiguiendo());
+            Set<String> conexiones = cliente.getConexiones();
+            if (!conexiones.isEmpty()) {
+                escribirNombres(writer.name("conexiones"), conexiones);
+            }
+            writer.endObject();
+        }
+        writer.endArray();
+
+        if (pendientes != null) {
+            writer.name("solicitudesPendientes").beginArray();
+            for (FollowRequest request : pendientes) {
+                writer.beginObject();
+                writer.name("solicitante").value(request.solicitante());
+                writer.name("objetivo").value(request.objetivo());
+                writer.name("fechaHora").value(request.fechaHora().toString());
+                writer.endObject();
+            }
+            writer.endArray();
+        }
+
+        writer.endObject();
+        writer.flush();
+    }
+
+    private static void escribirNombres(JsonWriter writer, Set<String> nombres) throws IOException {
+        writer.beginArray();
+        for (String nombre : nombres) {
+            writer.value(nombre);
+        }
+        writer.endArray();
+    }
+}
@@ -0,0 +1,16 @@
+package ar.uade.redsocial.service;
+
+/**
+ * Estadísticas de una cache de resultados.
+ *
+ * @param bytesEstimados memoria de las entradas (claves, nodos y referencias a
+ *                       los clientes; los clientes no cuentan, ya los guarda la red).
+ */
+public record EstadisticasCache(long aciertos, long fallos, long invalidaciones, long desalojos,
+                                int entradas, long bytesEstimados) {
+
+    public double tasaDeAciertos() {
+        long consultas = aciertos + fallos;
+        return consultas == 0 ? 0 : (double) aciertos / consultas;
+    }
+}
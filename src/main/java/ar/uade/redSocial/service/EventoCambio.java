@@ -0,0 +1,19 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.Action;
+
+/**
+ * Un cambio de la red publicado en el {@link FeedCambios}.
+ *
+ * @param secuencia creciente y sin huecos dentro del feed (empieza en 1).
+ * @param tipo      APLICADA cuando la acción entra al historial; RETRACTADA
+ *                  cuando un undo la revierte (misma acción que se había aplicado).
+ * @param accion    la acción, con el mismo detalle y payload que devuelve el undo.
+ */
+public record EventoCambio(long secuencia, Tipo tipo, Action accion) {
+
+    public enum Tipo {
+        APLICADA,
+        RETRACTADA
+    }
+}
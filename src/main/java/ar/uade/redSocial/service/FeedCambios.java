@@ -0,0 +1,203 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.Action;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Feed de cambios (CDC) de una red: cada acción que entra al historial y cada
+ * undo se publican como {@link EventoCambio} con secuencia creciente (ver
+ * {@link RedSocialEmpresarial#activarFeedDeCambios(FeedCambios)}).
+ *
+ * Los últimos {@code retencion} eventos quedan en un buffer circular: un
+ * suscriptor puede empezar (o retomar) desde cualquier secuencia retenida.
+ *
+ * Publicar sólo agrega al buffer: nunca espera a los suscriptores. Cada
+ * suscripción tiene un hilo propio que le entrega lotes de hasta
+ * {@code maxLote} eventos en orden; un suscriptor que se atrasa más que la
+ * retención pierde eventos y su suscripción termina con error (tiene que
+ * volver a partir de un snapshot).
+ *
+ * El orden respeta la causalidad (una solicitud antes que su proceso, todo
+ * antes que el undo que lo revierte); altas o solicitudes concurrentes e
+ * independientes pueden quedar en cualquier orden relativo.
+ */
+public final class FeedCambios {
+
+    public static final int LOTE_POR_DEFECTO = 256;
+
+    private final EventoCambio[] eventos;
+    private final int maxLote;
+
+    // guardados por el monitor
+    private long siguiente = 1;
+    private boolean cerrado;
+    private int esperando; // suscripciones al día, esperando eventos
+
+    public FeedCambios(int retencion) {
+        this(retencion, LOTE_POR_DEFECTO);
+    }
+
+    public FeedCambios(int retencion, int maxLote) {
+        if (retencion <= 0) {
+            throw new IllegalArgumentException("Retención inválida");
+        }
+        if (maxLote <= 0) {
+            throw new IllegalArgumentException("Lote inválido");
+        }
+        this.eventos = new EventoCambio[retencion];
+        this.maxLote = maxLote;
+    }
+
+    synchronized void publicar(EventoCambio.Tipo tipo, Action accion) {
+        long secuencia = siguiente++;
+        eventos[indice(secuencia)] = new EventoCambio(secuencia, tipo, accion);
+        if (esperando > 0) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return secuencia del último evento publicado (0 si no hubo ninguno).
+     */
+    public synchronized long ultimaSecuencia() {
+        return siguiente - 1;
+    }
+
+    /**
+     * @return secuencia más antigua que todavía se puede pedir.
+     */
+    public synchronized long primeraRetenida() {
+        return Math.max(1, siguiente - eventos.length);
+    }
+
+    /**
+     * Entrega a {@code consumidor}, en su propio hilo, los eventos desde la
+     * secuencia {@code desde} (inclusive) y todos los que se publiquen después.
+     * Si el consumidor lanza una excepción la suscripción termina y
+     * {@link Suscripcion#posicion()} queda en el primer evento de ese lote.
+     */
+    public Suscripcion suscribir(long desde, Consumer<List<EventoCambio>> consumidor) {
+        if (consumidor == null) {
+            throw new IllegalArgumentException("Consumidor inválido");
+        }
+        synchronized (this) {
+            if (desde < primeraRetenida() || desde > siguiente) {
+                throw new IllegalArgumentException("Secuencia no disponible: " + desde);
+            }
+        }
+        Suscripcion suscripcion = new Suscripcion(desde, consumidor);
+        suscripcion.hilo.start();
+        return suscripcion;
+    }
+
+    /**
+     * Termina todas las suscripciones después de entregar lo ya publicado.
+     */
+    public synchronized void cerrar() {
+        cerrado = true;
+        notifyAll();
+    }
+
+    private int indice(long secuencia) {
+        return (int) (secuencia % eventos.length);
+    }
+
+    public final class Suscripcion implements AutoCloseable {
+
+        private final Consumer<List<EventoCambio>> consumidor;
+        private final Thread hilo;
+
+        private volatile long posicion;
+        private volatile boolean activa = true;
+        private volatile Throwable error;
+
+        private Suscripcion(long desde, Consumer<List<EventoCambio>> consumidor) {
+            this.posicion = desde;
+            this.consumidor = consumidor;
+            this.hilo = new Thread(this::entregar, "feed-cambios");
+            this.hilo.setDaemon(true);
+        }
+
+        private void entregar() {
+            try {
+                while (true) {
+                    List<EventoCambio> lote = siguienteLote();
+                    if (lote == null) return;
+                    consumidor.accept(Collections.unmodifiableList(lote));
+                    posicion += lote.size();
+                }
+            } catch (InterruptedException e) {
+                // close()
+            } catch (RuntimeException | Error e) {
+                error = e;
+            } finally {
+                activa = false;
+            }
+        }
+
+        // null cuando la suscripción o el feed terminaron
+        private List<EventoCambio> siguienteLote() throws InterruptedException {
+            synchronized (FeedCambios.this) {
+                while (posicion == siguiente && !cerrado && activa) {
+                    esperando++;
+                    try {
+                        FeedCambios.this.wait();
+                    } finally {
+                        esperando--;
+                    }
+                }
+                if (!activa || posicion == siguiente) return null;
+                if (posicion < primeraRetenida()) {
+                    throw new IllegalStateException("Suscriptor atrasado: se descartaron eventos desde " + posicion);
+                }
+                int cantidad = (int) Math.min(maxLote, siguiente - posicion);
+                List<EventoCambio> lote = new ArrayList<>(cantidad);
+                for (long s = posicion; s < posicion + cantidad; s++) {
+                    lote.add(eventos[indice(s)]);
+                }
+                return lote;
+            }
+        }
+
+        /**
+         * @return secuencia del próximo evento a entregar (para retomar con {@link #suscribir}).
+         */
+        public long posicion() {
+            return posicion;
+        }
+
+        public boolean activa() {
+            return activa;
+        }
+
+        /**
+         * @return el motivo por el que terminó (consumidor que falló o suscriptor atrasado).
+         */
+        public Optional<Throwable> error() {
+            return Optional.ofNullable(error);
+        }
+
+        /**
+         * Deja de entregar; un lote en curso termina de entregarse.
+         */
+        @Override
+        public void close() {
+            activa = false;
+            synchronized (FeedCambios.this) {
+                FeedCambios.this.notifyAll();
+            }
+            if (Thread.currentThread() != hilo) {
+                try {
+                    hilo.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ar.uade.redsocial.service;
+
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Nombres de los clientes con un mismo valor (scoring, cantidad de seguidores)
+ * y su cantidad mantenida aparte: contar un rango no recorre los nombres
+ * (ConcurrentSkipListSet.size() es O(n)).
+ *
+ * Ordenado (para paginar por (valor, nombre)) o, si no hace falta orden, hash:
+ * O(1) en lugar de O(log n) comparaciones de Strings por alta / baja.
+ */
+final class GrupoNombres {
+
+    private final Set<String> nombres;
+    private final AtomicInteger cantidad = new AtomicInteger();
+
+    GrupoNombres() {
+        this(true);
+    }
+
+    GrupoNombres(boolean ordenado) {
+        nombres = ordenado ? new ConcurrentSkipListSet<>() : ConcurrentHashMap.newKeySet();
+    }
+
+    boolean agregar(String nombre) {
+        if (!nombres.add(nombre)) return false;
+        cantidad.incrementAndGet();
+        return true;
+    }
+
+    boolean remover(String nombre) {
+        if (!nombres.remove(nombre)) return false;
+        cantidad.decrementAndGet();
+        return true;
+    }
+
+    int cantidad() {
+        return cantidad.get();
+    }
+
+    boolean isEmpty() {
+        return nombres.isEmpty();
+    }
+
+    /**
+     * Vista débilmente consistente (no copia).
+     */
+    Set<String> nombres() {
+        return nombres;
+    }
+
+    /**
+     * Vista ordenada; sólo para grupos creados ordenados.
+     */
+    NavigableSet<String> nombresOrdenados() {
+        return (NavigableSet<String>) nombres;
+    }
+}
@@ -0,0 +1,101 @@
+package ar.uade.redsocial.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias (en nanos) con cubetas log-lineales al estilo HDR:
+ * cada potencia de 2 se divide en {@link #SUBCUBETAS} cubetas iguales, por lo
+ * que el error relativo de un percentil es a lo sumo 1/32 (~3%) en todo el
+ * rango de long, con memoria fija (~15 KB) y sin asignar al registrar.
+ *
+ * Registrar es lock-free; las lecturas concurrentes son aproximadas (pueden
+ * no incluir las últimas muestras).
+ */
+public final class HistogramaLatencias {
+
+    private static final int BITS_SUBCUBETA = 5;
+    static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int CUBETAS = SUBCUBETAS + (Long.SIZE - 1 - BITS_SUBCUBETA) * SUBCUBETAS;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    public void registrar(long nanos) {
+        long valor = Math.max(nanos, 0);
+        cubetas.incrementAndGet(cubeta(valor));
+        cantidad.increment();
+        total.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    public long cantidad() {
+        return cantidad.sum();
+    }
+
+    public long maximo() {
+        return maximo.get();
+    }
+
+    public double promedio() {
+        long n = cantidad.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /**
+     * Valor bajo el cual queda el {@code percentil}% de las muestras (el mayor
+     * valor de su cubeta, nunca más que el máximo registrado).
+     *
+     * @param percentil en [0, 100].
+     * @return 0 si no hay muestras.
+     */
+    public long percentil(double percentil) {
+        if (percentil < 0 || percentil > 100 || Double.isNaN(percentil)) {
+            throw new IllegalArgumentException("Percentil inválido");
+        }
+        long muestras = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            muestras += cubetas.get(i);
+        }
+        if (muestras == 0) return 0;
+
+        long rango = Math.max(1, (long) Math.ceil(percentil / 100 * muestras));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += cubetas.get(i);
+            if (acumulado >= rango) {
+                return Math.min(maximoDeCubeta(i), maximo());
+            }
+        }
+        return maximo();
+    }
+
+    public void reiniciar() {
+        for (int i = 0; i < CUBETAS; i++) {
+            cubetas.set(i, 0);
+        }
+        cantidad.reset();
+        total.reset();
+        maximo.reset();
+    }
+
+    // Valores < SUBCUBETAS van directo; el resto por exponente y sus 5 bits siguientes
+    static int cubeta(long valor) {
+        if (valor < SUBCUBETAS) return (int) valor;
+        int exponente = Long.SIZE - 1 - Long.numberOfLeadingZeros(valor);
+        int sub = (int) (valor >>> (exponente - BITS_SUBCUBETA)) & (SUBCUBETAS - 1);
+        return SUBCUBETAS + (exponente - BITS_SUBCUBETA) * SUBCUBETAS + sub;
+    }
+
+    static long maximoDeCubeta(int cubeta) {
+        if (cubeta < SUBCUBETAS) return cubeta;
+        int exponente = (cubeta - SUBCUBETAS) / SUBCUBETAS + BITS_SUBCUBETA;
+        long sub = cubeta % SUBCUBETAS;
+        int desplazamiento = exponente - BITS_SUBCUBETA;
+        long minimo = (SUBCUBETAS + sub) << desplazamiento;
+        return minimo + (1L << desplazamiento) - 1;
+    }
+}
@@ -0,0 +1,263 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.Action;
+import ar.uade.redsocial.model.ActionType;
+import ar.uade.redsocial.model.Cliente;
+import ar.uade.redsocial.model.FollowRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Historial de acciones (PILA) codificado en arreglos paralelos sobre un buffer
+ * circular acotado: opcode + referencias a los nombres + fechas en nanos.
+ *
+ * No guarda Action, detalle formateado, LocalDateTime ni FollowRequest: el
+ * Action se reconstruye (y su detalle se formatea) recién al sacarlo con undo.
+ * Al superar el límite se descartan las acciones más antiguas.
+ *
+ * Savepoints: posición absoluta del tope (no cambia al descartar las más
+ * antiguas); un undo por debajo de un savepoint lo invalida.
+ *
+ * Sincronizado: las altas y seguimientos registran desde varios hilos.
+ */
+final class HistorialAcciones {
+
+    // opcode + 3 referencias comprimidas + 2 long
+    static final int BYTES_POR_ACCION = 1 + 4 + 4 + 4 + 8 + 8;
+
+    // cada solicitud de un lote: 2 referencias + 1 long
+    static final int BYTES_POR_SOLICITUD_EN_LOTE = 4 + 4 + 8;
+
+    private static final ActionType[] TIPOS = ActionType.values();
+
+    /**
+     * Solicitudes aplicadas por un PROCESS_FOLLOW_BATCH, en orden de aplicación.
+     */
+    private record Lote(String[] solicitantes, String[] objetivos, long[] fechas) {
+        int size() {
+            return solicitantes.length;
+        }
+    }
+
+    private record Savepoint(long id, long tope) { }
+
+    private final int maxAcciones;
+    private final long maxBytes;
+
+    private byte[] tipos;
+    private String[] origenes;   // nombre del cliente / solicitante
+    private String[] destinos;   // objetivo (null en ADD_CLIENT)
+    private Lote[] lotes;        // sólo en PROCESS_FOLLOW_BATCH
+    private long[] fechasAccion;
+    private long[] fechasSolicitud;
+
+    private int inicio; // posición de la acción más antigua
+    private int size;
+    private long bytes;
+
+    // acciones registradas menos deshechas (absoluto)
+    private long tope;
+    private final ArrayDeque<Savepoint> savepoints = new ArrayDeque<>();
+    private long ultimoSavepoint;
+
+    HistorialAcciones(LimiteHistorial limite) {
+        this.maxAcciones = limite.maxAcciones();
+        this.maxBytes = limite.maxBytes();
+        reservar();
+    }
+
+    private void reservar() {
+        int inicial = Math.min(maxAcciones, 16);
+        tipos = new byte[inicial];
+        origenes = new String[inicial];
+        destinos = new String[inicial];
+        lotes = new Lote[inicial];
+        fechasAccion = new long[inicial];
+        fechasSolicitud = new long[inicial];
+        inicio = 0;
+        size = 0;
+        bytes = 0;
+    }
+
+    synchronized void registrarAlta(String nombre, LocalDateTime fecha) {
+        agregar(ActionType.ADD_CLIENT, nombre, null, null, 0, nanos(fecha));
+    }
+
+    synchronized void registrarSeguimiento(ActionType tipo, FollowRequest req, LocalDateTime fecha) {
+        agregar(tipo, req.solicitante(), req.objetivo(), null, nanos(req.fechaHora()), nanos(fecha));
+    }
+
+    synchronized void registrarLote(List<FollowRequest> aplicadas, LocalDateTime fecha) {
+        int n = aplicadas.size();
+        Lote lote = new Lote(new String[n], new String[n], new long[n]);
+        for (int i = 0; i < n; i++) {
+            FollowRequest req = aplicadas.get(i);
+            lote.solicitantes[i] = req.solicitante();
+            lote.objetivos[i] = req.objetivo();
+            lote.fechas[i] = nanos(req.fechaHora());
+        }
+        agregar(ActionType.PROCESS_FOLLOW_BATCH, null, null, lote, 0, nanos(fecha));
+    }
+
+    private void agregar(ActionType tipo, String origen, String destino, Lote lote,
+                         long fechaSolicitud, long fechaAccion) {
+        long peso = peso(lote);
+
+        // Se descartan las más antiguas hasta que entre (una acción sola siempre entra)
+        while (size > 0 && (size == maxAcciones || bytes + peso > maxBytes)) {
+            bytes -= peso(lotes[inicio]);
+            origenes[inicio] = null;
+            destinos[inicio] = null;
+            lotes[inicio] = null;
+            inicio = (inicio + 1) % tipos.length;
+            size--;
+        }
+        if (size == tipos.length) {
+            crecer();
+        }
+
+        int i = (inicio + size) % tipos.length;
+        tipos[i] = (byte) tipo.ordinal();
+        origenes[i] = origen;
+        destinos[i] = destino;
+        lotes[i] = lote;
+        fechasSolicitud[i] = fechaSolicitud;
+        fechasAccion[i] = fechaAccion;
+        size++;
+        bytes += peso;
+        tope++;
+    }
+
+    private static long peso(Lote lote) {
+        return BYTES_POR_ACCION + (lote == null ? 0 : (long) lote.size() * BYTES_POR_SOLICITUD_EN_LOTE);
+    }
+
+    // Duplica (hasta el máximo de acciones) dejando la más antigua en la posición 0
+    private void crecer() {
+        int nueva = (int) Math.min(maxAcciones, tipos.length * 2L);
+        int cola = tipos.length - inicio;
+
+        byte[] nuevosTipos = new byte[nueva];
+        System.arraycopy(tipos, inicio, nuevosTipos, 0, cola);
+        System.arraycopy(tipos, 0, nuevosTipos, cola, inicio);
+        tipos = nuevosTipos;
+
+        long[] nuevasFechasAccion = new long[nueva];
+        System.arraycopy(fechasAccion, inicio, nuevasFechasAccion, 0, cola);
+        System.arraycopy(fechasAccion, 0, nuevasFechasAccion, cola, inicio);
+        fechasAccion = nuevasFechasAccion;
+
+        long[] nuevasFechasSolicitud = new long[nueva];
+        System.arraycopy(fechasSolicitud, inicio, nuevasFechasSolicitud, 0, cola);
+        System.arraycopy(fechasSolicitud, 0, nuevasFechasSolicitud, cola, inicio);
+        fechasSolicitud = nuevasFechasSolicitud;
+
+        origenes = desenrollar(origenes, new String[nueva], cola);
+        destinos = desenrollar(destinos, new String[nueva], cola);
+        lotes = desenrollar(lotes, new Lote[nueva], cola);
+        inicio = 0;
+    }
+
+    private <T> T[] desenrollar(T[] viejo, T[] nuevo, int cola) {
+        System.arraycopy(viejo, inicio, nuevo, 0, cola);
+        System.arraycopy(viejo, 0, nuevo, cola, inicio);
+        return nuevo;
+    }
+
+    /**
+     * Saca la última acción y la reconstruye.
+     *
+     * @param clientes resuelve el payload de ADD_CLIENT (el cliente sigue en la red).
+     * @return null si no hay acciones retenidas.
+     */
+    synchronized Action poll(Function<String, Cliente> clientes) {
+        if (size == 0) return null;
+
+        int i = (inicio + size - 1) % tipos.length;
+        ActionType tipo = TIPOS[tipos[i]];
+        String origen = origenes[i];
+        String destino = destinos[i];
+        Lote lote = lotes[i];
+        LocalDateTime fecha = fecha(fechasAccion[i]);
+        origenes[i] = null;
+        destinos[i] = null;
+        lotes[i] = null;
+        size--;
+        bytes -= peso(lote);
+        tope--;
+        while (!savepoints.isEmpty() && savepoints.peekLast().tope() > tope) {
+            savepoints.pollLast();
+        }
+
+        return switch (tipo) {
+            case ADD_CLIENT -> new Action(tipo, origen, clientes.apply(origen), fecha);
+            case PROCESS_FOLLOW_BATCH -> {
+                FollowRequest[] aplicadas = new FollowRequest[lote.size()];
+                for (int j = 0; j < aplicadas.length; j++) {
+                    aplicadas[j] = new FollowRequest(lote.solicitantes[j], lote.objetivos[j], fecha(lote.fechas[j]));
+                }
+                yield new Action(tipo, "lote de " + aplicadas.length + " solicitudes",
+                        Arrays.asList(aplicadas), fecha);
+            }
+            default -> new Action(tipo, origen + " -> " + destino,
+                    new FollowRequest(origen, destino, fecha(fechasSolicitud[i])), fecha);
+        };
+    }
+
+    /**
+     * Checkpoint: descarta todas las acciones retenidas (ya no se pueden deshacer)
+     * y devuelve la memoria de los arreglos.
+     *
+     * @return cantidad de acciones descartadas.
+     */
+    synchronized int checkpoint() {
+        int descartadas = size;
+        reservar(); // libera los arreglos crecidos
+        savepoints.clear();
+        return descartadas;
+    }
+
+    /**
+     * @return id del savepoint en la posición actual.
+     */
+    synchronized long savepoint() {
+        savepoints.addLast(new Savepoint(++ultimoSavepoint, tope));
+        return ultimoSavepoint;
+    }
+
+    /**
+     * @return cantidad de acciones a deshacer para volver al savepoint.
+     */
+    synchronized int accionesDesde(long savepoint) {
+        Iterator<Savepoint> it = savepoints.descendingIterator();
+        while (it.hasNext()) {
+            Savepoint s = it.next();
+            if (s.id() != savepoint) continue;
+            long cantidad = tope - s.tope();
+            if (cantidad > size) {
+                throw new IllegalStateException("Las acciones posteriores al savepoint ya se descartaron del historial.");
+            }
+            return (int) cantidad;
+        }
+        throw new IllegalArgumentException("Savepoint inexistente o ya deshecho: " + savepoint);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private static long nanos(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + fecha.getNano();
+    }
+
+    private static LocalDateTime fecha(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
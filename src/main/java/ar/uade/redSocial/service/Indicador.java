@@ -0,0 +1,12 @@
+package ar.uade.redsocial.service;
+
+/**
+ * Valores instantáneos de la red (gauges) publicados en {@link RegistroMetricas}.
+ */
+public enum Indicador {
+    SOLICITUDES_PENDIENTES,
+    ACCIONES_EN_HISTORIAL,
+    CLIENTES,
+    // grupos del índice por scoring (scorings distintos)
+    GRUPOS_POR_SCORING
+}
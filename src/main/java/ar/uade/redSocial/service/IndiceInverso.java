@@ -0,0 +1,28 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.ObservadorRelaciones;
+
+import java.util.Collection;
+
+/**
+ * Índice inverso de relaciones (objetivo -> quiénes lo apuntan).
+ *
+ * Se mantiene a partir de los eventos de cada Cliente, por lo que
+ * eliminar un cliente sólo toca a los clientes que realmente lo referencian.
+ */
+interface IndiceInverso extends ObservadorRelaciones {
+
+    Collection<String> seguidoresDe(String nombre);
+
+    Collection<String> conexionesEntrantesDe(String nombre);
+
+    int cantidadSeguidores(String nombre);
+
+    /**
+     * Quita y devuelve los seguidores del cliente (la colección devuelta ya no
+     * pertenece al índice, por lo que se puede modificar a los seguidores mientras se recorre).
+     */
+    Collection<String> extraerSeguidores(String nombre);
+
+    Collection<String> extraerConexionesEntrantes(String nombre);
+}
@@ -0,0 +1,112 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.ListasAdyacencia;
+import ar.uade.redsocial.model.TablaNombres;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Índice inverso sobre ids densos (modo compacto): listas de int por cliente
+ * en lugar de un HashSet de Strings por cliente.
+ *
+ * Las escrituras en modo compacto son exclusivas, por lo que el ranking se
+ * actualiza a continuación de cada cambio sin más sincronización.
+ */
+class IndiceInversoCompacto implements IndiceInverso {
+
+    private final TablaNombres nombres;
+    private final ListasAdyacencia seguidores = new ListasAdyacencia();
+    private final ListasAdyacencia conexionesEntrantes = new ListasAdyacencia();
+    private final RankingSeguidores ranking;
+
+    IndiceInversoCompacto(TablaNombres nombres, RankingSeguidores ranking) {
+        this.nombres = nombres;
+        this.ranking = ranking;
+    }
+
+    @Override
+    public void seguimientoAgregado(String seguidor, String objetivo) {
+        int id = nombres.id(objetivo);
+        if (seguidores.agregar(id, nombres.id(seguidor))) {
+            ranking.cambio(objetivo, seguidores.grado(id) - 1, seguidores.grado(id));
+        }
+    }
+
+    @Override
+    public void seguimientoRemovido(String seguidor, String objetivo) {
+        int id = nombres.id(objetivo);
+        if (id >= 0 && seguidores.remover(id, nombres.id(seguidor))) {
+            ranking.cambio(objetivo, seguidores.grado(id) + 1, seguidores.grado(id));
+        }
+    }
+
+    @Override
+    public void conexionAgregada(String origen, String destino) {
+        conexionesEntrantes.agregar(nombres.id(destino), nombres.id(origen));
+    }
+
+    @Override
+    public void conexionRemovida(String origen, String destino) {
+        int id = nombres.id(destino);
+        if (id >= 0) conexionesEntrantes.remover(id, nombres.id(origen));
+    }
+
+    @Override
+    public Collection<String> seguidoresDe(String nombre) {
+        int id = nombres.id(nombre);
+        return id < 0 ? List.of() : aNombres(seguidores, id);
+    }
+
+    @Override
+    public Collection<String> conexionesEntrantesDe(String nombre) {
+        int id = nombres.id(nombre);
+        return id < 0 ? List.of() : aNombres(conexionesEntrantes, id);
+    }
+
+    @Override
+    public int cantidadSeguidores(String nombre) {
+        int id = nombres.id(nombre);
+        return id < 0 ? 0 : seguidores.grado(id);
+    }
+
+    @Override
+    public Collection<String> extraerSeguidores(String nombre) {
+        int id = nombres.id(nombre);
+        if (id < 0) return List.of();
+        int[] ids = seguidores.extraer(id);
+        ranking.cambio(nombre, ids.length, 0);
+        return aNombres(ids, ids.length);
+    }
+
+    @Override
+    public Collection<String> extraerConexionesEntrantes(String nombre) {
+        int id = nombres.id(nombre);
+        if (id < 0) return List.of();
+        int[] ids = conexionesEntrantes.extraer(id);
+        return aNombres(ids, ids.length);
+    }
+
+    /**
+     * Ids de los clientes que tienen a {@code id} en sus conexiones (sin copiar).
+     */
+    void conexionesEntrantes(int id, IntConsumer accion) {
+        conexionesEntrantes.recorrer(id, accion);
+    }
+
+    private List<String> aNombres(ListasAdyacencia listas, int id) {
+        List<String> resultado = new ArrayList<>(listas.grado(id));
+        listas.recorrer(id, v -> resultado.add(nombres.nombre(v)));
+        return resultado;
+    }
+
+    private List<String> aNombres(int[] ids, int cantidad) {
+        List<String> resultado = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            resultado.add(nombres.nombre(ids[i]));
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,103 @@
+package ar.uade.redsocial.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice inverso sobre ConcurrentHashMap por nombre (modo por defecto).
+ * Agregar y quitar usan compute para que un set vaciado no pierda altas concurrentes;
+ * el ranking de seguidores se actualiza dentro del mismo compute (serializado por objetivo).
+ */
+class IndiceInversoHash implements IndiceInverso {
+
+    // objetivo -> seguidores
+    private final Map<String, Set<String>> seguidores = new ConcurrentHashMap<>();
+
+    // destino -> clientes que lo tienen en conexiones
+    private final Map<String, Set<String>> conexionesEntrantes = new ConcurrentHashMap<>();
+
+    private final RankingSeguidores ranking;
+
+    IndiceInversoHash(RankingSeguidores ranking) {
+        this.ranking = ranking;
+    }
+
+    @Override
+    public void seguimientoAgregado(String seguidor, String objetivo) {
+        seguidores.compute(objetivo, (k, s) -> {
+            Set<String> set = s == null ? ConcurrentHashMap.newKeySet() : s;
+            if (set.add(seguidor)) {
+                ranking.cambio(objetivo, set.size() - 1, set.size());
+            }
+            return set;
+        });
+    }
+
+    @Override
+    public void seguimientoRemovido(String seguidor, String objetivo) {
+        seguidores.computeIfPresent(objetivo, (k, s) -> {
+            if (s.remove(seguidor)) {
+                ranking.cambio(objetivo, s.size() + 1, s.size());
+            }
+            return s.isEmpty() ? null : s;
+        });
+    }
+
+    @Override
+    public void conexionAgregada(String origen, String destino) {
+        agregar(conexionesEntrantes, destino, origen);
+    }
+
+    @Override
+    public void conexionRemovida(String origen, String destino) {
+        quitar(conexionesEntrantes, destino, origen);
+    }
+
+    @Override
+    public Collection<String> seguidoresDe(String nombre) {
+        return Collections.unmodifiableSet(seguidores.getOrDefault(nombre, Collections.emptySet()));
+    }
+
+    @Override
+    public Collection<String> conexionesEntrantesDe(String nombre) {
+        return Collections.unmodifiableSet(conexionesEntrantes.getOrDefault(nombre, Collections.emptySet()));
+    }
+
+    @Override
+    public int cantidadSeguidores(String nombre) {
+        Set<String> s = seguidores.get(nombre);
+        return s == null ? 0 : s.size();
+    }
+
+    @Override
+    public Collection<String> extraerSeguidores(String nombre) {
+        Set<String> s = seguidores.remove(nombre);
+        if (s == null) return Collections.emptySet();
+        ranking.cambio(nombre, s.size(), 0);
+        return s;
+    }
+
+    @Override
+    public Collection<String> extraerConexionesEntrantes(String nombre) {
+        Set<String> s = conexionesEntrantes.remove(nombre);
+        return s == null ? Collections.emptySet() : s;
+    }
+
+    private static void agregar(Map<String, Set<String>> indice, String clave, String valor) {
+        indice.compute(clave, (k, s) -> {
+            Set<String> set = s == null ? ConcurrentHashMap.newKeySet() : s;
+            set.add(valor);
+            return set;
+        });
+    }
+
+    private static void quitar(Map<String, Set<String>> indice, String clave, String valor) {
+        indice.computeIfPresent(clave, (k, s) -> {
+            s.remove(valor);
+            return s.isEmpty() ? null : s;
+        });
+    }
+}
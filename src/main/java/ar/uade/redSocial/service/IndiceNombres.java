@@ -0,0 +1,157 @@
+package ar.uade.redsocial.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Nombres de los clientes ordenados, para búsqueda por prefijo y por
+ * distancia de edición acotada (autocompletado).
+ *
+ * Un ConcurrentSkipListSet sobre las mismas instancias de String que guarda la
+ * red: ~30 bytes por nombre (nodo + índices), sin nodos por carácter como un trie.
+ * Los nombres con un prefijo común son contiguos, así que el recorrido ordenado
+ * hace de trie: la búsqueda aproximada reutiliza las filas de Levenshtein del
+ * prefijo compartido con el nombre anterior y saltea de una vez todos los
+ * nombres de un prefijo que ya supera la distancia.
+ *
+ * Débilmente consistente con altas / bajas concurrentes.
+ */
+final class IndiceNombres {
+
+    private final ConcurrentSkipListSet<String> nombres = new ConcurrentSkipListSet<>();
+
+    void agregar(String nombre) {
+        nombres.add(nombre);
+    }
+
+    void remover(String nombre) {
+        nombres.remove(nombre);
+    }
+
+    /**
+     * @return hasta {@code limite} nombres que empiezan con {@code prefijo}, en orden.
+     */
+    List<String> conPrefijo(String prefijo, int limite) {
+        validarLimite(limite);
+        if (prefijo == null) {
+            throw new IllegalArgumentException("Prefijo inválido");
+        }
+        List<String> resultado = new ArrayList<>(Math.min(limite, 16));
+        for (String nombre : nombres.tailSet(prefijo)) {
+            if (!nombre.startsWith(prefijo) || resultado.size() == limite) break;
+            resultado.add(nombre);
+        }
+        return resultado;
+    }
+
+    /**
+     * @return hasta {@code limite} nombres a distancia de Levenshtein
+     *         {@code <= maxDistancia} de {@code consulta}, por distancia y después por nombre.
+     */
+    List<String> similares(String consulta, int maxDistancia, int limite) {
+        validarLimite(limite);
+        if (consulta == null) {
+            throw new IllegalArgumentException("Nombre inválido");
+        }
+        if (maxDistancia < 0) {
+            throw new IllegalArgumentException("Distancia inválida");
+        }
+
+        // Una lista por distancia, cada una acotada al límite: el orden final sale de concatenarlas
+        List<List<String>> porDistancia = new ArrayList<>(maxDistancia + 1);
+        for (int d = 0; d <= maxDistancia; d++) {
+            porDistancia.add(new ArrayList<>());
+        }
+
+        // filas.get(j): fila de Levenshtein del prefijo de largo j del candidato
+        int m = consulta.length();
+        List<int[]> filas = new ArrayList<>();
+        int[] primera = new int[m + 1];
+        for (int i = 0; i <= m; i++) primera[i] = i;
+        filas.add(primera);
+
+        // filas válidas: las de los primeros "validas" caracteres de anterior
+        String anterior = "";
+        int validas = 0;
+        String candidato = nombres.isEmpty() ? null : nombres.first();
+        while (candidato != null) {
+            int j = Math.min(validas, prefijoComun(anterior, candidato));
+            boolean podado = false;
+            while (j < candidato.length() && !podado) {
+                int[] fila = fila(filas, j + 1, m);
+                podado = siguienteFila(filas.get(j), fila, consulta, candidato.charAt(j)) > maxDistancia;
+                j++;
+            }
+            anterior = candidato;
+            validas = j;
+
+            if (podado) {
+                // Ningún nombre con este prefijo puede quedar a distancia <= maxDistancia
+                String siguiente = sucesorDePrefijo(candidato.substring(0, j));
+                candidato = siguiente == null ? null : nombres.ceiling(siguiente);
+                continue;
+            }
+
+            int distancia = filas.get(j)[m];
+            if (distancia <= maxDistancia) {
+                List<String> lista = porDistancia.get(distancia);
+                if (lista.size() < limite) lista.add(candidato);
+            }
+            candidato = nombres.higher(candidato);
+        }
+
+        List<String> resultado = new ArrayList<>();
+        for (List<String> lista : porDistancia) {
+            for (String nombre : lista) {
+                if (resultado.size() == limite) return resultado;
+                resultado.add(nombre);
+            }
+        }
+        return resultado;
+    }
+
+    int size() {
+        return nombres.size();
+    }
+
+    private static void validarLimite(int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("Límite inválido");
+        }
+    }
+
+    private static int[] fila(List<int[]> filas, int j, int m) {
+        if (j == filas.size()) {
+            filas.add(new int[m + 1]);
+        }
+        return filas.get(j);
+    }
+
+    // Calcula la fila del prefijo extendido con c; devuelve su mínimo
+    private static int siguienteFila(int[] previa, int[] fila, String consulta, char c) {
+        fila[0] = previa[0] + 1;
+        int minimo = fila[0];
+        for (int i = 1; i < fila.length; i++) {
+            int sustitucion = previa[i - 1] + (consulta.charAt(i - 1) == c ? 0 : 1);
+            fila[i] = Math.min(sustitucion, Math.min(previa[i], fila[i - 1]) + 1);
+            minimo = Math.min(minimo, fila[i]);
+        }
+        return minimo;
+    }
+
+    private static int prefijoComun(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < n && a.charAt(i) == b.charAt(i)) i++;
+        return i;
+    }
+
+    // Menor String mayor que todos los que empiezan con el prefijo (null si no hay)
+    private static String sucesorDePrefijo(String prefijo) {
+        int fin = prefijo.length();
+        while (fin > 0 && prefijo.charAt(fin - 1) == Character.MAX_VALUE) fin--;
+        if (fin == 0) return null;
+        return prefijo.substring(0, fin - 1) + (char) (prefijo.charAt(fin - 1) + 1);
+    }
+}
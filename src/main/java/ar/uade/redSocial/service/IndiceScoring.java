@@ -0,0 +1,107 @@
+package ar.uade.redsocial.service;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Índice scoring -> nombres de los clientes con ese scoring (ordenados por nombre).
+ *
+ * Los recorridos son débilmente consistentes frente a escrituras concurrentes
+ * y pueden saltear o devolver grupos que se vacían mientras se recorren.
+ */
+interface IndiceScoring {
+
+    void agregar(int scoring, String nombre);
+
+    /**
+     * Alta en bloque de nombres con el mismo scoring (carga inicial).
+     */
+    default void agregarTodos(int scoring, Collection<String> nombres) {
+        for (String nombre : nombres) {
+            agregar(scoring, nombre);
+        }
+    }
+
+    void remover(int scoring, String nombre);
+
+    /**
+     * @return null si no hay clientes con ese scoring.
+     */
+    GrupoNombres grupo(int scoring);
+
+    /**
+     * Cantidad de scorings con al menos un cliente.
+     */
+    int cantidadGrupos();
+
+    /**
+     * Recorre los grupos con scoring en [min, max] sin copiar el índice.
+     *
+     * @throws IllegalArgumentException si min > max.
+     */
+    Recorrido recorrer(int min, int max, boolean descendente);
+
+    /**
+     * Cursor sobre (scoring, grupo) con el scoring como int (sin Integer por grupo).
+     */
+    interface Recorrido {
+
+        boolean avanzar();
+
+        int scoring();
+
+        GrupoNombres grupo();
+    }
+
+    /**
+     * Cantidad de clientes con scoring en [min, max]: O(scorings distintos en el rango).
+     */
+    default int contar(int min, int max) {
+        int total = 0;
+        Recorrido r = recorrer(min, max, false);
+        while (r.avanzar()) {
+            total += r.grupo().cantidad();
+        }
+        return total;
+    }
+
+    /**
+     * Cantidad de clientes con scoring estrictamente mayor.
+     */
+    default int contarMayoresA(int scoring) {
+        return scoring == Integer.MAX_VALUE ? 0 : contar(scoring + 1, Integer.MAX_VALUE);
+    }
+
+    default Iterable<GrupoNombres> grupos(int min, int max, boolean descendente) {
+        return () -> new Iterator<>() {
+            private final Recorrido r = recorrer(min, max, descendente);
+            private GrupoNombres siguiente;
+
+            @Override
+            public boolean hasNext() {
+                if (siguiente == null && r.avanzar()) {
+                    siguiente = r.grupo();
+                }
+                return siguiente != null;
+            }
+
+            @Override
+            public GrupoNombres next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                GrupoNombres grupo = siguiente;
+                siguiente = null;
+                return grupo;
+            }
+        };
+    }
+
+    default Stream<GrupoNombres> streamGrupos(int min, int max) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                grupos(min, max, false).iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+}
@@ -0,0 +1,76 @@
+package ar.uade.redsocial.service;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice por scoring sobre un mapa ordenado concurrente: sirve para cualquier
+ * dominio de scorings, a costa de un Integer y un nodo por scoring distinto y
+ * O(log d) comparaciones por alta / consulta.
+ */
+final class IndiceScoringArbol implements IndiceScoring {
+
+    private final NavigableMap<Integer, GrupoNombres> grupos = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void agregar(int scoring, String nombre) {
+        grupos.computeIfAbsent(scoring, k -> new GrupoNombres()).agregar(nombre);
+    }
+
+    @Override
+    public void agregarTodos(int scoring, Collection<String> nombres) {
+        GrupoNombres grupo = grupos.computeIfAbsent(scoring, k -> new GrupoNombres());
+        nombres.forEach(grupo::agregar);
+    }
+
+    @Override
+    public void remover(int scoring, String nombre) {
+        GrupoNombres grupo = grupos.get(scoring);
+        if (grupo != null && grupo.remover(nombre) && grupo.isEmpty()) {
+            grupos.remove(scoring, grupo);
+        }
+    }
+
+    @Override
+    public GrupoNombres grupo(int scoring) {
+        return grupos.get(scoring);
+    }
+
+    @Override
+    public int cantidadGrupos() {
+        return grupos.size();
+    }
+
+    @Override
+    public Recorrido recorrer(int min, int max, boolean descendente) {
+        if (min > max) {
+            throw new IllegalArgumentException("Rango de scoring inválido");
+        }
+        NavigableMap<Integer, GrupoNombres> rango = grupos.subMap(min, true, max, true);
+        Iterator<Map.Entry<Integer, GrupoNombres>> it =
+                (descendente ? rango.descendingMap() : rango).entrySet().iterator();
+
+        return new Recorrido() {
+            private Map.Entry<Integer, GrupoNombres> actual;
+
+            @Override
+            public boolean avanzar() {
+                actual = it.hasNext() ? it.next() : null;
+                return actual != null;
+            }
+
+            @Override
+            public int scoring() {
+                return actual.getKey();
+            }
+
+            @Override
+            public GrupoNombres grupo() {
+                return actual.getValue();
+            }
+        };
+    }
+}
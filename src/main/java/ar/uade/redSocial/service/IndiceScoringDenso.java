@@ -0,0 +1,160 @@
+package ar.uade.redsocial.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Índice por scoring para dominios chicos: un arreglo de grupos indexado por
+ * el scoring, sin boxing ni búsqueda (alta y consulta puntual O(1)). Los
+ * scorings que no entran en el arreglo van a un {@link IndiceScoringArbol}.
+ *
+ * Los grupos no se quitan al vaciarse (como en {@link RankingSeguidores}) y
+ * los recorridos se cortan en el mayor scoring alguna vez ocupado, por lo que
+ * un rango cuesta O(amplitud del rango hasta ese máximo), no O(scorings distintos).
+ */
+final class IndiceScoringDenso implements IndiceScoring {
+
+    static final int CAPACIDAD_POR_DEFECTO = 1 << 12;
+
+    private final AtomicReferenceArray<GrupoNombres> grupos;
+    private final AtomicInteger maximoOcupado = new AtomicInteger(-1);
+    private final IndiceScoringArbol desborde = new IndiceScoringArbol();
+
+    IndiceScoringDenso() {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * @param capacidad scorings en [0, capacidad) van al arreglo.
+     */
+    IndiceScoringDenso(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("Capacidad inválida");
+        }
+        grupos = new AtomicReferenceArray<>(capacidad);
+    }
+
+    private boolean enArreglo(int scoring) {
+        return scoring >= 0 && scoring < grupos.length();
+    }
+
+    @Override
+    public void agregar(int scoring, String nombre) {
+        if (!enArreglo(scoring)) {
+            desborde.agregar(scoring, nombre);
+            return;
+        }
+        GrupoNombres grupo = grupos.get(scoring);
+        if (grupo == null) {
+            grupos.compareAndSet(scoring, null, new GrupoNombres());
+            grupo = grupos.get(scoring);
+            maximoOcupado.accumulateAndGet(scoring, Math::max);
+        }
+        grupo.agregar(nombre);
+    }
+
+    @Override
+    public void remover(int scoring, String nombre) {
+        if (!enArreglo(scoring)) {
+            desborde.remover(scoring, nombre);
+            return;
+        }
+        GrupoNombres grupo = grupos.get(scoring);
+        if (grupo != null) grupo.remover(nombre);
+    }
+
+    @Override
+    public GrupoNombres grupo(int scoring) {
+        if (!enArreglo(scoring)) return desborde.grupo(scoring);
+        GrupoNombres grupo = grupos.get(scoring);
+        return grupo == null || grupo.isEmpty() ? null : grupo;
+    }
+
+    @Override
+    public int cantidadGrupos() {
+        int total = desborde.cantidadGrupos();
+        for (int i = 0, hasta = maximoOcupado.get(); i <= hasta; i++) {
+            GrupoNombres grupo = grupos.get(i);
+            if (grupo != null && !grupo.isEmpty()) total++;
+        }
+        return total;
+    }
+
+    @Override
+    public Recorrido recorrer(int min, int max, boolean descendente) {
+        if (min > max) {
+            throw new IllegalArgumentException("Rango de scoring inválido");
+        }
+        int desde = Math.max(min, 0);
+        int hasta = Math.min(max, maximoOcupado.get());
+        boolean conDesborde = max >= grupos.length();
+        Recorrido fuera = conDesborde
+                ? desborde.recorrer(Math.max(min, grupos.length()), max, descendente)
+                : null;
+
+        return descendente
+                ? new RecorridoDenso(hasta, desde, -1, fuera, true)
+                : new RecorridoDenso(desde, hasta, 1, fuera, false);
+    }
+
+    /**
+     * Recorre [primero, ultimo] del arreglo en el sentido de {@code paso}; el
+     * desborde (scorings más altos) va antes al descender y después al ascender.
+     */
+    private final class RecorridoDenso implements Recorrido {
+        private final int ultimo;
+        private final int paso;
+        private Recorrido fuera;
+        private boolean fueraPrimero;
+        private int i;
+        private int scoring;
+        private GrupoNombres grupo;
+
+        RecorridoDenso(int primero, int ultimo, int paso, Recorrido fuera, boolean fueraPrimero) {
+            this.i = primero;
+            this.ultimo = ultimo;
+            this.paso = paso;
+            this.fuera = fuera;
+            this.fueraPrimero = fueraPrimero;
+        }
+
+        @Override
+        public boolean avanzar() {
+            if (fueraPrimero) {
+                if (avanzarFuera()) return true;
+                fueraPrimero = false;
+            }
+            for (; paso > 0 ? i <= ultimo : i >= ultimo; i += paso) {
+                GrupoNombres g = grupos.get(i);
+                if (g != null && !g.isEmpty()) {
+                    scoring = i;
+                    grupo = g;
+                    i += paso;
+                    return true;
+                }
+            }
+            return avanzarFuera();
+        }
+
+        private boolean avanzarFuera() {
+            if (fuera == null) return false;
+            if (fuera.avanzar()) {
+                scoring = fuera.scoring();
+                grupo = fuera.grupo();
+                return true;
+            }
+            fuera = null;
+            return false;
+        }
+
+        @Override
+        public int scoring() {
+            return scoring;
+        }
+
+        @Override
+        public GrupoNombres grupo() {
+            return grupo;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.FollowRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingreso asíncrono de solicitudes de seguimiento: los productores dejan la
+ * solicitud en un buffer acotado y reciben un CompletableFuture; un único hilo
+ * aplicador las saca en lotes y las encola en la red con un solo permiso y una
+ * sola espera del registro por lote.
+ *
+ * Un único aplicador conserva el orden FIFO de llegada al buffer, y cada
+ * solicitud queda en el historial como su propio REQUEST_FOLLOW (se deshace
+ * igual que con {@link RedSocialEmpresarial#solicitarSeguir}).
+ *
+ * El futuro se completa cuando la solicitud quedó pendiente en la red, o
+ * falla con IllegalArgumentException (mismo motivo que la llamada síncrona) o
+ * IllegalStateException (sobrecarga según la {@link Contrapresion}, o ingreso cerrado).
+ */
+public final class IngresoSolicitudes implements AutoCloseable {
+
+    /**
+     * Qué hacer cuando el buffer está lleno.
+     *
+     * - BLOQUEAR: el productor espera lugar.
+     * - RECHAZAR: la solicitud nueva falla en el momento.
+     * - DESCARTAR_ANTIGUA: falla la más antigua del buffer y entra la nueva.
+     */
+    public enum Contrapresion {
+        BLOQUEAR,
+        RECHAZAR,
+        DESCARTAR_ANTIGUA
+    }
+
+    public static final int LOTE_POR_DEFECTO = 256;
+
+    private static final long ESPERA_MS = 50;
+
+    private record Pedido(FollowRequest request, CompletableFuture<Void> resultado, long ingreso) { }
+
+    // Marca de cierre: lo que llegue detrás falla
+    private static final Pedido FIN = new Pedido(null, null, 0);
+
+    private final RedSocialEmpresarial red;
+    private final ArrayBlockingQueue<Pedido> buffer;
+    private final Contrapresion contrapresion;
+    private final int maxLote;
+    private final Thread aplicador;
+
+    // ingreso -> quedó pendiente en la red (o falló)
+    private final HistogramaLatencias latencias = new HistogramaLatencias();
+    private final AtomicLong aplicadas = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+
+    private volatile boolean cerrado;
+
+    public IngresoSolicitudes(RedSocialEmpresarial red, int capacidad, Contrapresion contrapresion) {
+        this(red, capacidad, contrapresion, LOTE_POR_DEFECTO);
+    }
+
+    public IngresoSolicitudes(RedSocialEmpresarial red, int capacidad, Contrapresion contrapresion, int maxLote) {
+        if (red == null) {
+            throw new IllegalArgumentException("Red inválida");
+        }
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("Capacidad inválida");
+        }
+        if (contrapresion == null) {
+            throw new IllegalArgumentException("Contrapresión inválida");
+        }
+        if (maxLote <= 0) {
+            throw new IllegalArgumentException("Lote inválido");
+        }
+        this.red = red;
+        this.buffer = new ArrayBlockingQueue<>(capacidad);
+        this.contrapresion = contrapresion;
+        this.maxLote = maxLote;
+        this.aplicador = new Thread(this::aplicar, "ingreso-solicitudes");
+        this.aplicador.setDaemon(true);
+        this.aplicador.start();
+    }
+
+    /**
+     * Las validaciones que no dependen del estado de la red (nombres,
+     * auto-seguimiento) fallan en el momento, como en la llamada síncrona.
+     */
+    public CompletableFuture<Void> solicitarSeguir(String solicitante, String objetivo) {
+        if (solicitante == null || solicitante.isBlank() || objetivo == null || objetivo.isBlank()) {
+            throw new IllegalArgumentException("Nombre inválido");
+        }
+        if (solicitante.equals(objetivo)) {
+            throw new IllegalArgumentException("Un cliente no puede seguirse a sí mismo.");
+        }
+        if (cerrado) {
+            throw new IllegalStateException("Ingreso cerrado");
+        }
+
+        Pedido pedido = new Pedido(new FollowRequest(solicitante, objetivo, LocalDateTime.now()),
+                new CompletableFuture<>(), System.nanoTime());
+        switch (contrapresion) {
+            case BLOQUEAR -> {
+                try {
+                    buffer.put(pedido);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Ingreso interrumpido", e);
+                }
+            }
+            case RECHAZAR -> {
+                if (!buffer.offer(pedido)) {
+                    rechazadas.incrementAndGet();
+                    pedido.resultado().completeExceptionally(new IllegalStateException("Buffer de ingreso lleno"));
+                    return pedido.resultado();
+                }
+            }
+            case DESCARTAR_ANTIGUA -> {
+                while (!buffer.offer(pedido)) {
+                    Pedido antiguo = buffer.poll();
+                    if (antiguo != null && antiguo != FIN) {
+                        descartadas.incrementAndGet();
+                        antiguo.resultado().completeExceptionally(
+                                new IllegalStateException("Solicitud descartada por sobrecarga"));
+                    }
+                }
+            }
+        }
+
+        // Entró después de que el aplicador terminó: nadie más la va a sacar
+        if (cerrado && !aplicador.isAlive() && buffer.remove(pedido)) {
+            pedido.resultado().completeExceptionally(new IllegalStateException("Ingreso cerrado"));
+        }
+        return pedido.resultado();
+    }
+
+    private void aplicar() {
+        List<Pedido> lote = new ArrayList<>(maxLote);
+        while (true) {
+            Pedido primero;
+            try {
+                primero = buffer.poll(ESPERA_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (primero == null) {
+                // la marca de cierre pudo haberse descartado por sobrecarga
+                if (cerrado) return;
+                continue;
+            }
+            lote.add(primero);
+            buffer.drainTo(lote, maxLote - 1);
+
+            int fin = lote.indexOf(FIN);
+            if (fin < 0) {
+                aplicarLote(lote);
+                lote.clear();
+                continue;
+            }
+            aplicarLote(lote.subList(0, fin));
+            fallar(lote.subList(fin + 1, lote.size()));
+            return;
+        }
+    }
+
+    private void aplicarLote(List<Pedido> lote) {
+        if (lote.isEmpty()) return;
+
+        List<FollowRequest> requests = new ArrayList<>(lote.size());
+        for (Pedido pedido : lote) {
+            requests.add(pedido.request());
+        }
+        String[] errores;
+        try {
+            errores = red.solicitarSeguirTodas(requests);
+        } catch (RuntimeException e) {
+            // p. ej. el registro de escritura: falla el lote entero
+            for (Pedido pedido : lote) {
+                pedido.resultado().completeExceptionally(e);
+            }
+            return;
+        }
+
+        long ahora = System.nanoTime();
+        for (int i = 0; i < errores.length; i++) {
+            Pedido pedido = lote.get(i);
+            latencias.registrar(ahora - pedido.ingreso());
+            if (errores[i] == null) {
+                aplicadas.incrementAndGet();
+                pedido.resultado().complete(null);
+            } else {
+                pedido.resultado().completeExceptionally(new IllegalArgumentException(errores[i]));
+            }
+        }
+    }
+
+    private static void fallar(List<Pedido> pedidos) {
+        for (Pedido pedido : pedidos) {
+            if (pedido != FIN) {
+                pedido.resultado().completeExceptionally(new IllegalStateException("Ingreso cerrado"));
+            }
+        }
+    }
+
+    /**
+     * Latencia de cada solicitud desde que entró al buffer hasta que quedó
+     * pendiente en la red (o fue rechazada por la red).
+     */
+    public HistogramaLatencias latencias() {
+        return latencias;
+    }
+
+    public long aplicadas() {
+        return aplicadas.get();
+    }
+
+    public long rechazadas() {
+        return rechazadas.get();
+    }
+
+    public long descartadas() {
+        return descartadas.get();
+    }
+
+    public int enBuffer() {
+        return buffer.size();
+    }
+
+    /**
+     * Deja de aceptar solicitudes, aplica las que ya estaban en el buffer y
+     * espera al aplicador.
+     */
+    @Override
+    public void close() {
+        if (cerrado) return;
+        cerrado = true;
+        // Con el buffer lleno no hace falta la marca: el aplicador termina al vaciarlo
+        buffer.offer(FIN);
+        try {
+            aplicador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cierre interrumpido", e);
+        }
+        List<Pedido> restantes = new ArrayList<>();
+        buffer.drainTo(restantes);
+        fallar(restantes);
+    }
+}
@@ -1,29 +1,24 @@
 package ar.uade.redsocial.service;
 
-import ar.uade.redsocial.dto.ClienteDTO;
-import ar.uade.redsocial.dto.RedDTO;
-import com.google.gson.Gson;
-
+import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
 
 /**
  * Carga datos iniciales desde un archivo JSON.
+ * Lee en streaming: cada cliente se agrega apenas se termina de leer.
  */
 public class JsonLoader {
 
-    private final Gson gson = new Gson();
-
     public void cargarDesdeArchivo(String path, RedSocialEmpresarial sistema) throws IOException {
-        try (Reader reader = new FileReader(path)) {
-            RedDTO red = gson.fromJson(reader, RedDTO.class);
-
-            if (red == null || red.clientes == null) return;
-
-            for (ClienteDTO c : red.clientes) {
+        try (Reader reader = new BufferedReader(new FileReader(path))) {
+            LectorJsonClientes.leer(reader, c -> {
+                if (c == null) {
+                    throw new IllegalArgumentException("Cliente inválido (null) en JSON.");
+                }
                 sistema.agregarCliente(c.nombre, c.scoring);
-            }
+            });
         }
     }
 }
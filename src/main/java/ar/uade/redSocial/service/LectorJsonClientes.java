@@ -0,0 +1,191 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.dto.ClienteDTO;
+import ar.uade.redsocial.dto.SeguimientoDTO;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Lectura en streaming (JsonReader) del formato
+ * { "clientes": [ ... ], "solicitudesPendientes": [ ... ] } (la cola es opcional).
+ *
+ * Cada cliente se entrega al consumidor apenas se termina de leer, por lo que
+ * nunca se arma la lista completa de DTOs en memoria. Los elementos null se
+ * entregan como null para que el llamador aplique su validación.
+ *
+ * Un error de sintaxis aparece recién al llegar a él: los elementos
+ * anteriores ya se entregaron. Las excepciones del consumidor se propagan
+ * tal cual (no se confunden con un JSON mal formado).
+ */
+final class LectorJsonClientes {
+
+    private LectorJsonClientes() { }
+
+    // Excepción del consumidor en tránsito por el catch de errores de lectura
+    private static final class ErrorDelConsumidor extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ErrorDelConsumidor(RuntimeException causa) {
+            super(causa);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException si el JSON está mal formado o no respeta el formato.
+     */
+    static void leer(Reader fuente, Consumer<ClienteDTO> consumidor) throws IOException {
+        leer(fuente, consumidor, null);
+    }
+
+    /**
+     * @param pendientes recibe las solicitudes pendientes; null para ignorarlas.
+     */
+    static void leer(Reader fuente, Consumer<ClienteDTO> consumidor, Consumer<SeguimientoDTO> pendientes)
+            throws IOException {
+        JsonReader reader = new JsonReader(fuente);
+        reader.setStrictness(Strictness.LENIENT); // mismo criterio que Gson.fromJson
+
+        try {
+            JsonToken raiz;
+            try {
+                raiz = reader.peek();
+            } catch (EOFException vacio) {
+                return; // archivo vacío: nada que cargar
+            }
+            if (raiz == JsonToken.NULL) {
+                return;
+            }
+            esperar(reader, JsonToken.BEGIN_OBJECT);
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String seccion = reader.nextName();
+                boolean clientes = "clientes".equals(seccion);
+                if (!clientes && !("solicitudesPendientes".equals(seccion) && pendientes != null)) {
+                    reader.skipValue();
+                    continue;
+                }
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+                esperar(reader, JsonToken.BEGIN_ARRAY);
+
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (clientes) {
+                        entregar(consumidor, leerCliente(reader));
+                    } else {
+                        entregar(pendientes, leerSeguimiento(reader));
+                    }
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+        } catch (ErrorDelConsumidor e) {
+            throw (RuntimeException) e.getCause();
+        } catch (MalformedJsonException | NumberFormatException | IllegalStateException e) {
+            throw new IllegalArgumentException("JSON inválido o mal formateado", e);
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("JSON inválido o mal formateado", e);
+        }
+    }
+
+    private static <T> void entregar(Consumer<T> consumidor, T elemento) {
+        try {
+            consumidor.accept(elemento);
+        } catch (RuntimeException e) {
+            throw new ErrorDelConsumidor(e);
+        }
+    }
+
+    static ClienteDTO leerCliente(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        esperar(reader, JsonToken.BEGIN_OBJECT);
+
+        ClienteDTO dto = new ClienteDTO();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "nombre" -> dto.nombre = leerStringONull(reader);
+                case "scoring" -> {
+                    if (reader.peek() == JsonToken.NULL) {
+                        reader.nextNull();
+                    } else {
+                        dto.scoring = reader.nextInt();
+                    }
+                }
+                case "siguiendo" -> dto.siguiendo = leerNombres(reader, 2);
+                case "conexiones" -> dto.conexiones = leerNombres(reader, 4);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return dto;
+    }
+
+    // Arreglo de nombres (null si el valor es null)
+    private static List<String> leerNombres(JsonReader reader, int capacidad) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        esperar(reader, JsonToken.BEGIN_ARRAY);
+        List<String> nombres = new ArrayList<>(capacidad);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            nombres.add(leerStringONull(reader));
+        }
+        reader.endArray();
+        return nombres;
+    }
+
+    static SeguimientoDTO leerSeguimiento(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        esperar(reader, JsonToken.BEGIN_OBJECT);
+
+        SeguimientoDTO dto = new SeguimientoDTO();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "solicitante" -> dto.solicitante = leerStringONull(reader);
+                case "objetivo" -> dto.objetivo = leerStringONull(reader);
+                case "fechaHora" -> dto.fechaHora = leerStringONull(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return dto;
+    }
+
+    static String leerStringONull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        esperar(reader, JsonToken.STRING);
+        return reader.nextString();
+    }
+
+    static void esperar(JsonReader reader, JsonToken esperado) throws IOException {
+        JsonToken actual = reader.peek();
+        if (actual != esperado && !(esperado == JsonToken.STRING && actual == JsonToken.NUMBER)) {
+            throw new IllegalStateException("Se esperaba " + esperado + " pero se encontró " + actual);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.dto.ClienteDTO;
+import ar.uade.redsocial.dto.DeltaDTO;
+import ar.uade.redsocial.dto.SeguimientoDTO;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Lectura (JsonReader) del formato de delta:
+ * <pre>
+ * { "altas":         [ { "nombre": ..., "scoring": ..., "siguiendo": [...] } ],
+ *   "scorings":      [ { "nombre": ..., "scoring": ... } ],
+ *   "seguir":        [ { "solicitante": ..., "objetivo": ... } ],
+ *   "dejarDeSeguir": [ { "solicitante": ..., "objetivo": ... } ] }
+ * </pre>
+ * Todas las secciones son opcionales. Los elementos null se conservan para que
+ * el llamador aplique su validación.
+ */
+final class LectorJsonDelta {
+
+    private LectorJsonDelta() { }
+
+    /**
+     * @throws IllegalArgumentException si el JSON está mal formado o no respeta el formato.
+     */
+    static DeltaDTO leer(Reader fuente) throws IOException {
+        JsonReader reader = new JsonReader(fuente);
+        reader.setStrictness(Strictness.LENIENT);
+        DeltaDTO delta = new DeltaDTO();
+
+        try {
+            JsonToken raiz;
+            try {
+                raiz = reader.peek();
+            } catch (EOFException vacio) {
+                return delta;
+            }
+            if (raiz == JsonToken.NULL) {
+                return delta;
+            }
+            LectorJsonClientes.esperar(reader, JsonToken.BEGIN_OBJECT);
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String seccion = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+                switch (seccion) {
+                    case "altas" -> leerClientes(reader, delta.altas);
+                    case "scorings" -> leerClientes(reader, delta.scorings);
+                    case "seguir" -> leerSeguimientos(reader, delta.seguir);
+                    case "dejarDeSeguir" -> leerSeguimientos(reader, delta.dejarDeSeguir);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return delta;
+        } catch (MalformedJsonException | NumberFormatException | IllegalStateException | EOFException e) {
+            throw new IllegalArgumentException("JSON inválido o mal formateado", e);
+        }
+    }
+
+    private static void leerClientes(JsonReader reader, List<ClienteDTO> destino) throws IOException {
+        LectorJsonClientes.esperar(reader, JsonToken.BEGIN_ARRAY);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            destino.add(LectorJsonClientes.leerCliente(reader));
+        }
+        reader.endArray();
+    }
+
+    private static void leerSeguimientos(JsonReader reader, List<SeguimientoDTO> destino) throws IOException {
+        LectorJsonClientes.esperar(reader, JsonToken.BEGIN_ARRAY);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            destino.add(LectorJsonClientes.leerSeguimiento(reader));
+        }
+        reader.endArray();
+    }
+}
@@ -0,0 +1,33 @@
+package ar.uade.redsocial.service;
+
+/**
+ * Capacidad del historial de acciones (undo), por cantidad y/o por bytes.
+ * Al superarla se descartan las acciones más antiguas.
+ *
+ * Los bytes se estiman con el tamaño de la acción codificada
+ * ({@link HistorialAcciones#BYTES_POR_ACCION}, más lo de cada solicitud en un
+ * lote); los nombres no cuentan porque son las mismas instancias que ya guarda la red.
+ */
+public record LimiteHistorial(int maxAcciones, long maxBytes) {
+
+    public LimiteHistorial {
+        if (maxAcciones <= 0) {
+            throw new IllegalArgumentException("La cantidad máxima de acciones debe ser positiva");
+        }
+        if (maxBytes < HistorialAcciones.BYTES_POR_ACCION) {
+            throw new IllegalArgumentException("El máximo de bytes no alcanza para una acción");
+        }
+    }
+
+    public static LimiteHistorial sinLimite() {
+        return new LimiteHistorial(Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public static LimiteHistorial porCantidad(int maxAcciones) {
+        return new LimiteHistorial(maxAcciones, Long.MAX_VALUE);
+    }
+
+    public static LimiteHistorial porBytes(long maxBytes) {
+        return new LimiteHistorial(Integer.MAX_VALUE, maxBytes);
+    }
+}
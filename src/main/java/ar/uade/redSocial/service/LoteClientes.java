@@ -0,0 +1,67 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.dto.ClienteDTO;
+import ar.uade.redsocial.dto.SeguimientoDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Clientes leídos del JSON en arreglos paralelos indexados por posición en el
+ * archivo, para validarlos y construirlos en paralelo (importación masiva).
+ *
+ * Un elemento null del JSON queda con nulo[i] = true. De "siguiendo" se guarda
+ * la cantidad declarada (-1 si no vino) y, como mucho, los 2 primeros destinos.
+ *
+ * Los clientes con conexiones y la cola de solicitudes pendientes (secciones
+ * que suelen ser chicas) se guardan tal cual se leyeron, en orden de archivo.
+ */
+final class LoteClientes {
+
+    String[] nombres = new String[1024];
+    int[] scorings = new int[1024];
+    boolean[] nulos = new boolean[1024];
+    int[] cantidadSiguiendo = new int[1024];
+    String[] destinos = new String[2048];
+    int size;
+
+    final List<ClienteDTO> conConexiones = new ArrayList<>();
+    final List<SeguimientoDTO> solicitudes = new ArrayList<>();
+
+    void agregar(ClienteDTO dto) {
+        if (size == nombres.length) {
+            int nueva = size * 2;
+            nombres = Arrays.copyOf(nombres, nueva);
+            scorings = Arrays.copyOf(scorings, nueva);
+            nulos = Arrays.copyOf(nulos, nueva);
+            cantidadSiguiendo = Arrays.copyOf(cantidadSiguiendo, nueva);
+            destinos = Arrays.copyOf(destinos, nueva * 2);
+        }
+        if (dto == null) {
+            nulos[size] = true;
+            cantidadSiguiendo[size] = -1;
+        } else {
+            nombres[size] = dto.nombre;
+            scorings[size] = dto.scoring;
+            cantidadSiguiendo[size] = dto.siguiendo == null ? -1 : dto.siguiendo.size();
+            if (dto.siguiendo != null) {
+                for (int j = 0; j < Math.min(2, dto.siguiendo.size()); j++) {
+                    destinos[size * 2 + j] = dto.siguiendo.get(j);
+                }
+            }
+            if (dto.conexiones != null && !dto.conexiones.isEmpty()) {
+                conConexiones.add(dto);
+            }
+        }
+        size++;
+    }
+
+    void agregarSolicitud(SeguimientoDTO dto) {
+        solicitudes.add(dto);
+    }
+
+    String destino(int i, int j) {
+        return destinos[i * 2 + j];
+    }
+}
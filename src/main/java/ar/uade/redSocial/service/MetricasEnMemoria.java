@@ -0,0 +1,140 @@
+package ar.uade.redsocial.service;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Registro de métricas en memoria: un {@link HistogramaLatencias} por
+ * operación (su cantidad es el contador) y los indicadores publicados por la red.
+ * Se puede exponer por JMX con {@link #registrarJmx(String)}.
+ */
+public final class MetricasEnMemoria implements RegistroMetricas {
+
+    private final Map<Operacion, HistogramaLatencias> latencias = new EnumMap<>(Operacion.class);
+    private final Map<Indicador, LongSupplier> indicadores = new EnumMap<>(Indicador.class);
+
+    public MetricasEnMemoria() {
+        for (Operacion operacion : Operacion.values()) {
+            latencias.put(operacion, new HistogramaLatencias());
+        }
+    }
+
+    @Override
+    public void operacion(Operacion operacion, long nanos) {
+        latencias.get(operacion).registrar(nanos);
+    }
+
+    @Override
+    public synchronized void indicador(Indicador indicador, LongSupplier valor) {
+        indicadores.put(indicador, valor);
+    }
+
+    public HistogramaLatencias latencias(Operacion operacion) {
+        return latencias.get(operacion);
+    }
+
+    public long cantidad(Operacion operacion) {
+        return latencias.get(operacion).cantidad();
+    }
+
+    /**
+     * @return -1 si el indicador no fue publicado.
+     */
+    public synchronized long valor(Indicador indicador) {
+        LongSupplier valor = indicadores.get(indicador);
+        return valor == null ? -1 : valor.getAsLong();
+    }
+
+    public void reiniciar() {
+        latencias.values().forEach(HistogramaLatencias::reiniciar);
+    }
+
+    /**
+     * Registra un {@link MetricasRedMXBean} en el MBeanServer de la plataforma
+     * como {@code ar.uade.redsocial:type=RedSocialEmpresarial,name=<nombre>}.
+     *
+     * @return el nombre con el que quedó registrado (para {@link #desregistrarJmx(ObjectName)}).
+     */
+    public ObjectName registrarJmx(String nombre) {
+        try {
+            ObjectName objeto = new ObjectName("ar.uade.redsocial:type=RedSocialEmpresarial,name="
+                    + ObjectName.quote(nombre));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Jmx(), objeto);
+            return objeto;
+        } catch (JMException e) {
+            throw new IllegalStateException("No se pudo registrar el MBean de métricas", e);
+        }
+    }
+
+    public static void desregistrarJmx(ObjectName objeto) {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (servidor.isRegistered(objeto)) {
+                servidor.unregisterMBean(objeto);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("No se pudo desregistrar el MBean de métricas", e);
+        }
+    }
+
+    private Map<String, Long> porOperacion(ToLongFunction<HistogramaLatencias> valor) {
+        Map<String, Long> resultado = new LinkedHashMap<>();
+        latencias.forEach((operacion, h) -> resultado.put(operacion.name(), valor.applyAsLong(h)));
+        return resultado;
+    }
+
+    private final class Jmx implements MetricasRedMXBean {
+
+        @Override
+        public Map<String, Long> getOperaciones() {
+            return porOperacion(HistogramaLatencias::cantidad);
+        }
+
+        @Override
+        public Map<String, Long> getLatenciaP50Nanos() {
+            return porOperacion(h -> h.percentil(50));
+        }
+
+        @Override
+        public Map<String, Long> getLatenciaP99Nanos() {
+            return porOperacion(h -> h.percentil(99));
+        }
+
+        @Override
+        public Map<String, Long> getLatenciaMaximaNanos() {
+            return porOperacion(HistogramaLatencias::maximo);
+        }
+
+        @Override
+        public long getSolicitudesPendientes() {
+            return valor(Indicador.SOLICITUDES_PENDIENTES);
+        }
+
+        @Override
+        public long getAccionesEnHistorial() {
+            return valor(Indicador.ACCIONES_EN_HISTORIAL);
+        }
+
+        @Override
+        public long getClientes() {
+            return valor(Indicador.CLIENTES);
+        }
+
+        @Override
+        public long getGruposPorScoring() {
+            return valor(Indicador.GRUPOS_POR_SCORING);
+        }
+
+        @Override
+        public void reiniciar() {
+            MetricasEnMemoria.this.reiniciar();
+        }
+    }
+}
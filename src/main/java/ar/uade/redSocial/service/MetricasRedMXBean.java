@@ -0,0 +1,28 @@
+package ar.uade.redsocial.service;
+
+import java.util.Map;
+
+/**
+ * Vista JMX de {@link MetricasEnMemoria}. Los mapas son por nombre de
+ * {@link Operacion}; los indicadores no publicados valen -1.
+ */
+public interface MetricasRedMXBean {
+
+    Map<String, Long> getOperaciones();
+
+    Map<String, Long> getLatenciaP50Nanos();
+
+    Map<String, Long> getLatenciaP99Nanos();
+
+    Map<String, Long> getLatenciaMaximaNanos();
+
+    long getSolicitudesPendientes();
+
+    long getAccionesEnHistorial();
+
+    long getClientes();
+
+    long getGruposPorScoring();
+
+    void reiniciar();
+}
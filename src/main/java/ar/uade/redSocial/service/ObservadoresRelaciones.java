@@ -0,0 +1,36 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.ObservadorRelaciones;
+
+/**
+ * Reenvía los eventos de un Cliente a varios observadores, en orden (el
+ * índice inverso primero: los siguientes pueden consultarlo ya actualizado).
+ */
+final class ObservadoresRelaciones implements ObservadorRelaciones {
+
+    private final ObservadorRelaciones[] observadores;
+
+    ObservadoresRelaciones(ObservadorRelaciones... observadores) {
+        this.observadores = observadores.clone();
+    }
+
+    @Override
+    public void seguimientoAgregado(String seguidor, String objetivo) {
+        for (ObservadorRelaciones o : observadores) o.seguimientoAgregado(seguidor, objetivo);
+    }
+
+    @Override
+    public void seguimientoRemovido(String seguidor, String objetivo) {
+        for (ObservadorRelaciones o : observadores) o.seguimientoRemovido(seguidor, objetivo);
+    }
+
+    @Override
+    public void conexionAgregada(String origen, String destino) {
+        for (ObservadorRelaciones o : observadores) o.conexionAgregada(origen, destino);
+    }
+
+    @Override
+    public void conexionRemovida(String origen, String destino) {
+        for (ObservadorRelaciones o : observadores) o.conexionRemovida(origen, destino);
+    }
+}
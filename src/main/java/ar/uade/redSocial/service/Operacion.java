@@ -0,0 +1,20 @@
+package ar.uade.redsocial.service;
+
+/**
+ * Operaciones de la red medidas por {@link RegistroMetricas}.
+ */
+public enum Operacion {
+    AGREGAR_CLIENTE,
+    SOLICITAR_SEGUIR,
+    SOLICITAR_LOTE,
+    PROCESAR_SOLICITUD,
+    PROCESAR_LOTE,
+    UNDO,
+    UNDO_MULTIPLE,
+    CARGA_JSON,
+    IMPORTAR_DELTA,
+    CARGA_SNAPSHOT,
+    BUSQUEDA_SCORING,
+    BUSQUEDA_RANGO,
+    BUSQUEDA_NOMBRE
+}
@@ -0,0 +1,29 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.Cliente;
+
+import java.util.List;
+
+/**
+ * Página de una consulta por rango de scoring, ordenada por (scoring, nombre).
+ *
+ * @param clientes  clientes de la página (a lo sumo el límite pedido).
+ * @param siguiente cursor para pedir la página siguiente, o null si no hay más.
+ */
+public record PaginaClientes(List<Cliente> clientes, Cursor siguiente) {
+
+    /**
+     * Posición del último cliente devuelto; la página siguiente empieza después.
+     */
+    public record Cursor(int scoring, String nombre) {
+        public Cursor {
+            if (nombre == null) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+        }
+    }
+
+    public boolean hayMas() {
+        return siguiente != null;
+    }
+}
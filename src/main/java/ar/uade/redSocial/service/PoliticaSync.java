@@ -0,0 +1,42 @@
+package ar.uade.redsocial.service;
+
+/**
+ * Cuándo el registro de escritura (WAL) hace fsync.
+ *
+ * - POR_OPERACION: cada acción vuelve recién cuando es durable (commit agrupado:
+ *   un único fsync cubre a todos los hilos que esperaban).
+ * - POR_LOTE: fsync cada {@code lote} acciones (se pueden perder hasta lote - 1).
+ * - INTERVALO: fsync periódico cada {@code intervaloMs} en un hilo de fondo.
+ */
+public record PoliticaSync(Modo modo, int lote, long intervaloMs) {
+
+    public enum Modo {
+        POR_OPERACION,
+        POR_LOTE,
+        INTERVALO
+    }
+
+    public PoliticaSync {
+        if (modo == null) {
+            throw new IllegalArgumentException("Modo de sync inválido");
+        }
+        if (modo == Modo.POR_LOTE && lote <= 0) {
+            throw new IllegalArgumentException("El lote debe ser positivo");
+        }
+        if (modo == Modo.INTERVALO && intervaloMs <= 0) {
+            throw new IllegalArgumentException("El intervalo debe ser positivo");
+        }
+    }
+
+    public static PoliticaSync porOperacion() {
+        return new PoliticaSync(Modo.POR_OPERACION, 1, 0);
+    }
+
+    public static PoliticaSync porLote(int lote) {
+        return new PoliticaSync(Modo.POR_LOTE, lote, 0);
+    }
+
+    public static PoliticaSync porIntervalo(long intervaloMs) {
+        return new PoliticaSync(Modo.INTERVALO, 0, intervaloMs);
+    }
+}
@@ -0,0 +1,51 @@
+package ar.uade.redsocial.service;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Clientes agrupados por cantidad de seguidores (sólo los que tienen al menos uno),
+ * mantenido por el índice inverso cada vez que cambia una cantidad.
+ *
+ * Los cambios de un mismo cliente llegan serializados (dentro del compute del
+ * índice por nombre, o con escrituras exclusivas en modo compacto). Los grupos
+ * vacíos no se quitan para no competir con un alta concurrente en el mismo
+ * grupo: queda a lo sumo uno por cantidad distinta de seguidores.
+ * Los grupos son hash (sin orden entre empatados): el alta y la baja se hacen
+ * en cada seguimiento y los grupos de pocos seguidores son enormes.
+ */
+final class RankingSeguidores {
+
+    private final NavigableMap<Integer, GrupoNombres> porCantidad = new ConcurrentSkipListMap<>();
+
+    void cambio(String nombre, int anterior, int nueva) {
+        if (anterior == nueva) return;
+        // Primero se quita: una lectura concurrente puede no verlo, pero nunca lo ve dos veces
+        if (anterior > 0) {
+            GrupoNombres grupo = porCantidad.get(anterior);
+            if (grupo != null) grupo.remover(nombre);
+        }
+        if (nueva > 0) {
+            porCantidad.computeIfAbsent(nueva, k -> new GrupoNombres(false)).agregar(nombre);
+        }
+    }
+
+    /**
+     * Grupos de mayor a menor cantidad de seguidores (vista, puede incluir grupos vacíos).
+     */
+    NavigableMap<Integer, GrupoNombres> descendente() {
+        return porCantidad.descendingMap();
+    }
+
+    /**
+     * Cantidad de clientes con más de {@code seguidores} seguidores.
+     */
+    int cantidadConMasDe(int seguidores) {
+        int total = 0;
+        for (Map.Entry<Integer, GrupoNombres> e : porCantidad.tailMap(seguidores, false).entrySet()) {
+            total += e.getValue().cantidad();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,290 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.Cliente;
+import ar.uade.redsocial.model.GrafoCompacto;
+import ar.uade.redsocial.service.Bloqueos.Permiso;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Recorridos BFS sobre el grafo de conexiones (dirigido: origen -> destino).
+ *
+ * Trabaja sobre ids densos con visitados en BitSet y fronteras en int[]:
+ * - vecindario: por niveles y perezoso; cortar el stream corta la expansión.
+ * - distancia: BFS bidireccional (salientes desde el origen, entrantes desde
+ *   el destino, siempre expandiendo la frontera más chica); termina en el
+ *   primer encuentro.
+ *
+ * Cada nivel se expande con el permiso de lectura de la red; entre niveles las
+ * escrituras pueden avanzar, por lo que el recorrido es débilmente consistente.
+ */
+final class RecorridoConexiones {
+
+    /**
+     * Grafo de conexiones sobre ids densos.
+     */
+    interface Grafo {
+
+        /**
+         * @return -1 si no existe el cliente.
+         */
+        int id(String nombre);
+
+        /**
+         * @return null si el id ya no corresponde a un cliente.
+         */
+        String nombre(int id);
+
+        void salientes(int id, IntConsumer destino);
+
+        void entrantes(int id, IntConsumer origen);
+    }
+
+    record Alcance(String nombre, int distancia) { }
+
+    private final Supplier<Grafo> grafos;
+    private final Supplier<Permiso> lectura;
+
+    /**
+     * @param grafos  grafo para cada recorrido (puede ser siempre el mismo).
+     * @param lectura permiso con el que se expande cada nivel.
+     */
+    RecorridoConexiones(Supplier<Grafo> grafos, Supplier<Permiso> lectura) {
+        this.grafos = grafos;
+        this.lectura = lectura;
+    }
+
+    /**
+     * Clientes a distancia 1..distanciaMaxima del origen, en orden de distancia.
+     */
+    Stream<Alcance> vecindario(String origen, int distanciaMaxima) {
+        Grafo grafo = grafos.get();
+        int id = grafo.id(origen);
+        if (id < 0 || distanciaMaxima == 0) return Stream.empty();
+        return StreamSupport.stream(new Niveles(grafo, id, distanciaMaxima), false);
+    }
+
+    /**
+     * Distancia mínima de origen a destino, si es a lo sumo distanciaMaxima.
+     */
+    OptionalInt distancia(String origen, String destino, int distanciaMaxima) {
+        Grafo grafo = grafos.get();
+        int desde = grafo.id(origen);
+        int hasta = grafo.id(destino);
+        if (desde < 0 || hasta < 0) return OptionalInt.empty();
+        if (desde == hasta) return OptionalInt.of(0);
+
+        BitSet vistosDesde = new BitSet();
+        BitSet vistosHasta = new BitSet();
+        vistosDesde.set(desde);
+        vistosHasta.set(hasta);
+        Frontera adelante = new Frontera(desde);
+        Frontera atras = new Frontera(hasta);
+        Frontera siguiente = new Frontera();
+        int nivelesAdelante = 0;
+        int nivelesAtras = 0;
+
+        // Sin encuentro previo, el camino mínimo mide al menos adelante + atrás + 1,
+        // y el primer encuentro da exactamente eso
+        while (nivelesAdelante + nivelesAtras < distanciaMaxima && !adelante.vacia() && !atras.vacia()) {
+            boolean haciaAdelante = adelante.size <= atras.size;
+            Frontera actual = haciaAdelante ? adelante : atras;
+            boolean encuentro = expandir(grafo, actual, siguiente,
+                    haciaAdelante ? vistosDesde : vistosHasta,
+                    haciaAdelante ? vistosHasta : vistosDesde,
+                    haciaAdelante);
+            if (encuentro) {
+                return OptionalInt.of(nivelesAdelante + nivelesAtras + 1);
+            }
+            if (haciaAdelante) {
+                adelante = siguiente;
+                nivelesAdelante++;
+            } else {
+                atras = siguiente;
+                nivelesAtras++;
+            }
+            siguiente = actual;
+        }
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Expande un nivel completo (o hasta tocar {@code objetivo}).
+     *
+     * @return true si algún vecino ya estaba visitado por el otro lado.
+     */
+    private boolean expandir(Grafo grafo, Frontera desde, Frontera hacia, BitSet vistos,
+                             BitSet objetivo, boolean salientes) {
+        hacia.size = 0;
+        boolean[] encuentro = { false };
+        IntConsumer visitar = v -> {
+            if (vistos.get(v)) return;
+            vistos.set(v);
+            hacia.agregar(v);
+            if (objetivo != null && objetivo.get(v)) encuentro[0] = true;
+        };
+
+        try (Permiso p = lectura.get()) {
+            for (int i = 0; i < desde.size && !encuentro[0]; i++) {
+                if (salientes) {
+                    grafo.salientes(desde.ids[i], visitar);
+                } else {
+                    grafo.entrantes(desde.ids[i], visitar);
+                }
+            }
+        }
+        return encuentro[0];
+    }
+
+    private final class Niveles extends Spliterators.AbstractSpliterator<Alcance> {
+        private final Grafo grafo;
+        private final int distanciaMaxima;
+        private final BitSet vistos = new BitSet();
+        private Frontera actual;
+        private Frontera siguiente = new Frontera();
+        private int posicion;
+        private int distancia;
+
+        Niveles(Grafo grafo, int origen, int distanciaMaxima) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+            this.grafo = grafo;
+            this.distanciaMaxima = distanciaMaxima;
+            vistos.set(origen);
+            actual = new Frontera(origen);
+            posicion = actual.size; // el origen no se emite
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Alcance> accion) {
+            while (true) {
+                while (posicion < actual.size) {
+                    String nombre = grafo.nombre(actual.ids[posicion++]);
+                    if (nombre != null) {
+                        accion.accept(new Alcance(nombre, distancia));
+                        return true;
+                    }
+                }
+                if (distancia == distanciaMaxima) return false;
+
+                expandir(grafo, actual, siguiente, vistos, null, true);
+                if (siguiente.vacia()) return false;
+                Frontera anterior = actual;
+                actual = siguiente;
+                siguiente = anterior;
+                posicion = 0;
+                distancia++;
+            }
+        }
+    }
+
+    private static final class Frontera {
+        int[] ids = new int[16];
+        int size;
+
+        Frontera() { }
+
+        Frontera(int id) {
+            agregar(id);
+        }
+
+        void agregar(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        boolean vacia() {
+            return size == 0;
+        }
+    }
+
+    // ---------------- GRAFOS ----------------
+
+    /**
+     * Modo compacto: los ids de la tabla de nombres, sin copias.
+     */
+    static Grafo compacto(GrafoCompacto grafo, IndiceInversoCompacto indice) {
+        return new Grafo() {
+            @Override
+            public int id(String nombre) {
+                return grafo.getNombres().id(nombre);
+            }
+
+            @Override
+            public String nombre(int id) {
+                return grafo.getNombres().nombre(id);
+            }
+
+            @Override
+            public void salientes(int id, IntConsumer destino) {
+                grafo.recorrerConexiones(id, destino);
+            }
+
+            @Override
+            public void entrantes(int id, IntConsumer origen) {
+                indice.conexionesEntrantes(id, origen);
+            }
+        };
+    }
+
+    /**
+     * Modo por defecto (sin ids): numera los clientes a medida que el recorrido
+     * los toca, por lo que cuesta O(visitados) y no O(clientes). Uno por recorrido.
+     */
+    static Grafo porNombres(Function<String, Cliente> clientes, IndiceInverso indice) {
+        return new Grafo() {
+            private final Map<String, Integer> ids = new HashMap<>();
+            private final List<String> nombres = new ArrayList<>();
+
+            @Override
+            public int id(String nombre) {
+                return clientes.apply(nombre) == null ? -1 : numerar(nombre);
+            }
+
+            private int numerar(String nombre) {
+                Integer id = ids.get(nombre);
+                if (id == null) {
+                    id = nombres.size();
+                    ids.put(nombre, id);
+                    nombres.add(nombre);
+                }
+                return id;
+            }
+
+            @Override
+            public String nombre(int id) {
+                String nombre = nombres.get(id);
+                return clientes.apply(nombre) == null ? null : nombre;
+            }
+
+            @Override
+            public void salientes(int id, IntConsumer destino) {
+                Cliente cliente = clientes.apply(nombres.get(id));
+                if (cliente == null) return;
+                for (String nombre : cliente.getConexiones()) {
+                    destino.accept(numerar(nombre));
+                }
+            }
+
+            @Override
+            public void entrantes(int id, IntConsumer origen) {
+                for (String nombre : indice.conexionesEntrantesDe(nombres.get(id))) {
+                    origen.accept(numerar(nombre));
+                }
+            }
+        };
+    }
+}
@@ -1,205 +1,1535 @@
 package ar.uade.redsocial.service;
 
 import ar.uade.redsocial.dto.ClienteDTO;
+import ar.uade.redsocial.dto.DeltaDTO;
+import ar.uade.redsocial.dto.SeguimientoDTO;
 import ar.uade.redsocial.model.*;
-import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
+import ar.uade.redsocial.service.Bloqueos.Permiso;
+import ar.uade.redsocial.service.RegistroEscritura.Tipo;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * TAD RedSocialEmpresarial
  *
  * Estructuras utilizadas:
- * - HashMap para búsqueda eficiente por nombre (O(1) promedio)
- * - TreeMap para índice por scoring (O(log n))
- * - ArrayDeque como pila para historial de acciones (LIFO, O(1))
- * - ArrayDeque como cola para solicitudes de seguimiento (FIFO, O(1))
+ * - ConcurrentHashMap para búsqueda eficiente por nombre (O(1) promedio)
+ * - Índice por scoring (IndiceScoring): ConcurrentSkipListMap (O(log n)) o arreglo
+ *   denso por scoring (O(1), para scorings chicos); cada scoring guarda sus nombres
+ *   ordenados y su cantidad, para paginar y contar rangos sin copiarlos
+ * - Pila acotada y codificada (buffer circular) para historial de acciones (LIFO, O(1))
+ * - Cola FIFO con índice hash (solicitante, objetivo) para solicitudes (O(1))
+ * - Índice inverso de seguidores / conexiones (objetivo -> origen, O(1) promedio)
+ * - Ranking por cantidad de seguidores (cantidad -> nombres), mantenido por el índice inverso
+ *
+ * Modo compacto (opcional): los nombres se internan a ids densos (TablaNombres)
+ * y las relaciones viven en arreglos de int (GrafoCompacto) en lugar de HashSets.
+ *
+ * Concurrencia (ver {@link Bloqueos}):
+ * - Las búsquedas no toman locks.
+ * - Altas y seguimientos toman locks por franja de cliente, por lo que
+ *   operaciones sobre clientes disjuntos corren en paralelo.
+ * - Carga JSON y undo son exclusivos. El orden del historial coincide con el
+ *   orden en que se aplicaron las acciones sobre un mismo cliente, y undo
+ *   siempre revierte la última acción registrada (linealización por la pila).
+ * - En modo compacto todas las escrituras son exclusivas.
+ *
+ * Durabilidad (opcional, ver {@link RegistroEscritura}): con el registro activo
+ * cada acción del historial y cada undo se agregan a un WAL. Para recuperar:
+ * cargar el último snapshot / JSON, {@link #recuperarDesdeRegistro(String)} y
+ * volver a {@link #activarRegistro(String, PoliticaSync)} sobre el mismo archivo.
  */
 public class RedSocialEmpresarial {
 
-    private static final Gson gson = new Gson();
+    private static final int FRANJAS = 64;
+    private static final int CAPACIDAD_RECOMENDACIONES = 10_000;
+    private static final int BUFFER_ARCHIVOS = 1 << 16;
 
     // nombre -> Cliente
-    private final Map<String, Cliente> clientesPorNombre = new HashMap<>();
+    private final Map<String, Cliente> clientesPorNombre = new ConcurrentHashMap<>();
+
+    // nombres ordenados: búsqueda por prefijo y aproximada
+    private final IndiceNombres indiceNombres = new IndiceNombres();
 
-    // scoring -> conjunto de nombres (ordenado)
-    private final NavigableMap<Integer, Set<String>> indicePorScoring = new TreeMap<>();
+    // scoring -> nombres con ese scoring (ordenados)
+    private final IndiceScoring indicePorScoring;
 
     // Historial de acciones (PILA)
-    private final Deque<Action> historial = new ArrayDeque<>();
+    private final HistorialAcciones historial;
+
+    // Solicitudes de seguimiento (COLA); su monitor ordena encolar/desencolar con el historial
+    private final ColaSolicitudes colaSeguimientos;
+
+    // seguidores del cliente (objetivo -> seguidores); la cantidad se deriva de acá
+    private final IndiceInverso indiceInverso;
+
+    // cantidad de seguidores -> nombres (top-K y posición sin ordenar todo)
+    private final RankingSeguidores rankingSeguidores = new RankingSeguidores();
+
+    // recomendaciones por cliente (LRU), invalidadas por eventos de relaciones y de la cola
+    private final CacheRecomendaciones recomendaciones;
+
+    // crea los clientes con su observador: índice inverso + cache de recomendaciones
+    private final FabricaClientes fabricaClientes;
+
+    // Modo compacto: nombre <-> id denso y relaciones en int[] (null en modo por defecto)
+    private final TablaNombres tablaNombres;
+    private final GrafoCompacto grafo;
+
+    private final Bloqueos bloqueos;
+
+    // BFS sobre conexiones (k saltos y grado de separación)
+    private final RecorridoConexiones recorridoConexiones;
+
+    // WAL de acciones (null si no está activo)
+    private volatile RegistroEscritura registro;
+
+    // Métricas de operaciones (null si no están activas: sólo cuesta leer el campo)
+    private volatile RegistroMetricas metricas;
 
-    // Solicitudes de seguimiento (COLA)
-    private final Deque<FollowRequest> colaSeguimientos = new ArrayDeque<>();
+    // Resultados de buscarPorScoringEntre (null si no está activa)
+    private volatile CacheRangos cacheRangos;
 
-    // Clase auxiliar para mapear la raíz del JSON
-    private static class JsonDataWrapper {
-        List<ClienteDTO> clientes;
+    // Feed de cambios (null si no está activo)
+    private volatile FeedCambios feedCambios;
+
+    // Objetivos válidos que viven en otra partición (ver RedSocialParticionada)
+    private volatile Predicate<String> clientesRemotos = nombre -> false;
+
+    public RedSocialEmpresarial() {
+        this(false);
     }
 
-    // seguidores del cliente (nombre -> cantidad)
-    private final Map<String, Integer> seguidoresPorCliente = new HashMap<>();
+    /**
+     * @param relacionesCompactas true para guardar las relaciones por id denso
+     *                            en arreglos de int (menor memoria en redes grandes).
+     */
+    public RedSocialEmpresarial(boolean relacionesCompactas) {
+        this(relacionesCompactas, LimiteHistorial.sinLimite());
+    }
+
+    /**
+     * @param limiteHistorial capacidad del historial de undo; al superarla se
+     *                        descartan las acciones más antiguas.
+     */
+    public RedSocialEmpresarial(boolean relacionesCompactas, LimiteHistorial limiteHistorial) {
+        this(relacionesCompactas, limiteHistorial, TipoIndiceScoring.ARBOL);
+    }
+
+    /**
+     * @param tipoIndiceScoring {@link TipoIndiceScoring#DENSO} cuando los scorings
+     *                          son chicos (altas y búsquedas por scoring sin boxing).
+     */
+    public RedSocialEmpresarial(boolean relacionesCompactas, LimiteHistorial limiteHistorial,
+                                TipoIndiceScoring tipoIndiceScoring) {
+        if (limiteHistorial == null) {
+            throw new IllegalArgumentException("Límite de historial inválido");
+        }
+        if (tipoIndiceScoring == null) {
+            throw new IllegalArgumentException("Tipo de índice de scoring inválido");
+        }
+        historial = new HistorialAcciones(limiteHistorial);
+        indicePorScoring = tipoIndiceScoring.crear();
+        if (relacionesCompactas) {
+            tablaNombres = new TablaNombres();
+            grafo = new GrafoCompacto(tablaNombres);
+            indiceInverso = new IndiceInversoCompacto(tablaNombres, rankingSeguidores);
+        } else {
+            tablaNombres = null;
+            grafo = null;
+            indiceInverso = new IndiceInversoHash(rankingSeguidores);
+        }
+        bloqueos = new Bloqueos(FRANJAS, relacionesCompactas);
+        recomendaciones = new CacheRecomendaciones(CAPACIDAD_RECOMENDACIONES, indiceInverso::seguidoresDe);
+        fabricaClientes = new FabricaClientes(new ObservadoresRelaciones(indiceInverso, recomendaciones), grafo);
+        colaSeguimientos = new ColaSolicitudes(recomendaciones::invalidar);
+        if (relacionesCompactas) {
+            RecorridoConexiones.Grafo compacto =
+                    RecorridoConexiones.compacto(grafo, (IndiceInversoCompacto) indiceInverso);
+            recorridoConexiones = new RecorridoConexiones(() -> compacto, bloqueos::lectura);
+        } else {
+            recorridoConexiones = new RecorridoConexiones(
+                    () -> RecorridoConexiones.porNombres(clientesPorNombre::get, indiceInverso), bloqueos::lectura);
+        }
+    }
 
     // ---------------- CARGA DE DATOS ----------------
 
+    /**
+     * Carga inicial desde JSON en streaming: los clientes se crean mientras se
+     * lee el archivo y sólo se conservan (en forma compacta) los "siguiendo"
+     * pendientes para validarlos en la segunda pasada.
+     *
+     * También carga las conexiones y la cola de solicitudes pendientes si el
+     * archivo las trae (ver {@link #exportarJson}), y acepta el archivo
+     * comprimido con gzip.
+     *
+     * No es atómica: lo aplicado antes de un error (de sintaxis o de datos)
+     * queda en la red. Un error durante la lectura deja los clientes leídos
+     * hasta ahí, sin relaciones; uno en los "siguiendo" deja todos los
+     * clientes y los seguimientos aplicados antes de él; uno en las conexiones
+     * o en la cola deja además todos los seguimientos y lo que ya se había
+     * agregado de esas secciones. Para una carga todo-o-nada usar
+     * {@link #loadFromJsonParalelo(String)}, que valida el archivo completo
+     * antes de modificar la red.
+     */
     public void loadFromJson(String ruta) {
-    Path path = Paths.get(ruta);
-    if (!Files.exists(path)) {
-        throw new IllegalArgumentException("Archivo no encontrado: " + ruta);
+        long inicio = inicioMedicion();
+        try {
+            Path path = Paths.get(ruta);
+            if (!Files.exists(path)) {
+                throw new IllegalArgumentException("Archivo no encontrado: " + ruta);
+            }
+
+            try (Permiso p = bloqueos.exclusivo(); Reader reader = abrirJson(path)) {
+                SeguimientosPendientes pendientes = new SeguimientosPendientes();
+                List<ClienteDTO> conConexiones = new ArrayList<>();
+                List<SeguimientoDTO> solicitudes = new ArrayList<>();
+
+                // -------- PASADA 1: crear clientes (a medida que se leen) --------
+                LectorJsonClientes.leer(reader, dto -> {
+                    if (dto == null) {
+                        throw new IllegalArgumentException("Cliente inválido (null) en JSON.");
+                    }
+
+                    // validar nombre y duplicados
+                    validarNombre(dto.nombre);
+                    if (clientesPorNombre.containsKey(dto.nombre)) {
+                        throw new IllegalArgumentException("Cliente duplicado en JSON: " + dto.nombre);
+                    }
+
+                    // addClienteInterno ya valida scoring
+                    addClienteInterno(dto.nombre, dto.scoring);
+
+                    if (dto.siguiendo != null) {
+                        pendientes.agregar(dto.nombre, dto.siguiendo);
+                    }
+                    if (dto.conexiones != null && !dto.conexiones.isEmpty()) {
+                        conConexiones.add(dto);
+                    }
+                }, solicitudes::add);
+
+                // -------- PASADA 2: aplicar relaciones siguiendo + contar seguidores --------
+                for (int i = 0; i < pendientes.size(); i++) {
+                    String nombre = pendientes.origen(i);
+                    Cliente solicitante = clientesPorNombre.get(nombre); // ya existe por pasada 1
+
+                    // Regla: máximo 2 seguidos
+                    if (pendientes.cantidad(i) > 2) {
+                        throw new IllegalArgumentException(
+                                "El cliente '" + nombre + "' tiene más de 2 seguidos en JSON (límite 2)."
+                        );
+                    }
+
+                    for (int j = 0; j < pendientes.cantidad(i); j++) {
+                        aplicarSeguimientoJson(solicitante, pendientes.destino(i, j));
+                    }
+                }
+
+                // -------- PASADA 3: conexiones y cola de solicitudes pendientes --------
+                for (ClienteDTO dto : conConexiones) {
+                    Cliente origen = clientesPorNombre.get(dto.nombre);
+                    for (String destino : dto.conexiones) {
+                        aplicarConexionJson(origen, destino);
+                    }
+                }
+                for (SeguimientoDTO dto : solicitudes) {
+                    FollowRequest request = solicitudPendienteJson(dto, clientesPorNombre::containsKey);
+                    if (!colaSeguimientos.encolar(request)) {
+                        throw new IllegalArgumentException("Solicitud pendiente duplicada en JSON: "
+                                + request.solicitante() + " -> " + request.objetivo());
+                    }
+                }
+
+            } catch (IOException e) {
+                throw new RuntimeException("Error leyendo archivo JSON", e);
+            }
+        } finally {
+            medir(Operacion.CARGA_JSON, inicio);
+        }
     }
 
-    try (Reader reader = Files.newBufferedReader(path)) {
-        JsonDataWrapper wrapper = gson.fromJson(reader, JsonDataWrapper.class);
+    private void aplicarConexionJson(Cliente origen, String destino) {
+        String error = errorConexionJson(origen.getNombre(), destino, clientesPorNombre::containsKey);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        origen.agregarConexion(destino);
+    }
+
+    /**
+     * Reglas de una conexión del JSON (compartidas por la carga secuencial y la paralela).
+     *
+     * @return el mensaje de error, o null si la conexión es válida.
+     */
+    private static String errorConexionJson(String nombre, String destino, Predicate<String> existe) {
+        if (destino == null || destino.isBlank()) {
+            return "Nombre inválido";
+        }
+        if (nombre.equals(destino)) {
+            return "El cliente '" + destino + "' no puede conectarse consigo mismo (JSON).";
+        }
+        if (!existe.test(destino)) {
+            return "El cliente '" + nombre + "' tiene una conexión a un cliente inexistente en JSON: '" + destino + "'.";
+        }
+        return null;
+    }
 
-        if (wrapper == null || wrapper.clientes == null) {
-            return;
+    private FollowRequest solicitudPendienteJson(SeguimientoDTO dto, Predicate<String> existe) {
+        if (dto == null) {
+            throw new IllegalArgumentException("Solicitud pendiente inválida (null) en JSON.");
+        }
+        validarNombre(dto.solicitante);
+        validarNombre(dto.objetivo);
+        if (dto.solicitante.equals(dto.objetivo)) {
+            throw new IllegalArgumentException("Un cliente no puede seguirse a sí mismo.");
+        }
+        if (!existe.test(dto.solicitante) || !existe.test(dto.objetivo)) {
+            throw new IllegalArgumentException("Solicitud pendiente con cliente inexistente en JSON: "
+                    + dto.solicitante + " -> " + dto.objetivo);
+        }
+        LocalDateTime fechaHora;
+        try {
+            fechaHora = dto.fechaHora == null ? LocalDateTime.now() : LocalDateTime.parse(dto.fechaHora);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha inválida en JSON: " + dto.fechaHora, e);
         }
+        return new FollowRequest(dto.solicitante, dto.objetivo, fechaHora);
+    }
 
-        // -------- PASADA 1: crear clientes --------
-        for (ClienteDTO dto : wrapper.clientes) {
-            if (dto == null) {
-                throw new IllegalArgumentException("Cliente inválido (null) en JSON.");
+    // Detecta gzip por el número mágico (lo que escribe exportarJson comprimido)
+    private static Reader abrirJson(Path path) throws IOException {
+        InputStream entrada = new BufferedInputStream(Files.newInputStream(path), BUFFER_ARCHIVOS);
+        try {
+            entrada.mark(2);
+            boolean gzip = entrada.read() == 0x1f && entrada.read() == 0x8b;
+            entrada.reset();
+            if (gzip) {
+                entrada = new GZIPInputStream(entrada, BUFFER_ARCHIVOS);
             }
+            return new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8.newDecoder()));
+        } catch (IOException | RuntimeException e) {
+            entrada.close();
+            throw e;
+        }
+    }
+
+    private void aplicarSeguimientoJson(Cliente solicitante, String objetivoNombre) {
+        String error = errorSeguimientoJson(solicitante.getNombre(), objetivoNombre,
+                solicitante.getSiguiendo().contains(objetivoNombre), clientesPorNombre::containsKey);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+
+        // Aplicar follow real (el índice inverso suma el seguidor)
+        solicitante.seguirA(objetivoNombre);
+    }
+
+    /**
+     * Reglas de un "siguiendo" del JSON (compartidas por la carga secuencial y la paralela).
+     *
+     * @return el mensaje de error, o null si el follow es válido.
+     */
+    private static String errorSeguimientoJson(String nombre, String objetivoNombre, boolean yaLoSigue,
+                                               Predicate<String> existe) {
+        if (objetivoNombre == null || objetivoNombre.isBlank()) {
+            return "Nombre inválido";
+        }
 
-            // validar nombre y duplicados
-            validarNombre(dto.nombre);
-            if (clientesPorNombre.containsKey(dto.nombre)) {
-                throw new IllegalArgumentException("Cliente duplicado en JSON: " + dto.nombre);
+        if (nombre.equals(objetivoNombre)) {
+            return "El cliente '" + nombre + "' no puede seguirse a sí mismo (JSON).";
+        }
+
+        // El seguido debe existir en el JSON (porque ya cargamos todos en pasada 1)
+        if (!existe.test(objetivoNombre)) {
+            return "El cliente '" + nombre + "' sigue a un cliente inexistente en JSON: '" + objetivoNombre + "'.";
+        }
+
+        // No duplicar follow real
+        if (yaLoSigue) {
+            return "Follow duplicado en JSON: '" + nombre + "' -> '" + objetivoNombre + "'.";
+        }
+        return null;
+    }
+
+    // ---------------- IMPORTACIÓN MASIVA (PARALELA) ----------------
+
+    public void loadFromJsonParalelo(String ruta) {
+        loadFromJsonParalelo(ruta, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Igual que {@link #loadFromJson(String)}, pero validación, construcción de
+     * clientes, índice por scoring y "siguiendo" se resuelven en un ForkJoinPool.
+     * Las conexiones y la cola de solicitudes pendientes se validan y cargan
+     * secuencialmente, con las mismas reglas, así que un archivo de
+     * {@link #exportarJson} ida y vuelta da la misma red.
+     *
+     * Es atómica: primero se valida todo el archivo (se informa el mismo error
+     * que daría la carga secuencial, el primero en orden de archivo) y recién
+     * después se modifica la red.
+     */
+    public void loadFromJsonParalelo(String ruta, int paralelismo) {
+        long inicio = inicioMedicion();
+        try {
+            Path path = Paths.get(ruta);
+            if (!Files.exists(path)) {
+                throw new IllegalArgumentException("Archivo no encontrado: " + ruta);
+            }
+
+            LoteClientes lote = new LoteClientes();
+            try (Reader reader = abrirJson(path)) {
+                LectorJsonClientes.leer(reader, lote::agregar, lote::agregarSolicitud);
+            } catch (IOException e) {
+                throw new RuntimeException("Error leyendo archivo JSON", e);
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(paralelismo);
+            String error;
+            try (Permiso p = bloqueos.exclusivo()) {
+                error = pool.submit(() -> importarLote(lote)).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Importación interrumpida", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Error en importación paralela", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+        } finally {
+            medir(Operacion.CARGA_JSON, inicio);
+        }
+    }
+
+    /**
+     * Corre dentro del ForkJoinPool (los streams paralelos usan ese pool).
+     *
+     * @return el primer error de validación (sin modificar la red), o null si se importó.
+     */
+    private String importarLote(LoteClientes lote) {
+        int n = lote.size;
+
+        // Primera aparición de cada nombre (para detectar duplicados como la carga secuencial)
+        Map<String, Integer> primeraPosicion = new ConcurrentHashMap<>(n * 2);
+        IntStream.range(0, n).parallel().forEach(i -> {
+            String nombre = lote.nombres[i];
+            if (nombre != null && !nombre.isBlank()) {
+                primeraPosicion.merge(nombre, i, Math::min);
+            }
+        });
+
+        // -------- VALIDACIÓN PASADA 1 (primer error en orden de archivo) --------
+        Optional<String> error = IntStream.range(0, n).parallel()
+                .mapToObj(i -> errorAltaLote(lote, i, primeraPosicion))
+                .filter(Objects::nonNull)
+                .findFirst();
+        if (error.isPresent()) {
+            return error.get();
+        }
+
+        // -------- VALIDACIÓN PASADA 2 --------
+        Predicate<String> existe = nombre -> primeraPosicion.containsKey(nombre) || clientesPorNombre.containsKey(nombre);
+        error = IntStream.range(0, n).parallel()
+                .mapToObj(i -> errorSiguiendoLote(lote, i, existe))
+                .filter(Objects::nonNull)
+                .findFirst();
+        if (error.isPresent()) {
+            return error.get();
+        }
+
+        // -------- VALIDACIÓN PASADA 3: conexiones y cola (en orden de archivo) --------
+        for (ClienteDTO dto : lote.conConexiones) {
+            for (String destino : dto.conexiones) {
+                String errorConexion = errorConexionJson(dto.nombre, destino, existe);
+                if (errorConexion != null) {
+                    return errorConexion;
+                }
             }
+        }
+        List<FollowRequest> solicitudes = new ArrayList<>(lote.solicitudes.size());
+        Set<List<String>> pares = new HashSet<>();
+        for (SeguimientoDTO dto : lote.solicitudes) {
+            FollowRequest request;
+            try {
+                request = solicitudPendienteJson(dto, existe);
+            } catch (IllegalArgumentException e) {
+                return e.getMessage();
+            }
+            if (!pares.add(List.of(request.solicitante(), request.objetivo()))
+                    || colaSeguimientos.contiene(request.solicitante(), request.objetivo())) {
+                return "Solicitud pendiente duplicada en JSON: " + request.solicitante() + " -> " + request.objetivo();
+            }
+            solicitudes.add(request);
+        }
+
+        // -------- COMMIT: ya no puede fallar --------
+        Cliente[] clientes = new Cliente[n];
+        if (grafo == null) {
+            IntStream.range(0, n).parallel().forEach(i -> {
+                clientes[i] = fabricaClientes.crear(lote.nombres[i], lote.scorings[i]);
+                clientesPorNombre.put(lote.nombres[i], clientes[i]);
+                indiceNombres.agregar(lote.nombres[i]);
+            });
+        } else {
+            // Modo compacto: el internado de ids es secuencial
+            for (int i = 0; i < n; i++) {
+                clientes[i] = addClienteInterno(lote.nombres[i], lote.scorings[i]);
+            }
+        }
+
+        if (grafo == null) {
+            // Índices parciales por hilo, combinados una sola vez
+            Map<Integer, List<String>> porScoring = IntStream.range(0, n).parallel().boxed()
+                    .collect(Collectors.groupingByConcurrent(i -> lote.scorings[i],
+                            Collectors.mapping(i -> lote.nombres[i], Collectors.toList())));
+            porScoring.entrySet().parallelStream()
+                    .forEach(e -> {
+                        indicePorScoring.agregarTodos(e.getKey(), e.getValue());
+                        scoringModificado(e.getKey());
+                    });
+
+            IntStream.range(0, n).parallel().forEach(i -> {
+                for (int j = 0; j < lote.cantidadSiguiendo[i]; j++) {
+                    clientes[i].seguirA(lote.destino(i, j));
+                }
+            });
+        } else {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < lote.cantidadSiguiendo[i]; j++) {
+                    clientes[i].seguirA(lote.destino(i, j));
+                }
+            }
+        }
+
+        for (ClienteDTO dto : lote.conConexiones) {
+            Cliente origen = clientesPorNombre.get(dto.nombre);
+            for (String destino : dto.conexiones) {
+                origen.agregarConexion(destino);
+            }
+        }
+        for (FollowRequest request : solicitudes) {
+            colaSeguimientos.encolar(request);
+        }
+        return null;
+    }
 
-            // addClienteInterno ya valida scoring
-            addClienteInterno(dto.nombre, dto.scoring);
+    private String errorAltaLote(LoteClientes lote, int i, Map<String, Integer> primeraPosicion) {
+        if (lote.nulos[i]) {
+            return "Cliente inválido (null) en JSON.";
+        }
+        String nombre = lote.nombres[i];
+        if (nombre == null || nombre.isBlank()) {
+            return "Nombre inválido";
+        }
+        if (primeraPosicion.get(nombre) != i || clientesPorNombre.containsKey(nombre)) {
+            return "Cliente duplicado en JSON: " + nombre;
         }
+        if (lote.scorings[i] < 0) {
+            return "Scoring inválido";
+        }
+        return null;
+    }
 
-        // -------- PASADA 2: aplicar relaciones siguiendo + contar seguidores --------
-        for (ClienteDTO dto : wrapper.clientes) {
-            if (dto.siguiendo == null) continue;
+    private String errorSiguiendoLote(LoteClientes lote, int i, Predicate<String> existe) {
+        int cantidad = lote.cantidadSiguiendo[i];
+        if (cantidad > 2) {
+            return "El cliente '" + lote.nombres[i] + "' tiene más de 2 seguidos en JSON (límite 2).";
+        }
+        for (int j = 0; j < cantidad; j++) {
+            String objetivo = lote.destino(i, j);
+            boolean yaLoSigue = j == 1 && objetivo != null && objetivo.equals(lote.destino(i, 0));
+            String error = errorSeguimientoJson(lote.nombres[i], objetivo, yaLoSigue, existe);
+            if (error != null) {
+                return error;
+            }
+        }
+        return null;
+    }
 
-            Cliente solicitante = clientesPorNombre.get(dto.nombre); // ya existe por pasada 1
+    // ---------------- DELTA ----------------
+
+    /**
+     * Aplica sobre la red actual un delta en JSON (ver {@link LectorJsonDelta}):
+     * altas, cambios de scoring y seguimientos agregados / quitados.
+     *
+     * Atómico: todo el delta se valida contra el estado actual (existencia,
+     * duplicados, auto-seguimiento, límite de 2 seguidos sobre el resultado
+     * final) antes de modificar nada; si algo falla no se aplica nada. Sólo
+     * toca los índices de lo que cambia: el costo es proporcional al delta.
+     *
+     * Como las cargas, no entra al historial ni al feed de cambios, y no se
+     * puede usar con el registro activo (no se podría recuperar). Conviene un
+     * {@link #checkpoint()} después: un undo anterior al delta puede encontrar
+     * relaciones que el delta cambió.
+     */
+    public void importarDelta(String ruta) {
+        long inicio = inicioMedicion();
+        try {
+            Path path = Paths.get(ruta);
+            if (!Files.exists(path)) {
+                throw new IllegalArgumentException("Archivo no encontrado: " + ruta);
+            }
 
-            // Regla: máximo 2 seguidos
-            if (dto.siguiendo.size() > 2) {
-                throw new IllegalArgumentException(
-                        "El cliente '" + dto.nombre + "' tiene más de 2 seguidos en JSON (límite 2)."
-                );
+            DeltaDTO delta;
+            try (Reader reader = Files.newBufferedReader(path)) {
+                delta = LectorJsonDelta.leer(reader);
+            } catch (IOException e) {
+                throw new RuntimeException("Error leyendo archivo JSON", e);
             }
 
-            for (String objetivoNombre : dto.siguiendo) {
-                validarNombre(objetivoNombre);
+            try (Permiso p = bloqueos.exclusivo()) {
+                if (registro != null) {
+                    throw new IllegalStateException("No se puede importar un delta con el registro activo.");
+                }
 
-                if (dto.nombre.equals(objetivoNombre)) {
-                    throw new IllegalArgumentException(
-                            "El cliente '" + dto.nombre + "' no puede seguirse a sí mismo (JSON)."
-                    );
+                // -------- VALIDACIÓN: nada se modifica todavía --------
+                Map<String, Integer> altas = new LinkedHashMap<>();
+                for (ClienteDTO dto : delta.altas) {
+                    if (dto == null) {
+                        throw new IllegalArgumentException("Cliente inválido (null) en delta.");
+                    }
+                    validarNombre(dto.nombre);
+                    validarScoring(dto.scoring);
+                    if (clientesPorNombre.containsKey(dto.nombre) || altas.putIfAbsent(dto.nombre, dto.scoring) != null) {
+                        throw new IllegalArgumentException("Cliente duplicado en delta: " + dto.nombre);
+                    }
                 }
 
-                // El seguido debe existir en el JSON (porque ya cargamos todos en pasada 1)
-                if (!clientesPorNombre.containsKey(objetivoNombre)) {
-                    throw new IllegalArgumentException(
-                            "El cliente '" + dto.nombre + "' sigue a un cliente inexistente en JSON: '" + objetivoNombre + "'."
-                    );
+                Map<Cliente, Integer> scorings = new LinkedHashMap<>();
+                for (ClienteDTO dto : delta.scorings) {
+                    if (dto == null) {
+                        throw new IllegalArgumentException("Scoring inválido (null) en delta.");
+                    }
+                    validarScoring(dto.scoring);
+                    Cliente cliente = clienteExistente(dto.nombre);
+                    if (scorings.putIfAbsent(cliente, dto.scoring) != null) {
+                        throw new IllegalArgumentException("Scoring duplicado en delta: " + dto.nombre);
+                    }
                 }
 
-                // No duplicar follow real
-                if (solicitante.getSiguiendo().contains(objetivoNombre)) {
-                    throw new IllegalArgumentException(
-                            "Follow duplicado en JSON: '" + dto.nombre + "' -> '" + objetivoNombre + "'."
-                    );
+                // Seguidos finales de cada solicitante que cambia (actuales - quitados + agregados)
+                Map<String, Set<String>> seguidos = new HashMap<>();
+                List<String[]> quitados = new ArrayList<>();
+                List<String[]> agregados = new ArrayList<>();
+                for (SeguimientoDTO dto : delta.dejarDeSeguir) {
+                    validarSeguimientoDelta(dto);
+                    if (!seguidosFinales(seguidos, altas, dto.solicitante).remove(dto.objetivo)) {
+                        throw new IllegalArgumentException(
+                                "El cliente '" + dto.solicitante + "' no sigue a '" + dto.objetivo + "' (delta).");
+                    }
+                    quitados.add(new String[] { dto.solicitante, dto.objetivo });
+                }
+                for (ClienteDTO dto : delta.altas) {
+                    if (dto.siguiendo == null) continue;
+                    for (String objetivo : dto.siguiendo) {
+                        SeguimientoDTO seguimiento = new SeguimientoDTO();
+                        seguimiento.solicitante = dto.nombre;
+                        seguimiento.objetivo = objetivo;
+                        agregarSeguimientoDelta(seguimiento, seguidos, altas, agregados);
+                    }
+                }
+                for (SeguimientoDTO dto : delta.seguir) {
+                    agregarSeguimientoDelta(dto, seguidos, altas, agregados);
                 }
+                seguidos.forEach((nombre, finales) -> {
+                    if (finales.size() > 2) {
+                        throw new IllegalArgumentException(
+                                "El cliente '" + nombre + "' quedaría con más de 2 seguidos (delta).");
+                    }
+                });
+
+                // -------- COMMIT: ya no puede fallar --------
+                altas.forEach(this::addClienteInterno);
+                scorings.forEach(this::cambiarScoringInterno);
+                for (String[] q : quitados) {
+                    clientesPorNombre.get(q[0]).dejarDeSeguir(q[1]);
+                }
+                for (String[] a : agregados) {
+                    clientesPorNombre.get(a[0]).seguirA(a[1]);
+                }
+            }
+        } finally {
+            medir(Operacion.IMPORTAR_DELTA, inicio);
+        }
+    }
 
-                // Aplicar follow real
-                solicitante.seguirA(objetivoNombre);
+    private void validarSeguimientoDelta(SeguimientoDTO dto) {
+        if (dto == null) {
+            throw new IllegalArgumentException("Seguimiento inválido (null) en delta.");
+        }
+        validarNombre(dto.solicitante);
+        validarNombre(dto.objetivo);
+    }
+
+    private Set<String> seguidosFinales(Map<String, Set<String>> seguidos, Map<String, Integer> altas, String nombre) {
+        Set<String> finales = seguidos.get(nombre);
+        if (finales == null) {
+            finales = altas.containsKey(nombre) ? new HashSet<>() : new HashSet<>(clienteExistente(nombre).getSiguiendo());
+            seguidos.put(nombre, finales);
+        }
+        return finales;
+    }
 
-                // Sumar seguidores al objetivo
-                seguidoresPorCliente.merge(objetivoNombre, 1, Integer::sum);
+    private void agregarSeguimientoDelta(SeguimientoDTO dto, Map<String, Set<String>> seguidos,
+                                         Map<String, Integer> altas, List<String[]> agregados) {
+        validarSeguimientoDelta(dto);
+        String error = errorSeguimientoJson(dto.solicitante, dto.objetivo,
+                !seguidosFinales(seguidos, altas, dto.solicitante).add(dto.objetivo),
+                nombre -> altas.containsKey(nombre) || clientesPorNombre.containsKey(nombre));
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        agregados.add(new String[] { dto.solicitante, dto.objetivo });
+    }
+
+    /**
+     * Mueve al cliente en el índice por scoring e invalida lo que dependía de su
+     * scoring: los rangos cacheados que contienen el viejo o el nuevo, y las
+     * recomendaciones de quienes lo tienen a dos saltos (siguen a un seguidor suyo).
+     */
+    private void cambiarScoringInterno(Cliente cliente, int scoring) {
+        int anterior = cliente.getScoring();
+        if (anterior == scoring) return;
+        String nombre = cliente.getNombre();
+
+        indicePorScoring.remover(anterior, nombre);
+        fabricaClientes.cambiarScoring(cliente, scoring);
+        indicePorScoring.agregar(scoring, nombre);
+        scoringModificado(anterior);
+        scoringModificado(scoring);
+
+        for (String seguidor : indiceInverso.seguidoresDe(nombre)) {
+            for (String afectado : indiceInverso.seguidoresDe(seguidor)) {
+                recomendaciones.invalidar(afectado);
             }
         }
+    }
 
-    } catch (IOException e) {
-        throw new RuntimeException("Error leyendo archivo JSON", e);
-    } catch (JsonSyntaxException e) {
-        throw new IllegalArgumentException("JSON inválido o mal formateado", e);
+    // ---------------- EXPORTACIÓN JSON ----------------
+
+    /**
+     * Exporta la red en el formato de {@link #loadFromJson(String)}, en UTF-8
+     * y opcionalmente comprimida con gzip (loadFromJson la detecta sola).
+     *
+     * @see #exportarJson(Writer, boolean)
+     */
+    public void exportarJson(String ruta, boolean incluirPendientes, boolean comprimir) {
+        try (OutputStream archivo = Files.newOutputStream(Paths.get(ruta));
+             OutputStream salida = comprimir ? new GZIPOutputStream(archivo, BUFFER_ARCHIVOS) : archivo;
+             Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8),
+                     BUFFER_ARCHIVOS)) {
+            exportarJson(writer, incluirPendientes);
+        } catch (IOException e) {
+            throw new RuntimeException("Error escribiendo JSON", e);
+        }
+    }
+
+    /**
+     * Escribe clientes, "siguiendo", conexiones y (opcionalmente) la cola de
+     * solicitudes pendientes directo desde la red con un JsonWriter, sin DTOs
+     * intermedios. El destino no se cierra; conviene que tenga buffer.
+     *
+     * Vista puntual: toma el lock exclusivo mientras escribe (como
+     * {@link #guardarSnapshot(String)}), así que las escrituras esperan.
+     * El historial no se exporta.
+     */
+    public void exportarJson(Writer destino, boolean incluirPendientes) {
+        if (destino == null) {
+            throw new IllegalArgumentException("Destino inválido");
+        }
+        try (Permiso p = bloqueos.exclusivo()) {
+            EscritorJsonClientes.escribir(destino, clientesPorNombre.values(),
+                    incluirPendientes ? colaSeguimientos : null);
+        } catch (IOException e) {
+            throw new RuntimeException("Error escribiendo JSON", e);
+        }
+    }
+
+    // ---------------- SNAPSHOT BINARIO ----------------
+
+    /**
+     * Guarda clientes, relaciones y solicitudes pendientes en formato binario
+     * (ver {@link SnapshotBinario}). El historial no se guarda.
+     *
+     * El archivo se reemplaza en forma atómica y durable. Con el registro
+     * activo, recién después éste se vacía (el snapshot ya contiene sus
+     * acciones) y se hace un {@link #checkpoint()}: deshacer una acción anterior
+     * al snapshot registraría un undo sin su acción en el registro vaciado, y
+     * la recuperación fallaría.
+     */
+    public void guardarSnapshot(String ruta) {
+        try (Permiso p = bloqueos.exclusivo()) {
+            SnapshotBinario.escribir(Paths.get(ruta), clientesPorNombre.values(), colaSeguimientos);
+            if (registro != null) {
+                registro.truncar();
+                historial.checkpoint();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error escribiendo snapshot", e);
+        }
+    }
+
+    /**
+     * Carga un snapshot binario reconstruyendo los índices directamente desde
+     * la tabla de nombres e ids. Igual que la carga JSON, no registra historial.
+     */
+    public void cargarSnapshot(String ruta) {
+        long inicio = inicioMedicion();
+        try {
+            Path path = Paths.get(ruta);
+            if (!Files.exists(path)) {
+                throw new IllegalArgumentException("Archivo no encontrado: " + ruta);
+            }
+
+            try (Permiso p = bloqueos.exclusivo()) {
+                SnapshotBinario.leer(path, new SnapshotBinario.Receptor() {
+                    @Override
+                    public void cliente(String nombre, int scoring) {
+                        if (clientesPorNombre.containsKey(nombre)) {
+                            throw new IllegalArgumentException("Cliente duplicado en snapshot: " + nombre);
+                        }
+                        addClienteInterno(nombre, scoring);
+                    }
+
+                    // Mismas reglas que seguir: un archivo corrupto no arma un grafo inválido
+                    @Override
+                    public void seguimiento(String origen, String destino) {
+                        Cliente cliente = clientesPorNombre.get(origen);
+                        Set<String> siguiendo = cliente.getSiguiendo();
+                        if (origen.equals(destino) || !clientesPorNombre.containsKey(destino)
+                                || siguiendo.contains(destino) || siguiendo.size() >= 2) {
+                            throw new IllegalArgumentException(
+                                    "Snapshot inválido: seguimiento " + origen + " -> " + destino);
+                        }
+                        cliente.seguirA(destino);
+                    }
+
+                    @Override
+                    public void conexion(String origen, String destino) {
+                        clientesPorNombre.get(origen).agregarConexion(destino);
+                    }
+
+                    @Override
+                    public void pendiente(FollowRequest request) {
+                        if (!colaSeguimientos.encolar(request)) {
+                            throw new IllegalArgumentException("Solicitud duplicada en snapshot: " + request);
+                        }
+                    }
+                });
+            } catch (IOException e) {
+                throw new RuntimeException("Error leyendo snapshot", e);
+            }
+        } finally {
+            medir(Operacion.CARGA_SNAPSHOT, inicio);
+        }
+    }
+
+    // ---------------- REGISTRO DE ESCRITURA (WAL) ----------------
+
+    /**
+     * Empieza a registrar las acciones en {@code ruta} (se agrega al final si existe;
+     * una entrada final truncada o corrupta se corta antes).
+     */
+    public void activarRegistro(String ruta, PoliticaSync politica) {
+        if (politica == null) {
+            throw new IllegalArgumentException("Política de sync inválida");
+        }
+        try (Permiso p = bloqueos.exclusivo()) {
+            if (registro != null) {
+                throw new IllegalStateException("El registro ya está activo.");
+            }
+            registro = new RegistroEscritura(Paths.get(ruta), politica);
+        } catch (IOException e) {
+            throw new RuntimeException("Error abriendo el registro", e);
+        }
+    }
+
+    /**
+     * Hace durable todo lo registrado y deja de registrar.
+     */
+    public void cerrarRegistro() {
+        RegistroEscritura actual;
+        try (Permiso p = bloqueos.exclusivo()) {
+            actual = registro;
+            registro = null;
+        }
+        if (actual == null) return;
+        try {
+            actual.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Error cerrando el registro", e);
+        }
+    }
+
+    /**
+     * Re-aplica el registro sobre el estado actual (el snapshot / JSON del que parte),
+     * reconstruyendo también el historial. Una entrada final truncada o corrupta
+     * (caída a mitad de escritura) se descarta.
+     *
+     * @return cantidad de entradas aplicadas.
+     */
+    public long recuperarDesdeRegistro(String ruta) {
+        Path path = Paths.get(ruta);
+        if (!Files.exists(path)) {
+            throw new IllegalArgumentException("Archivo no encontrado: " + ruta);
+        }
+
+        try (Permiso p = bloqueos.exclusivo()) {
+            if (registro != null) {
+                throw new IllegalStateException("No se puede recuperar con el registro activo.");
+            }
+            // Solicitudes de un lote aún no cerrado (FIN_LOTE)
+            List<FollowRequest> lote = new ArrayList<>();
+            long[] leidas = {0};
+            RegistroEscritura.leer(path, entrada -> {
+                reaplicar(entrada, lote);
+                leidas[0]++;
+            });
+
+            // Caída a mitad de un lote: lo aplicado queda como un lote deshacible
+            if (!lote.isEmpty()) {
+                registrarLote(lote);
+            }
+            return leidas[0];
+        } catch (IOException e) {
+            throw new RuntimeException("Error leyendo el registro", e);
+        }
+    }
+
+    // Requiere el lock exclusivo y el registro inactivo
+    private void reaplicar(RegistroEscritura.Entrada entrada, List<FollowRequest> lote) {
+        FollowRequest req = entrada.request();
+        switch (entrada.tipo()) {
+            case ALTA -> {
+                if (clientesPorNombre.containsKey(entrada.nombre())) {
+                    throw new IllegalStateException("Registro inconsistente: el cliente ya existe " + entrada.nombre());
+                }
+                addClienteInterno(entrada.nombre(), entrada.numero());
+                registrarAlta(entrada.nombre(), entrada.numero());
+            }
+            case SOLICITUD -> {
+                if (!colaSeguimientos.encolar(req)) {
+                    throw new IllegalStateException("Registro inconsistente: solicitud duplicada " + req);
+                }
+                registrarSeguimiento(ActionType.REQUEST_FOLLOW, req);
+            }
+            case PROCESO -> {
+                removerDeLaCola(req);
+                aplicarSeguimiento(req);
+            }
+            case DESCARTE -> removerDeLaCola(req);
+            case PROCESO_EN_LOTE -> {
+                removerDeLaCola(req);
+                String error = errorSeguimiento(req);
+                if (error != null) {
+                    throw new IllegalStateException("Registro inconsistente: " + error);
+                }
+                clientesPorNombre.get(req.solicitante()).seguirA(req.objetivo());
+                lote.add(req);
+            }
+            case FIN_LOTE -> {
+                if (lote.size() != entrada.numero()) {
+                    throw new IllegalStateException("Registro inconsistente: lote de " + lote.size()
+                            + " solicitudes cerrado con " + entrada.numero());
+                }
+                registrarLote(lote);
+                lote.clear();
+            }
+            case DESHACER_ALTA, DESHACER_SOLICITUD, DESHACER_PROCESO, DESHACER_LOTE -> {
+                Action ultima = historial.poll(clientesPorNombre::get);
+                if (ultima == null || !coincide(ultima, entrada)) {
+                    throw new IllegalStateException("Registro inconsistente: undo sin acción " + entrada);
+                }
+                try {
+                    deshacer(ultima);
+                } catch (IllegalStateException e) {
+                    // el undo original falló igual después de sacar la acción de la pila
+                }
+            }
+        }
+    }
+
+    private void removerDeLaCola(FollowRequest req) {
+        if (!colaSeguimientos.remover(req)) {
+            throw new IllegalStateException("Registro inconsistente: solicitud no pendiente " + req);
+        }
+    }
+
+    private static boolean coincide(Action accion, RegistroEscritura.Entrada entrada) {
+        return switch (entrada.tipo()) {
+            case DESHACER_ALTA -> accion.type() == ActionType.ADD_CLIENT && accion.detalle().equals(entrada.nombre());
+            case DESHACER_SOLICITUD -> accion.type() == ActionType.REQUEST_FOLLOW && entrada.request().equals(accion.payload());
+            case DESHACER_PROCESO -> accion.type() == ActionType.PROCESS_FOLLOW && entrada.request().equals(accion.payload());
+            case DESHACER_LOTE -> accion.type() == ActionType.PROCESS_FOLLOW_BATCH
+                    && ((List<?>) accion.payload()).size() == entrada.numero();
+            default -> false;
+        };
+    }
+
+    /**
+     * Espera la durabilidad de una entrada; se llama sin locks de la red tomados.
+     * {@code actual} es el registro leído bajo el lock en el que se escribió la
+     * entrada: después de soltarlo {@link #registro} puede ser otro (o null).
+     */
+    private static void confirmarRegistro(RegistroEscritura actual, long secuencia) {
+        if (actual != null && secuencia > 0) {
+            actual.confirmar(secuencia);
+        }
+    }
+
+    // ---------------- FEED DE CAMBIOS ----------------
+
+    /**
+     * Publica en {@code feed} cada acción que entra al historial y cada undo
+     * (como retractación). Las cargas masivas (JSON, snapshot) no generan
+     * eventos: un consumidor parte de un snapshot y sigue con el feed.
+     * Reemplaza al feed anterior.
+     */
+    public void activarFeedDeCambios(FeedCambios feed) {
+        if (feed == null) {
+            throw new IllegalArgumentException("Feed inválido");
+        }
+        feedCambios = feed;
+    }
+
+    public void desactivarFeedDeCambios() {
+        feedCambios = null;
+    }
+
+    // ---------------- MÉTRICAS ----------------
+
+    /**
+     * Empieza a medir las operaciones de la red (latencia de cada llamada, aunque
+     * falle) y publica sus indicadores en {@code destino}. Reemplaza al registro anterior.
+     */
+    public void activarMetricas(RegistroMetricas destino) {
+        if (destino == null) {
+            throw new IllegalArgumentException("Registro de métricas inválido");
+        }
+        destino.indicador(Indicador.SOLICITUDES_PENDIENTES, this::cantidadSolicitudesPendientes);
+        destino.indicador(Indicador.ACCIONES_EN_HISTORIAL, historial::size);
+        destino.indicador(Indicador.CLIENTES, clientesPorNombre::size);
+        destino.indicador(Indicador.GRUPOS_POR_SCORING, indicePorScoring::cantidadGrupos);
+        metricas = destino;
+    }
+
+    public void desactivarMetricas() {
+        metricas = null;
+    }
+
+    // 0 = sin métricas (no se lee el reloj)
+    private long inicioMedicion() {
+        return metricas == null ? 0 : System.nanoTime();
+    }
+
+    private void medir(Operacion operacion, long inicio) {
+        RegistroMetricas actual = metricas;
+        if (actual != null && inicio != 0) {
+            actual.operacion(operacion, System.nanoTime() - inicio);
+        }
     }
-}
 
     // ---------------- CLIENTES ----------------
 
     public void agregarCliente(String nombre, int scoring) {
-        if (clientesPorNombre.containsKey(nombre)) {
-            throw new IllegalArgumentException("Ya existe el cliente: " + nombre);
-        }
+        long inicio = inicioMedicion();
+        try {
+            validarNombre(nombre);
+
+            RegistroEscritura actual;
+            long secuencia;
+            try (Permiso p = bloqueos.compartido(); Permiso c = bloqueos.clientes(nombre, nombre)) {
+                actual = registro;
+                if (clientesPorNombre.containsKey(nombre)) {
+                    throw new IllegalArgumentException("Ya existe el cliente: " + nombre);
+                }
 
-        Cliente cliente = addClienteInterno(nombre, scoring);
+                addClienteInterno(nombre, scoring);
 
-        // Registramos acción
-        registrarAccion(new Action(
-                ActionType.ADD_CLIENT,
-                nombre,
-                cliente, 
-                LocalDateTime.now()
-        ));
+                // Registramos acción
+                secuencia = registrarAlta(nombre, scoring);
+            }
+            confirmarRegistro(actual, secuencia);
+        } finally {
+            medir(Operacion.AGREGAR_CLIENTE, inicio);
+        }
     }
 
     // Método interno que NO registra en historial (usado por carga JSON)
     private Cliente addClienteInterno(String nombre, int scoring) {
-    validarNombre(nombre);
-    validarScoring(scoring);
+        validarNombre(nombre);
+        validarScoring(scoring);
 
-    Cliente cliente = new Cliente(nombre, scoring);
-    clientesPorNombre.put(nombre, cliente);
+        Cliente cliente = fabricaClientes.crear(nombre, scoring);
+        clientesPorNombre.put(nombre, cliente);
+        indiceNombres.agregar(nombre);
 
-    indicePorScoring
-            .computeIfAbsent(scoring, k -> new HashSet<>())
-            .add(nombre);
+        indicePorScoring.agregar(scoring, nombre);
+        scoringModificado(scoring);
 
-    // Inicializa seguidores
-    seguidoresPorCliente.put(nombre, 0);
-
-    return cliente;
-}
+        return cliente;
+    }
 
     public Cliente buscarPorNombre(String nombre) {
         return clientesPorNombre.get(nombre);
     }
 
-    public List<Cliente> buscarPorScoring(int scoring) {
-        Set<String> nombres = indicePorScoring.getOrDefault(scoring, Collections.emptySet());
-        List<Cliente> resultado = new ArrayList<>();
+    /**
+     * Autocompletado: hasta {@code limite} clientes cuyo nombre empieza con
+     * {@code prefijo}, ordenados por nombre.
+     */
+    public List<Cliente> buscarPorPrefijo(String prefijo, int limite) {
+        long inicio = inicioMedicion();
+        try {
+            return clientes(indiceNombres.conPrefijo(prefijo, limite));
+        } finally {
+            medir(Operacion.BUSQUEDA_NOMBRE, inicio);
+        }
+    }
+
+    /**
+     * Hasta {@code limite} clientes cuyo nombre está a distancia de edición
+     * (Levenshtein) {@code <= maxDistancia} de {@code nombre}, del más
+     * parecido al menos parecido y después por nombre.
+     */
+    public List<Cliente> buscarSimilares(String nombre, int maxDistancia, int limite) {
+        long inicio = inicioMedicion();
+        try {
+            return clientes(indiceNombres.similares(nombre, maxDistancia, limite));
+        } finally {
+            medir(Operacion.BUSQUEDA_NOMBRE, inicio);
+        }
+    }
 
+    private List<Cliente> clientes(List<String> nombres) {
+        List<Cliente> resultado = new ArrayList<>(nombres.size());
         for (String nombre : nombres) {
-            resultado.add(clientesPorNombre.get(nombre));
+            agregarSiExiste(resultado, nombre);
         }
         return resultado;
     }
 
+    public List<Cliente> buscarPorScoring(int scoring) {
+        long inicio = inicioMedicion();
+        try {
+            GrupoNombres grupo = indicePorScoring.grupo(scoring);
+            List<Cliente> resultado = new ArrayList<>();
+            if (grupo == null) return resultado;
+
+            for (String nombre : grupo.nombres()) {
+                agregarSiExiste(resultado, nombre);
+            }
+            return resultado;
+        } finally {
+            medir(Operacion.BUSQUEDA_SCORING, inicio);
+        }
+    }
+
+    /**
+     * Con la cache de rangos activa ({@link #activarCacheDeRangos(int)}) la
+     * lista es inmutable y compartida entre llamadas con el mismo rango.
+     */
     public List<Cliente> buscarPorScoringEntre(int min, int max) {
-        NavigableMap<Integer, Set<String>> subMapa =
-                indicePorScoring.subMap(min, true, max, true);
+        long inicio = inicioMedicion();
+        try {
+            CacheRangos cache = cacheRangos;
+            if (cache == null) {
+                return clientesEntre(min, max);
+            }
+            List<Cliente> resultado = cache.obtener(min, max);
+            if (resultado == null) {
+                long version = cache.version();
+                resultado = Collections.unmodifiableList(clientesEntre(min, max));
+                cache.guardar(min, max, resultado, version);
+            }
+            return resultado;
+        } finally {
+            medir(Operacion.BUSQUEDA_RANGO, inicio);
+        }
+    }
 
+    private List<Cliente> clientesEntre(int min, int max) {
         List<Cliente> resultado = new ArrayList<>();
-        for (Set<String> nombres : subMapa.values()) {
-            for (String nombre : nombres) {
-                resultado.add(clientesPorNombre.get(nombre));
+        for (GrupoNombres grupo : indicePorScoring.grupos(min, max, false)) {
+            for (String nombre : grupo.nombres()) {
+                agregarSiExiste(resultado, nombre);
             }
         }
         return resultado;
     }
 
+    /**
+     * Activa (o reemplaza, vacía) la cache de resultados de
+     * {@link #buscarPorScoringEntre(int, int)}: LRU de hasta {@code capacidad}
+     * rangos, invalidados sólo por altas / bajas con scoring dentro del rango.
+     */
+    public void activarCacheDeRangos(int capacidad) {
+        cacheRangos = new CacheRangos(capacidad);
+    }
+
+    public void desactivarCacheDeRangos() {
+        cacheRangos = null;
+    }
+
+    /**
+     * @return vacío si la cache de rangos no está activa.
+     */
+    public Optional<EstadisticasCache> estadisticasCacheDeRangos() {
+        CacheRangos cache = cacheRangos;
+        return cache == null ? Optional.empty() : Optional.of(cache.estadisticas());
+    }
+
+    // Después de modificar el índice: invalida los rangos cacheados que contienen el scoring
+    private void scoringModificado(int scoring) {
+        CacheRangos cache = cacheRangos;
+        if (cache != null) {
+            cache.invalidar(scoring);
+        }
+    }
+
+    /**
+     * Igual que {@link #buscarPorScoringEntre(int, int)} pero perezoso, en orden
+     * (scoring, nombre), recorriendo la vista del índice sin copiarla: cortar el
+     * stream (limit, findFirst) no toca el resto del rango.
+     * Es débilmente consistente frente a escrituras concurrentes.
+     */
+    public Stream<Cliente> streamPorScoringEntre(int min, int max) {
+        return indicePorScoring.streamGrupos(min, max)
+                .flatMap(grupo -> grupo.nombres().stream())
+                .map(clientesPorNombre::get)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Página de hasta {@code limite} clientes con scoring en [min, max], en orden
+     * (scoring, nombre), empezando después de {@code desde} (null = desde el principio).
+     * Cuesta O(log n + limite): el cursor se reubica en el índice y con tailSet.
+     */
+    public PaginaClientes paginaPorScoringEntre(int min, int max, int limite, PaginaClientes.Cursor desde) {
+        long inicio = inicioMedicion();
+        try {
+            if (limite <= 0) {
+                throw new IllegalArgumentException("Límite inválido");
+            }
+
+            int primerScoring = min;
+            if (desde != null && desde.scoring() >= min) {
+                if (desde.scoring() > max) {
+                    return new PaginaClientes(List.of(), null);
+                }
+                primerScoring = desde.scoring();
+            }
+
+            List<Cliente> clientes = new ArrayList<>(Math.min(limite, 1024));
+            int ultimoScoring = 0;
+            String ultimoNombre = null;
+
+            IndiceScoring.Recorrido rango = indicePorScoring.recorrer(primerScoring, max, false);
+            while (rango.avanzar()) {
+                NavigableSet<String> nombres = rango.grupo().nombresOrdenados();
+                if (desde != null && rango.scoring() == desde.scoring()) {
+                    nombres = nombres.tailSet(desde.nombre(), false);
+                }
+
+                for (String nombre : nombres) {
+                    Cliente cliente = clientesPorNombre.get(nombre);
+                    if (cliente == null) continue;
+
+                    if (clientes.size() == limite) {
+                        // Hay al menos uno más
+                        return new PaginaClientes(Collections.unmodifiableList(clientes),
+                                new PaginaClientes.Cursor(ultimoScoring, ultimoNombre));
+                    }
+                    clientes.add(cliente);
+                    ultimoScoring = rango.scoring();
+                    ultimoNombre = nombre;
+                }
+            }
+            return new PaginaClientes(Collections.unmodifiableList(clientes), null);
+        } finally {
+            medir(Operacion.BUSQUEDA_RANGO, inicio);
+        }
+    }
+
+    /**
+     * Cantidad de clientes con scoring en [min, max] sin materializarlos:
+     * O(log n + scorings distintos en el rango).
+     */
+    public int contarPorScoringEntre(int min, int max) {
+        long inicio = inicioMedicion();
+        try {
+            return indicePorScoring.contar(min, max);
+        } finally {
+            medir(Operacion.BUSQUEDA_RANGO, inicio);
+        }
+    }
+
+    // Una lectura sin lock puede ver un nombre en el índice cuya baja está en curso
+    private void agregarSiExiste(List<Cliente> resultado, String nombre) {
+        Cliente cliente = clientesPorNombre.get(nombre);
+        if (cliente != null) {
+            resultado.add(cliente);
+        }
+    }
+
     public int cantidadClientes() {
         return clientesPorNombre.size();
     }
 
+    public int cantidadSeguidores(String nombre) {
+        return indiceInverso.cantidadSeguidores(nombre);
+    }
+
+    // ---------------- RANKINGS ----------------
+
+    /**
+     * Los {@code k} clientes de mayor scoring (empates por nombre), recorriendo
+     * el índice de mayor a menor: O(k log n).
+     */
+    public List<Cliente> topPorScoring(int k) {
+        return top(indicePorScoring.grupos(Integer.MIN_VALUE, Integer.MAX_VALUE, true), k);
+    }
+
+    /**
+     * Los {@code k} clientes más seguidos (empates en cualquier orden). Sólo
+     * incluye clientes con al menos un seguidor.
+     */
+    public List<Cliente> topPorSeguidores(int k) {
+        return top(rankingSeguidores.descendente().values(), k);
+    }
+
+    private List<Cliente> top(Iterable<GrupoNombres> descendente, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Cantidad inválida");
+        }
+        List<Cliente> resultado = new ArrayList<>(Math.min(k, 1024));
+        for (GrupoNombres grupo : descendente) {
+            for (String nombre : grupo.nombres()) {
+                if (resultado.size() == k) return resultado;
+                agregarSiExiste(resultado, nombre);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Posición del cliente por scoring: 1 + cantidad de clientes con scoring
+     * mayor (los empatados comparten posición).
+     */
+    public int posicionPorScoring(String nombre) {
+        return indicePorScoring.contarMayoresA(clienteExistente(nombre).getScoring()) + 1;
+    }
+
+    /**
+     * Posición del cliente por cantidad de seguidores: 1 + cantidad de clientes
+     * con más seguidores (los empatados comparten posición).
+     */
+    public int posicionPorSeguidores(String nombre) {
+        clienteExistente(nombre);
+        return rankingSeguidores.cantidadConMasDe(indiceInverso.cantidadSeguidores(nombre)) + 1;
+    }
+
+    private Cliente clienteExistente(String nombre) {
+        validarNombre(nombre);
+        Cliente cliente = clientesPorNombre.get(nombre);
+        if (cliente == null) {
+            throw new IllegalArgumentException("Cliente inexistente: " + nombre);
+        }
+        return cliente;
+    }
+
+    // ---------------- RECOMENDACIONES ----------------
+
+    /**
+     * "A quién seguir": los seguidos de los seguidos de {@code nombre} que no
+     * sigue ni tiene pendientes en la cola, ordenados por cantidad de caminos
+     * de dos pasos × (scoring + 1), y por nombre ante empates.
+     *
+     * El resultado completo se guarda en una cache LRU por cliente que se
+     * invalida cuando cambia alguna relación o solicitud de la que depende.
+     */
+    public List<Cliente> recomendarA(String nombre, int k) {
+        Cliente cliente = clienteExistente(nombre);
+        if (k < 0) {
+            throw new IllegalArgumentException("Cantidad inválida");
+        }
+
+        List<String> candidatos = recomendaciones.obtener(nombre);
+        if (candidatos == null) {
+            long version = recomendaciones.version();
+            candidatos = calcularRecomendaciones(cliente);
+            recomendaciones.guardar(nombre, candidatos, version);
+        }
+
+        List<Cliente> resultado = new ArrayList<>(Math.min(k, candidatos.size()));
+        for (String candidato : candidatos) {
+            if (resultado.size() == k) break;
+            agregarSiExiste(resultado, candidato);
+        }
+        return resultado;
+    }
+
+    private List<String> calcularRecomendaciones(Cliente cliente) {
+        String nombre = cliente.getNombre();
+        Map<String, Integer> caminos = new HashMap<>();
+
+        try (Permiso p = bloqueos.lectura()) {
+            Set<String> seguidos = cliente.getSiguiendo();
+            for (String intermedio : seguidos) {
+                Cliente seguido = clientesPorNombre.get(intermedio);
+                if (seguido == null) continue;
+                for (String candidato : seguido.getSiguiendo()) {
+                    if (!candidato.equals(nombre) && !seguidos.contains(candidato)) {
+                        caminos.merge(candidato, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        synchronized (colaSeguimientos) {
+            caminos.keySet().removeIf(candidato -> colaSeguimientos.contiene(nombre, candidato));
+        }
+
+        Map<String, Long> puntajes = new HashMap<>();
+        caminos.forEach((candidato, cantidad) -> {
+            Cliente c = clientesPorNombre.get(candidato);
+            if (c != null) puntajes.put(candidato, cantidad * (c.getScoring() + 1L));
+        });
+        return puntajes.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // ---------------- CONEXIONES ----------------
+
+    /**
+     * Clientes alcanzables desde {@code nombre} siguiendo conexiones, a
+     * distancia 1..{@code distanciaMaxima}, en orden de distancia (BFS).
+     * Es perezoso: cada nivel se expande recién cuando se lo consume, por lo
+     * que limit / findFirst no recorren el resto del grafo.
+     */
+    public Stream<ConexionAlcanzada> conexionesHasta(String nombre, int distanciaMaxima) {
+        clienteExistente(nombre);
+        if (distanciaMaxima < 0) {
+            throw new IllegalArgumentException("Distancia máxima inválida");
+        }
+        return recorridoConexiones.vecindario(nombre, distanciaMaxima)
+                .map(a -> {
+                    Cliente cliente = clientesPorNombre.get(a.nombre());
+                    return cliente == null ? null : new ConexionAlcanzada(cliente, a.distancia());
+                })
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Grado de separación: menor cantidad de conexiones para llegar de
+     * {@code origen} a {@code destino} (0 si son el mismo cliente), con BFS
+     * bidireccional. Vacío si no hay camino de a lo sumo {@code distanciaMaxima}.
+     */
+    public OptionalInt gradoDeSeparacion(String origen, String destino, int distanciaMaxima) {
+        clienteExistente(origen);
+        clienteExistente(destino);
+        if (distanciaMaxima < 0) {
+            throw new IllegalArgumentException("Distancia máxima inválida");
+        }
+        return recorridoConexiones.distancia(origen, destino, distanciaMaxima);
+    }
+
+    public OptionalInt gradoDeSeparacion(String origen, String destino) {
+        return gradoDeSeparacion(origen, destino, Integer.MAX_VALUE);
+    }
+
     // ---------------- HISTORIAL (PILA) & UNDO ----------------
 
-private void registrarAccion(Action accion) {
-    historial.push(accion);
-}
+    /**
+     * @return la secuencia de la entrada en el registro, o 0 si no está activo.
+     */
+    private long registrarAlta(String nombre, int scoring) {
+        LocalDateTime ahora = LocalDateTime.now();
+        historial.registrarAlta(nombre, ahora);
+
+        FeedCambios feed = feedCambios;
+        if (feed != null) {
+            feed.publicar(EventoCambio.Tipo.APLICADA,
+                    new Action(ActionType.ADD_CLIENT, nombre, clientesPorNombre.get(nombre), ahora));
+        }
+
+        RegistroEscritura actual = registro;
+        return actual == null ? 0 : actual.alta(nombre, scoring);
+    }
+
+    private long registrarSeguimiento(ActionType tipo, FollowRequest req) {
+        LocalDateTime ahora = LocalDateTime.now();
+        historial.registrarSeguimiento(tipo, req, ahora);
+
+        FeedCambios feed = feedCambios;
+        if (feed != null) {
+            feed.publicar(EventoCambio.Tipo.APLICADA,
+                    new Action(tipo, req.solicitante() + " -> " + req.objetivo(), req, ahora));
+        }
+
+        RegistroEscritura actual = registro;
+        if (actual == null) return 0;
+        return actual.solicitud(tipo == ActionType.REQUEST_FOLLOW ? Tipo.SOLICITUD : Tipo.PROCESO, req);
+    }
+
+    private void registrarLote(List<FollowRequest> aplicadas) {
+        LocalDateTime ahora = LocalDateTime.now();
+        historial.registrarLote(aplicadas, ahora);
+
+        FeedCambios feed = feedCambios;
+        if (feed != null) {
+            feed.publicar(EventoCambio.Tipo.APLICADA, new Action(ActionType.PROCESS_FOLLOW_BATCH,
+                    "lote de " + aplicadas.size() + " solicitudes", List.copyOf(aplicadas), ahora));
+        }
+    }
+
+    /**
+     * Descarta el historial retenido: las acciones anteriores ya no se pueden
+     * deshacer (por ejemplo, después de guardar un snapshot).
+     *
+     * @return cantidad de acciones descartadas.
+     */
+    public int checkpoint() {
+        try (Permiso p = bloqueos.exclusivo()) {
+            return historial.checkpoint();
+        }
+    }
+
+    public int cantidadAccionesEnHistorial() {
+        return historial.size();
+    }
 
 /**
  * @deprecated Usar {@link #undo()} para una API más moderna.
@@ -209,44 +1539,216 @@ public Action deshacerUltimaAccion() {
     return undo().orElse(null);
 }
 
-public Optional<Action> undo() {
-    if (historial.isEmpty()) {
-        return Optional.empty();
+    public Optional<Action> undo() {
+        long inicio = inicioMedicion();
+        try {
+            Action ultima;
+            RegistroEscritura actual = null;
+            long secuencia = 0;
+            try (Permiso p = bloqueos.exclusivo()) {
+                actual = registro;
+                ultima = historial.poll(clientesPorNombre::get);
+                if (ultima == null) {
+                    return Optional.empty();
+                }
+
+                // Entrada compensatoria: se registra aunque el undo falle (la acción ya salió de la pila)
+                secuencia = registrarDeshacer(ultima);
+
+                deshacer(ultima);
+            } finally {
+                confirmarRegistro(actual, secuencia);
+            }
+            return Optional.of(ultima);
+        } finally {
+            medir(Operacion.UNDO, inicio);
+        }
     }
 
-    Action ultima = historial.pop();
+    /**
+     * Deshace las últimas {@code n} acciones (o todas las que haya) de una vez:
+     * un solo lock, una sola espera del registro, y el efecto neto aplicado en
+     * una pasada: las solicitudes se sacan de la cola juntas, los seguimientos
+     * de clientes que también se eliminan no se deshacen uno por uno (los
+     * limpia la baja del cliente, que sólo recorre sus propias referencias).
+     *
+     * A diferencia de llamar n veces a {@link #undo()}, lo que ya no está (una
+     * solicitud que se procesó, un seguimiento que no existe) se saltea en vez
+     * de fallar; un lote con alguna relación inconsistente se saltea entero.
+     *
+     * @return las acciones deshechas, de la más reciente a la más antigua.
+     */
+    public List<Action> undo(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Cantidad inválida: " + n);
+        }
+        return deshacerVarias(() -> n);
+    }
 
-    switch (ultima.type()) {
-        case ADD_CLIENT -> eliminarClienteCompleto(ultima.detalle());
-        case REQUEST_FOLLOW -> deshacerSolicitudSeguir(ultima);
-        case PROCESS_FOLLOW -> deshacerFollowProcesado(ultima);
-        default -> throw new IllegalStateException("Acción desconocida en historial: " + ultima.type());
+    /**
+     * Marca la posición actual del historial para volver con {@link #rollbackTo(long)}.
+     * Deshacer por debajo de la marca (o un checkpoint) la invalida.
+     */
+    public long savepoint() {
+        return historial.savepoint();
     }
 
-    return Optional.of(ultima);
-}
+    /**
+     * Deshace todas las acciones posteriores al savepoint (ver {@link #undo(int)}).
+     *
+     * @throws IllegalArgumentException si el savepoint no existe o ya se deshizo.
+     * @throws IllegalStateException si parte de esas acciones ya se descartó del historial.
+     */
+    public List<Action> rollbackTo(long savepoint) {
+        return deshacerVarias(() -> historial.accionesDesde(savepoint));
+    }
 
-private void eliminarClienteCompleto(String nombre) {
-    // 0. Eliminar contador de seguidores
-    seguidoresPorCliente.remove(nombre);
+    private List<Action> deshacerVarias(IntSupplier cantidad) {
+        long inicio = inicioMedicion();
+        try {
+            List<Action> deshechas = new ArrayList<>();
+            RegistroEscritura actual = null;
+            long secuencia = 0;
+            try (Permiso p = bloqueos.exclusivo()) {
+                actual = registro;
+                int n = cantidad.getAsInt();
+                while (deshechas.size() < n) {
+                    Action ultima = historial.poll(clientesPorNombre::get);
+                    if (ultima == null) break;
+                    deshechas.add(ultima);
+                    long s = registrarDeshacer(ultima);
+                    if (s != 0) secuencia = s;
+                }
+                deshacerTodas(deshechas);
+            } finally {
+                confirmarRegistro(actual, secuencia);
+            }
+            return deshechas;
+        } finally {
+            medir(Operacion.UNDO_MULTIPLE, inicio);
+        }
+    }
+
+    private long registrarDeshacer(Action accion) {
+        RegistroEscritura actual = registro;
+        if (actual == null) return 0;
+        return switch (accion.type()) {
+            case ADD_CLIENT -> actual.deshacerAlta(accion.detalle());
+            case REQUEST_FOLLOW -> actual.solicitud(Tipo.DESHACER_SOLICITUD, (FollowRequest) accion.payload());
+            case PROCESS_FOLLOW -> actual.solicitud(Tipo.DESHACER_PROCESO, (FollowRequest) accion.payload());
+            case PROCESS_FOLLOW_BATCH -> actual.lote(Tipo.DESHACER_LOTE, ((List<?>) accion.payload()).size());
+        };
+    }
+
+    // Efecto neto de deshacer las acciones (de la más reciente a la más antigua)
+    private void deshacerTodas(List<Action> deshechas) {
+        Set<String> eliminados = new HashSet<>();
+        List<FollowRequest> solicitudes = new ArrayList<>();
+        List<List<FollowRequest>> seguimientos = new ArrayList<>();
+        for (Action accion : deshechas) {
+            switch (accion.type()) {
+                case ADD_CLIENT -> eliminados.add(accion.detalle());
+                case REQUEST_FOLLOW -> solicitudes.add((FollowRequest) accion.payload());
+                case PROCESS_FOLLOW -> seguimientos.add(List.of((FollowRequest) accion.payload()));
+                case PROCESS_FOLLOW_BATCH -> seguimientos.add(castLote(accion.payload()));
+            }
+        }
+
+        // 1. Solicitudes pendientes
+        if (!solicitudes.isEmpty()) {
+            synchronized (colaSeguimientos) {
+                for (FollowRequest req : solicitudes) {
+                    colaSeguimientos.remover(req);
+                }
+            }
+        }
+
+        // 2. Seguimientos entre clientes que quedan
+        for (List<FollowRequest> lote : seguimientos) {
+            if (!lote.stream().allMatch(this::sigue)) continue;
+            for (int i = lote.size() - 1; i >= 0; i--) {
+                FollowRequest req = lote.get(i);
+                if (eliminados.contains(req.solicitante()) || eliminados.contains(req.objetivo())) continue;
+                clientesPorNombre.get(req.solicitante()).dejarDeSeguir(req.objetivo());
+            }
+        }
+
+        // 3. Bajas: cada una limpia sólo las referencias a ese cliente
+        for (String nombre : eliminados) {
+            eliminarClienteCompleto(nombre);
+        }
+
+        FeedCambios feed = feedCambios;
+        if (feed != null) {
+            for (Action accion : deshechas) {
+                feed.publicar(EventoCambio.Tipo.RETRACTADA, accion);
+            }
+        }
+    }
 
+    @SuppressWarnings("unchecked")
+    private static List<FollowRequest> castLote(Object payload) {
+        if (!(payload instanceof List<?> lote)) {
+            throw new IllegalStateException("PROCESS_FOLLOW_BATCH sin payload válido.");
+        }
+        return (List<FollowRequest>) lote;
+    }
+
+    private boolean sigue(FollowRequest req) {
+        Cliente solicitante = clientesPorNombre.get(req.solicitante());
+        return solicitante != null && existeObjetivo(req.objetivo())
+                && solicitante.getSiguiendo().contains(req.objetivo());
+    }
+
+    private void deshacer(Action ultima) {
+        switch (ultima.type()) {
+            case ADD_CLIENT -> eliminarClienteCompleto(ultima.detalle());
+            case REQUEST_FOLLOW -> deshacerSolicitudSeguir(ultima);
+            case PROCESS_FOLLOW -> deshacerFollowProcesado(ultima);
+            case PROCESS_FOLLOW_BATCH -> deshacerLoteProcesado(ultima);
+            default -> throw new IllegalStateException("Acción desconocida en historial: " + ultima.type());
+        }
+
+        FeedCambios feed = feedCambios;
+        if (feed != null) {
+            feed.publicar(EventoCambio.Tipo.RETRACTADA, ultima);
+        }
+    }
+
+private void eliminarClienteCompleto(String nombre) {
     // 1. Eliminar del mapa principal
     Cliente eliminado = clientesPorNombre.remove(nombre);
     if (eliminado == null) return;
+    indiceNombres.remover(nombre);
 
-    // 2. Eliminar del índice por scoring
-    Set<String> nombresEnScoring = indicePorScoring.get(eliminado.getScoring());
-    if (nombresEnScoring != null) {
-        nombresEnScoring.remove(nombre);
-        if (nombresEnScoring.isEmpty()) {
-            indicePorScoring.remove(eliminado.getScoring());
-        }
+    // 2. Sus relaciones salientes dejan de contar en el índice inverso
+    for (String objetivo : eliminado.getSiguiendo()) {
+        indiceInverso.seguimientoRemovido(nombre, objetivo);
+    }
+    for (String destino : eliminado.getConexiones()) {
+        indiceInverso.conexionRemovida(nombre, destino);
     }
+    fabricaClientes.desvincular(eliminado);
+    recomendaciones.invalidar(nombre);
 
-    // 3. Limpiar referencias en otros clientes
-    for (Cliente otro : clientesPorNombre.values()) {
-        otro.dejarDeSeguir(nombre);
-        otro.removerConexion(nombre);
+    // 3. Eliminar del índice por scoring
+    indicePorScoring.remover(eliminado.getScoring(), nombre);
+    scoringModificado(eliminado.getScoring());
+
+    // 4. Limpiar referencias sólo en los clientes que lo apuntan (índice inverso)
+    for (String seguidor : indiceInverso.extraerSeguidores(nombre)) {
+        Cliente otro = clientesPorNombre.get(seguidor);
+        if (otro != null) otro.dejarDeSeguir(nombre);
+    }
+    for (String origen : indiceInverso.extraerConexionesEntrantes(nombre)) {
+        Cliente otro = clientesPorNombre.get(origen);
+        if (otro != null) otro.removerConexion(nombre);
+    }
+
+    // 5. Modo compacto: liberar el id para reutilizarlo
+    if (grafo != null) {
+        grafo.liberar(eliminado.getId());
+        tablaNombres.liberar(nombre);
     }
 }
 
@@ -257,7 +1759,7 @@ private void deshacerSolicitudSeguir(Action action) {
         throw new IllegalStateException("REQUEST_FOLLOW sin payload válido.");
     }
 
-    boolean removed = colaSeguimientos.removeLastOccurrence(originalRequest);
+    boolean removed = colaSeguimientos.remover(originalRequest);
 
     if (!removed) {
         throw new IllegalStateException(
@@ -273,114 +1775,318 @@ private void deshacerFollowProcesado(Action action) {
         throw new IllegalStateException("PROCESS_FOLLOW sin payload válido.");
     }
 
-    String solicitante = req.solicitante();
-    String objetivo = req.objetivo();
+    validarDeshacerSeguimiento(req);
 
-    Cliente cSolicitante = clientesPorNombre.get(solicitante);
-    Cliente cObjetivo = clientesPorNombre.get(objetivo);
+    // Quitar relación (el índice inverso descuenta el seguidor)
+    clientesPorNombre.get(req.solicitante()).dejarDeSeguir(req.objetivo());
+}
 
-    if (cSolicitante == null || cObjetivo == null) {
-        throw new IllegalStateException("Inconsistencia: Undo PROCESS_FOLLOW con cliente inexistente.");
-    }
+    private void deshacerLoteProcesado(Action action) {
+        if (!(action.payload() instanceof List<?> lote)) {
+            throw new IllegalStateException("PROCESS_FOLLOW_BATCH sin payload válido.");
+        }
 
-    if (!cSolicitante.getSiguiendo().contains(objetivo)) {
-        throw new IllegalStateException(
-                "Inconsistencia: '" + solicitante + "' no seguía a '" + objetivo + "'."
-        );
+        // Se valida todo antes de tocar la red: el undo del lote es atómico
+        for (Object o : lote) {
+            validarDeshacerSeguimiento((FollowRequest) o);
+        }
+        for (int i = lote.size() - 1; i >= 0; i--) {
+            FollowRequest req = (FollowRequest) lote.get(i);
+            clientesPorNombre.get(req.solicitante()).dejarDeSeguir(req.objetivo());
+        }
     }
 
-    // Quitar relación
-    cSolicitante.dejarDeSeguir(objetivo);
+    private void validarDeshacerSeguimiento(FollowRequest req) {
+        String solicitante = req.solicitante();
+        String objetivo = req.objetivo();
+
+        Cliente cSolicitante = clientesPorNombre.get(solicitante);
 
-    // Disminuir contador de seguidores
-    seguidoresPorCliente.merge(objetivo, -1, Integer::sum);
+        if (cSolicitante == null || !existeObjetivo(objetivo)) {
+            throw new IllegalStateException("Inconsistencia: Undo PROCESS_FOLLOW con cliente inexistente.");
+        }
 
-    if (seguidoresPorCliente.getOrDefault(objetivo, 0) < 0) {
-        seguidoresPorCliente.put(objetivo, 0);
+        if (!cSolicitante.getSiguiendo().contains(objetivo)) {
+            throw new IllegalStateException(
+                    "Inconsistencia: '" + solicitante + "' no seguía a '" + objetivo + "'."
+            );
+        }
     }
-}
 
     // ---------------- SEGUIMIENTOS (COLA) ----------------
 
     public void solicitarSeguir(String solicitante, String objetivo) {
-    validarNombre(solicitante);
-    validarNombre(objetivo);
+        long inicio = inicioMedicion();
+        try {
+            validarNombre(solicitante);
+            validarNombre(objetivo);
+
+            if (solicitante.equals(objetivo)) {
+                throw new IllegalArgumentException("Un cliente no puede seguirse a sí mismo.");
+            }
+
+            RegistroEscritura actual;
+            long secuencia;
+            try (Permiso p = bloqueos.compartido()) {
+                actual = registro;
+                if (!existenParaSolicitud(solicitante, objetivo)) {
+                    throw new IllegalArgumentException("Cliente inexistente: " + solicitante + " o " + objetivo);
+                }
+
+                FollowRequest request = new FollowRequest(solicitante, objetivo, LocalDateTime.now());
 
-    if (solicitante.equals(objetivo)) {
-        throw new IllegalArgumentException("Un cliente no puede seguirse a sí mismo.");
+                // Encolar y registrar juntos: el REQUEST queda en la pila antes que su PROCESS
+                synchronized (colaSeguimientos) {
+                    if (!colaSeguimientos.encolar(request)) {
+                        throw new IllegalArgumentException("Solicitud ya pendiente: " + solicitante + " -> " + objetivo);
+                    }
+
+                    secuencia = registrarSeguimiento(ActionType.REQUEST_FOLLOW, request);
+                }
+            }
+            confirmarRegistro(actual, secuencia);
+        } finally {
+            medir(Operacion.SOLICITAR_SEGUIR, inicio);
+        }
     }
 
-    if (!clientesPorNombre.containsKey(solicitante) || !clientesPorNombre.containsKey(objetivo)) {
-        throw new IllegalArgumentException("Cliente inexistente: " + solicitante + " o " + objetivo);
+    /**
+     * Encola un lote de solicitudes ya validadas (nombres, auto-seguimiento) con
+     * un único permiso y, con el registro activo, una única espera de
+     * durabilidad. Cada solicitud queda como su propio REQUEST_FOLLOW: se
+     * deshacen de a una, igual que con {@link #solicitarSeguir}.
+     *
+     * @return el motivo de rechazo de cada solicitud, o null si se encoló.
+     */
+    String[] solicitarSeguirTodas(List<FollowRequest> requests) {
+        long inicio = inicioMedicion();
+        try {
+            String[] errores = new String[requests.size()];
+            RegistroEscritura actual;
+            long secuencia = 0;
+            try (Permiso p = bloqueos.compartido()) {
+                actual = registro;
+                for (int i = 0; i < errores.length; i++) {
+                    FollowRequest request = requests.get(i);
+                    if (!existenParaSolicitud(request.solicitante(), request.objetivo())) {
+                        errores[i] = "Cliente inexistente: " + request.solicitante() + " o " + request.objetivo();
+                    }
+                }
+                synchronized (colaSeguimientos) {
+                    for (int i = 0; i < errores.length; i++) {
+                        if (errores[i] != null) continue;
+                        FollowRequest request = requests.get(i);
+                        if (!colaSeguimientos.encolar(request)) {
+                            errores[i] = "Solicitud ya pendiente: " + request.solicitante() + " -> " + request.objetivo();
+                        } else {
+                            secuencia = registrarSeguimiento(ActionType.REQUEST_FOLLOW, request);
+                        }
+                    }
+                }
+            }
+            confirmarRegistro(actual, secuencia);
+            return errores;
+        } finally {
+            medir(Operacion.SOLICITAR_LOTE, inicio);
+        }
     }
 
-    for (FollowRequest fr : colaSeguimientos) {
-        if (fr.solicitante().equals(solicitante) && fr.objetivo().equals(objetivo)) {
-            throw new IllegalArgumentException("Solicitud ya pendiente: " + solicitante + " -> " + objetivo);
+    /**
+     * Verifica los dos clientes con sus franjas tomadas: si existen, su alta ya
+     * terminó (la franja cubre el put y el ADD_CLIENT), así que el
+     * REQUEST_FOLLOW que se registre después queda arriba de los dos altas en
+     * la pila. Requiere el permiso compartido, que impide las bajas hasta que
+     * se registre.
+     *
+     * Las franjas se sueltan antes de tomar el monitor de la cola: el
+     * procesamiento toma franjas con el monitor tomado (orden cola -> franjas).
+     */
+    private boolean existenParaSolicitud(String solicitante, String objetivo) {
+        try (Permiso c = bloqueos.clientes(solicitante, objetivo)) {
+            return clientesPorNombre.containsKey(solicitante) && existeObjetivo(objetivo);
         }
     }
 
-    FollowRequest request = new FollowRequest(solicitante, objetivo, LocalDateTime.now());
-    colaSeguimientos.addLast(request);
+    public FollowRequest procesarSiguienteSolicitud() {
+        long inicio = inicioMedicion();
+        try {
+            RegistroEscritura actual = null;
+            long secuencia = 0;
+            FollowRequest procesada;
+            try (Permiso p = bloqueos.compartido()) {
+                actual = registro;
+                FollowRequest req;
+                Permiso clientes;
+
+                // Las franjas se toman antes de soltar la cola: dos solicitudes del
+                // mismo cliente se aplican en orden FIFO aunque las procesen hilos distintos
+                synchronized (colaSeguimientos) {
+                    req = colaSeguimientos.desencolar(); // FIFO
+
+                    if (req == null) {
+                        throw new NoSuchElementException("No hay solicitudes pendientes.");
+                    }
+                    clientes = bloqueos.clientes(req.solicitante(), req.objetivo());
+                }
 
-    registrarAccion(new Action(
-        ActionType.REQUEST_FOLLOW,
-        solicitante + " -> " + objetivo,
-        request,
-        LocalDateTime.now()
-    ));
-}
+                try (clientes) {
+                    secuencia = aplicarSeguimiento(req);
+                } catch (RuntimeException e) {
+                    // La solicitud ya salió de la cola sin generar acción
+                    if (actual != null) {
+                        secuencia = actual.solicitud(Tipo.DESCARTE, req);
+                    }
+                    throw e;
+                }
+                procesada = req;
+            } finally {
+                confirmarRegistro(actual, secuencia);
+            }
+            return procesada;
+        } finally {
+            medir(Operacion.PROCESAR_SOLICITUD, inicio);
+        }
+    }
 
-    public FollowRequest procesarSiguienteSolicitud() {
-    FollowRequest req = colaSeguimientos.pollFirst(); // FIFO
+    // Requiere las franjas del solicitante y el objetivo
+    private long aplicarSeguimiento(FollowRequest req) {
+        String error = errorSeguimiento(req);
+        if (error != null) {
+            throw new IllegalStateException(error);
+        }
+
+        // Aplicar relación real (el índice inverso suma el seguidor)
+        clientesPorNombre.get(req.solicitante()).seguirA(req.objetivo());
 
-    if (req == null) {
-        throw new NoSuchElementException("No hay solicitudes pendientes.");
+        // Registrar acción para poder hacer undo
+        return registrarSeguimiento(ActionType.PROCESS_FOLLOW, req);
     }
 
-    String solicitante = req.solicitante();
-    String objetivo = req.objetivo();
+    /**
+     * Reglas para aplicar una solicitud (compartidas por el procesamiento individual y por lote).
+     *
+     * @return el motivo por el que no se puede aplicar, o null si es válida.
+     */
+    private String errorSeguimiento(FollowRequest req) {
+        String solicitante = req.solicitante();
+        String objetivo = req.objetivo();
+
+        Cliente cSolicitante = clientesPorNombre.get(solicitante);
 
-    Cliente cSolicitante = clientesPorNombre.get(solicitante);
-    Cliente cObjetivo = clientesPorNombre.get(objetivo);
+        if (cSolicitante == null || !existeObjetivo(objetivo)) {
+            return "Inconsistencia: solicitud con cliente inexistente.";
+        }
+
+        // Límite: máximo 2 seguidos
+        if (cSolicitante.getSiguiendo().size() >= 2) {
+            return "El cliente '" + solicitante + "' ya sigue a 2 clientes (límite alcanzado).";
+        }
 
-    if (cSolicitante == null || cObjetivo == null) {
-        throw new IllegalStateException("Inconsistencia: solicitud con cliente inexistente.");
+        // No duplicar follow real
+        if (cSolicitante.getSiguiendo().contains(objetivo)) {
+            return "El cliente '" + solicitante + "' ya sigue a '" + objetivo + "'.";
+        }
+        return null;
     }
 
-    // Límite: máximo 2 seguidos
-    if (cSolicitante.getSiguiendo().size() >= 2) {
-        throw new IllegalStateException(
-                "El cliente '" + solicitante + "' ya sigue a 2 clientes (límite alcanzado)."
-        );
+    /**
+     * Procesa hasta {@code max} solicitudes en orden FIFO con un único lock
+     * exclusivo, una única acción en el historial (se deshace con un solo undo)
+     * y, con el registro activo, un único fsync.
+     *
+     * Las solicitudes inválidas no cortan el lote: se descartan y se informan
+     * con su motivo en el resultado.
+     */
+    public ResultadoLote procesarSolicitudes(int max) {
+        long inicio = inicioMedicion();
+        try {
+            if (max < 0) {
+                throw new IllegalArgumentException("Cantidad máxima inválida");
+            }
+
+            List<FollowRequest> aplicadas = new ArrayList<>();
+            List<ResultadoLote.Rechazo> rechazadas = new ArrayList<>();
+            RegistroEscritura actual;
+            long secuencia = 0;
+
+            try (Permiso p = bloqueos.exclusivo()) {
+                actual = registro;
+
+                // El monitor sólo excluye a cantidadSolicitudesPendientes (el resto espera el lock exclusivo)
+                synchronized (colaSeguimientos) {
+                    for (int i = 0; i < max; i++) {
+                        FollowRequest req = colaSeguimientos.desencolar();
+                        if (req == null) break;
+
+                        String error = errorSeguimiento(req);
+                        if (error != null) {
+                            rechazadas.add(new ResultadoLote.Rechazo(req, error));
+                            if (actual != null) secuencia = actual.solicitud(Tipo.DESCARTE, req);
+                            continue;
+                        }
+
+                        clientesPorNombre.get(req.solicitante()).seguirA(req.objetivo());
+                        aplicadas.add(req);
+                        if (actual != null) actual.solicitud(Tipo.PROCESO_EN_LOTE, req);
+                    }
+                }
+
+                if (!aplicadas.isEmpty()) {
+                    registrarLote(aplicadas);
+                    if (actual != null) secuencia = actual.lote(Tipo.FIN_LOTE, aplicadas.size());
+                }
+            }
+            confirmarRegistro(actual, secuencia);
+
+            return new ResultadoLote(Collections.unmodifiableList(aplicadas), Collections.unmodifiableList(rechazadas));
+        } finally {
+            medir(Operacion.PROCESAR_LOTE, inicio);
+        }
     }
 
-    // No duplicar follow real
-    if (cSolicitante.getSiguiendo().contains(objetivo)) {
-        throw new IllegalStateException(
-                "El cliente '" + solicitante + "' ya sigue a '" + objetivo + "'."
-        );
+    /**
+     * Vacía la cola de solicitudes (ver {@link #procesarSolicitudes(int)}).
+     */
+    public ResultadoLote procesarTodasLasSolicitudes() {
+        return procesarSolicitudes(Integer.MAX_VALUE);
     }
 
-    // Aplicar relación real
-    cSolicitante.seguirA(objetivo);
+    public int cantidadSolicitudesPendientes() {
+        synchronized (colaSeguimientos) {
+            return colaSeguimientos.size();
+        }
+    }
 
-    // Aumentar contador de seguidores del objetivo
-    seguidoresPorCliente.merge(objetivo, 1, Integer::sum);
+    private boolean existeObjetivo(String nombre) {
+        return clientesPorNombre.containsKey(nombre) || clientesRemotos.test(nombre);
+    }
 
-    // Registrar acción para poder hacer undo
-    registrarAccion(new Action(
-            ActionType.PROCESS_FOLLOW,
-            solicitante + " -> " + objetivo,
-            req,
-            LocalDateTime.now()
-    ));
+    // ---------------- PARTICIONES ----------------
 
-    return req;
-}
+    /**
+     * Como partición: acepta seguir a los clientes que {@code remotos} reconoce
+     * aunque no estén en esta red.
+     */
+    void setClientesRemotos(Predicate<String> remotos) {
+        clientesRemotos = remotos;
+    }
 
-    public int cantidadSolicitudesPendientes() {
-        return colaSeguimientos.size();
+    /**
+     * Como partición: el cliente remoto {@code nombre} dejó de existir; los
+     * clientes de esta red dejan de seguirlo y de tener conexión hacia él.
+     */
+    void olvidarClienteRemoto(String nombre) {
+        try (Permiso p = bloqueos.exclusivo()) {
+            if (clientesPorNombre.containsKey(nombre)) return;
+            for (String seguidor : indiceInverso.extraerSeguidores(nombre)) {
+                Cliente otro = clientesPorNombre.get(seguidor);
+                if (otro != null) otro.dejarDeSeguir(nombre);
+            }
+            for (String origen : indiceInverso.extraerConexionesEntrantes(nombre)) {
+                Cliente otro = clientesPorNombre.get(origen);
+                if (otro != null) otro.removerConexion(nombre);
+            }
+        }
     }
 
     // ---------------- VALIDACIONES ----------------
@@ -0,0 +1,313 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.Action;
+import ar.uade.redsocial.model.ActionType;
+import ar.uade.redsocial.model.Cliente;
+import ar.uade.redsocial.model.FollowRequest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Red particionada: los clientes se reparten por hash del nombre entre N
+ * {@link RedSocialEmpresarial} independientes (cada una con su mapa, sus
+ * índices y su cola de solicitudes), y esta fachada enruta las operaciones.
+ *
+ * Cada partición tiene un hilo propio: todas sus escrituras y las consultas
+ * que recorren todas las particiones (scatter-gather) se ejecutan ahí, así que
+ * particiones distintas avanzan en paralelo sin compartir locks. Las búsquedas
+ * por nombre leen directo (los mapas son concurrentes).
+ *
+ * Seguimientos entre particiones: la relación y la solicitud viven en la
+ * partición del solicitante, que valida al objetivo contra la partición que lo
+ * contiene. Al deshacer el alta de un cliente, las demás particiones lo olvidan
+ * (sus seguidores dejan de seguirlo).
+ *
+ * Diferencias con la red única:
+ * - El orden FIFO de las solicitudes es por partición (por solicitante), no global.
+ * - El undo deshace la última acción hecha a través de la fachada; con
+ *   escrituras concurrentes, el orden entre particiones distintas es el de
+ *   finalización.
+ * - Relaciones en modo por defecto (no compacto), historial sin límite.
+ */
+public class RedSocialParticionada implements AutoCloseable {
+
+    private static final Comparator<Cliente> POR_SCORING =
+            Comparator.comparingInt(Cliente::getScoring).thenComparing(Cliente::getNombre);
+
+    private static final Comparator<Cliente> POR_SCORING_DESCENDENTE =
+            Comparator.comparingInt(Cliente::getScoring).reversed().thenComparing(Cliente::getNombre);
+
+    private static final Comparator<Cliente> POR_NOMBRE = Comparator.comparing(Cliente::getNombre);
+
+    private final RedSocialEmpresarial[] particiones;
+    private final ExecutorService[] hilos;
+
+    // partición de cada acción hecha por la fachada (PILA)
+    private final Deque<Integer> acciones = new ArrayDeque<>();
+
+    public RedSocialParticionada(int cantidadParticiones) {
+        if (cantidadParticiones <= 0) {
+            throw new IllegalArgumentException("Cantidad de particiones inválida");
+        }
+        particiones = new RedSocialEmpresarial[cantidadParticiones];
+        hilos = new ExecutorService[cantidadParticiones];
+        for (int i = 0; i < cantidadParticiones; i++) {
+            int indice = i;
+            particiones[i] = new RedSocialEmpresarial();
+            particiones[i].setClientesRemotos(nombre -> existeEnOtra(indice, nombre));
+            hilos[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "particion-" + indice);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public int cantidadParticiones() {
+        return particiones.length;
+    }
+
+    // ---------------- CLIENTES ----------------
+
+    public void agregarCliente(String nombre, int scoring) {
+        int i = particion(nombre);
+        en(i, () -> {
+            particiones[i].agregarCliente(nombre, scoring);
+            return null;
+        });
+        registrarAccion(i);
+    }
+
+    public Cliente buscarPorNombre(String nombre) {
+        return nombre == null ? null : particiones[particion(nombre)].buscarPorNombre(nombre);
+    }
+
+    public int cantidadClientes() {
+        int total = 0;
+        for (RedSocialEmpresarial p : particiones) {
+            total += p.cantidadClientes();
+        }
+        return total;
+    }
+
+    /**
+     * Suma los seguidores que el cliente tiene en cada partición.
+     */
+    public int cantidadSeguidores(String nombre) {
+        int total = 0;
+        for (RedSocialEmpresarial p : particiones) {
+            total += p.cantidadSeguidores(nombre);
+        }
+        return total;
+    }
+
+    // ---------------- BÚSQUEDAS (scatter-gather) ----------------
+
+    public List<Cliente> buscarPorPrefijo(String prefijo, int limite) {
+        return mezclar(todas(p -> p.buscarPorPrefijo(prefijo, limite)), POR_NOMBRE, limite);
+    }
+
+    public List<Cliente> buscarPorScoring(int scoring) {
+        return mezclar(todas(p -> p.buscarPorScoring(scoring)), POR_NOMBRE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Ordenados por scoring y después por nombre (mezcla de k listas ordenadas).
+     */
+    public List<Cliente> buscarPorScoringEntre(int min, int max) {
+        return mezclar(todas(p -> p.buscarPorScoringEntre(min, max)), POR_SCORING, Integer.MAX_VALUE);
+    }
+
+    public int contarPorScoringEntre(int min, int max) {
+        int total = 0;
+        for (int cantidad : todas(p -> p.contarPorScoringEntre(min, max))) {
+            total += cantidad;
+        }
+        return total;
+    }
+
+    /**
+     * Los {@code k} clientes de mayor scoring (empates por nombre): el top-k de
+     * cada partición y la mezcla de esos.
+     */
+    public List<Cliente> topPorScoring(int k) {
+        return mezclar(todas(p -> p.topPorScoring(k)), POR_SCORING_DESCENDENTE, k);
+    }
+
+    // ---------------- SEGUIMIENTOS ----------------
+
+    public void solicitarSeguir(String solicitante, String objetivo) {
+        int i = particion(solicitante);
+        en(i, () -> {
+            particiones[i].solicitarSeguir(solicitante, objetivo);
+            return null;
+        });
+        registrarAccion(i);
+    }
+
+    /**
+     * Procesa hasta {@code maxPorParticion} solicitudes de cada partición, todas
+     * en paralelo. Cada partición que aplicó alguna suma una acción (un lote)
+     * al historial.
+     */
+    public ResultadoLote procesarSolicitudes(int maxPorParticion) {
+        List<ResultadoLote> resultados = todas(p -> p.procesarSolicitudes(maxPorParticion));
+
+        List<FollowRequest> aplicadas = new ArrayList<>();
+        List<ResultadoLote.Rechazo> rechazadas = new ArrayList<>();
+        for (int i = 0; i < resultados.size(); i++) {
+            ResultadoLote resultado = resultados.get(i);
+            if (!resultado.aplicadas().isEmpty()) {
+                registrarAccion(i);
+            }
+            aplicadas.addAll(resultado.aplicadas());
+            rechazadas.addAll(resultado.rechazadas());
+        }
+        return new ResultadoLote(List.copyOf(aplicadas), List.copyOf(rechazadas));
+    }
+
+    public ResultadoLote procesarTodasLasSolicitudes() {
+        return procesarSolicitudes(Integer.MAX_VALUE);
+    }
+
+    public int cantidadSolicitudesPendientes() {
+        int total = 0;
+        for (RedSocialEmpresarial p : particiones) {
+            total += p.cantidadSolicitudesPendientes();
+        }
+        return total;
+    }
+
+    // ---------------- UNDO ----------------
+
+    public Optional<Action> undo() {
+        Integer i;
+        synchronized (acciones) {
+            i = acciones.pollLast();
+        }
+        if (i == null) {
+            return Optional.empty();
+        }
+
+        Optional<Action> deshecha = en(i, particiones[i]::undo);
+        deshecha.filter(a -> a.type() == ActionType.ADD_CLIENT).ifPresent(a -> {
+            // Seguidores del cliente en otras particiones
+            List<Future<Object>> pendientes = new ArrayList<>();
+            for (int j = 0; j < particiones.length; j++) {
+                if (j == i) continue;
+                RedSocialEmpresarial otra = particiones[j];
+                pendientes.add(hilos[j].submit(() -> {
+                    otra.olvidarClienteRemoto(a.detalle());
+                    return null;
+                }));
+            }
+            pendientes.forEach(RedSocialParticionada::esperar);
+        });
+        return deshecha;
+    }
+
+    public int cantidadAccionesEnHistorial() {
+        synchronized (acciones) {
+            return acciones.size();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService hilo : hilos) {
+            hilo.shutdown();
+        }
+    }
+
+    // ---------------- RUTEO ----------------
+
+    private int particion(String nombre) {
+        if (nombre == null) {
+            throw new IllegalArgumentException("Nombre inválido");
+        }
+        int h = nombre.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), particiones.length);
+    }
+
+    private boolean existeEnOtra(int propia, String nombre) {
+        int i = particion(nombre);
+        return i != propia && particiones[i].buscarPorNombre(nombre) != null;
+    }
+
+    private void registrarAccion(int particion) {
+        synchronized (acciones) {
+            acciones.addLast(particion);
+        }
+    }
+
+    private <T> T en(int particion, Callable<T> tarea) {
+        return esperar(hilos[particion].submit(tarea));
+    }
+
+    // Ejecuta la consulta en el hilo de cada partición y junta los resultados en orden
+    private <T> List<T> todas(Function<RedSocialEmpresarial, T> consulta) {
+        List<Future<T>> pendientes = new ArrayList<>(particiones.length);
+        for (int i = 0; i < particiones.length; i++) {
+            RedSocialEmpresarial p = particiones[i];
+            pendientes.add(hilos[i].submit(() -> consulta.apply(p)));
+        }
+        List<T> resultados = new ArrayList<>(particiones.length);
+        for (Future<T> pendiente : pendientes) {
+            resultados.add(esperar(pendiente));
+        }
+        return resultados;
+    }
+
+    // Las excepciones de la partición llegan tal cual (mismos tipos que la red única)
+    private static <T> T esperar(Future<T> pendiente) {
+        try {
+            return pendiente.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Operación interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException("Error en la partición", e.getCause());
+        }
+    }
+
+    /**
+     * Mezcla k listas ordenadas según {@code orden}, hasta {@code limite} elementos.
+     */
+    private static List<Cliente> mezclar(List<List<Cliente>> listas, Comparator<Cliente> orden, int limite) {
+        record Cabeza(Cliente cliente, Iterator<Cliente> resto) { }
+
+        PriorityQueue<Cabeza> cabezas = new PriorityQueue<>(Math.max(1, listas.size()),
+                Comparator.comparing(Cabeza::cliente, orden));
+        int total = 0;
+        for (List<Cliente> lista : listas) {
+            total += lista.size();
+            Iterator<Cliente> it = lista.iterator();
+            if (it.hasNext()) cabezas.add(new Cabeza(it.next(), it));
+        }
+
+        List<Cliente> resultado = new ArrayList<>(Math.min(total, limite));
+        while (!cabezas.isEmpty() && resultado.size() < limite) {
+            Cabeza menor = cabezas.poll();
+            resultado.add(menor.cliente());
+            if (menor.resto().hasNext()) {
+                cabezas.add(new Cabeza(menor.resto().next(), menor.resto()));
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,340 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.FollowRequest;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Registro de escritura anticipada (WAL): archivo de sólo-agregado con una
+ * entrada por acción de la red.
+ *
+ * Formato de cada entrada: int largo, int crc32, payload (byte tipo + datos).
+ * Al recuperar, la lectura se detiene en la primera entrada truncada o con
+ * CRC inválido (escritura interrumpida por una caída). Al abrir el registro
+ * esa cola inválida se corta: si no, lo que se agregue después quedaría
+ * detrás de ella y se perdería en la próxima recuperación.
+ *
+ * Commit agrupado: las entradas se acumulan en memoria y un único hilo
+ * (el primero que necesita durabilidad) escribe y hace fsync por todos.
+ * Agregar devuelve la secuencia de la entrada; {@link #confirmar(long)} espera
+ * según la política y se llama después de soltar los locks de la red.
+ */
+final class RegistroEscritura implements Closeable {
+
+    enum Tipo {
+        ALTA,
+        SOLICITUD,
+        PROCESO,
+        DESCARTE,
+        DESHACER_ALTA,
+        DESHACER_SOLICITUD,
+        DESHACER_PROCESO,
+        // Lote: una entrada por solicitud aplicada y un cierre con la cantidad
+        PROCESO_EN_LOTE,
+        FIN_LOTE,
+        DESHACER_LOTE
+    }
+
+    /**
+     * Entrada leída del registro.
+     *
+     * @param numero  scoring en ALTA; cantidad de solicitudes en FIN_LOTE / DESHACER_LOTE.
+     * @param request null salvo en las entradas de solicitudes.
+     */
+    record Entrada(Tipo tipo, String nombre, int numero, FollowRequest request) { }
+
+    private final FileChannel canal;
+    private final PoliticaSync politica;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition sincronizado = lock.newCondition();
+
+    // Entradas aún no escritas al canal
+    private ByteArrayOutputStream pendiente = new ByteArrayOutputStream(64 * 1024);
+
+    private long secuencia;
+    private long secuenciaDurable;
+    private boolean escribiendo;
+    private IOException error;
+
+    private final ScheduledExecutorService temporizador;
+
+    RegistroEscritura(Path path, PoliticaSync politica) throws IOException {
+        long finValido = Files.exists(path) ? leer(path, entrada -> { }) : 0;
+        this.canal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (canal.size() > finValido) {
+            canal.truncate(finValido);
+            canal.force(true);
+        }
+        canal.position(finValido);
+        this.politica = politica;
+
+        if (politica.modo() == PoliticaSync.Modo.INTERVALO) {
+            temporizador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "wal-sync");
+                t.setDaemon(true);
+                return t;
+            });
+            temporizador.scheduleAtFixedRate(this::sincronizarSilencioso,
+                    politica.intervaloMs(), politica.intervaloMs(), TimeUnit.MILLISECONDS);
+        } else {
+            temporizador = null;
+        }
+    }
+
+    // ---------------- ESCRITURA ----------------
+
+    long alta(String nombre, int scoring) {
+        return agregar(Tipo.ALTA, nombre, scoring, null);
+    }
+
+    long deshacerAlta(String nombre) {
+        return agregar(Tipo.DESHACER_ALTA, nombre, 0, null);
+    }
+
+    long solicitud(Tipo tipo, FollowRequest request) {
+        return agregar(tipo, null, 0, request);
+    }
+
+    long lote(Tipo tipo, int cantidad) {
+        return agregar(tipo, null, cantidad, null);
+    }
+
+    private long agregar(Tipo tipo, String nombre, int numero, FollowRequest request) {
+        byte[] entrada = codificar(tipo, nombre, numero, request);
+
+        lock.lock();
+        try {
+            verificarError();
+            pendiente.write(entrada, 0, entrada.length);
+            return ++secuencia;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hace durable la entrada {@code secuencia} si la política lo pide. En
+     * POR_LOTE se cuenta desde la última entrada durable: quien agrega varias
+     * entradas confirma sólo la última sin saltearse el fsync.
+     */
+    void confirmar(long secuencia) {
+        switch (politica.modo()) {
+            case POR_OPERACION -> sincronizarHasta(secuencia);
+            case POR_LOTE -> {
+                if (secuencia - durable() >= politica.lote()) sincronizarHasta(secuencia);
+            }
+            case INTERVALO -> { } // lo hace el temporizador
+        }
+    }
+
+    /**
+     * Espera hasta que la entrada {@code objetivo} sea durable. Si nadie está
+     * escribiendo, este hilo escribe y hace fsync de todo lo acumulado.
+     */
+    private void sincronizarHasta(long objetivo) {
+        lock.lock();
+        try {
+            while (secuenciaDurable < objetivo) {
+                verificarError();
+                if (escribiendo) {
+                    sincronizado.awaitUninterruptibly();
+                    continue;
+                }
+
+                escribiendo = true;
+                ByteArrayOutputStream lote = pendiente;
+                long hasta = secuencia;
+                pendiente = new ByteArrayOutputStream(Math.max(64 * 1024, lote.size()));
+
+                lock.unlock();
+                try {
+                    ByteBuffer datos = ByteBuffer.wrap(lote.toByteArray());
+                    while (datos.hasRemaining()) {
+                        canal.write(datos);
+                    }
+                    canal.force(false);
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    lock.lock();
+                }
+
+                escribiendo = false;
+                if (error == null) {
+                    secuenciaDurable = hasta;
+                }
+                sincronizado.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long durable() {
+        lock.lock();
+        try {
+            return secuenciaDurable;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void sincronizar() {
+        long hasta;
+        lock.lock();
+        try {
+            hasta = secuencia;
+        } finally {
+            lock.unlock();
+        }
+        sincronizarHasta(hasta);
+    }
+
+    private void sincronizarSilencioso() {
+        try {
+            sincronizar();
+        } catch (RuntimeException e) {
+            // queda registrado en "error" y se informa en la próxima escritura
+        }
+    }
+
+    private void verificarError() {
+        if (error != null) {
+            throw new UncheckedIOException("Error escribiendo el registro (WAL)", error);
+        }
+    }
+
+    /**
+     * Vacía el registro (después de un snapshot que ya contiene su efecto).
+     */
+    void truncar() throws IOException {
+        sincronizar();
+        lock.lock();
+        try {
+            canal.truncate(0);
+            canal.force(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (temporizador != null) {
+            temporizador.shutdownNow();
+        }
+        try {
+            sincronizar();
+        } finally {
+            canal.close();
+        }
+    }
+
+    private static byte[] codificar(Tipo tipo, String nombre, int numero, FollowRequest request) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0); // largo
+            out.writeInt(0); // crc
+            out.writeByte(tipo.ordinal());
+            switch (tipo) {
+                case ALTA, DESHACER_ALTA -> {
+                    out.writeUTF(nombre);
+                    out.writeInt(numero);
+                }
+                case FIN_LOTE, DESHACER_LOTE -> out.writeInt(numero);
+                default -> {
+                    out.writeUTF(request.solicitante());
+                    out.writeUTF(request.objetivo());
+                    out.writeLong(request.fechaHora().toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(request.fechaHora().getNano());
+                }
+            }
+
+            byte[] entrada = bytes.toByteArray();
+            int largoPayload = entrada.length - 8;
+            CRC32 crc = new CRC32();
+            crc.update(entrada, 8, largoPayload);
+            ByteBuffer.wrap(entrada).putInt(largoPayload).putInt((int) crc.getValue());
+            return entrada;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // ByteArrayOutputStream no falla
+        }
+    }
+
+    // ---------------- LECTURA (RECUPERACIÓN) ----------------
+
+    /**
+     * Entrega las entradas válidas en orden; corta en la primera incompleta o corrupta.
+     *
+     * @return posición (en bytes) donde termina la última entrada válida.
+     */
+    static long leer(Path path, Consumer<Entrada> consumidor) throws IOException {
+        long valido = 0;
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal)))) {
+            Tipo[] tipos = Tipo.values();
+            while (true) {
+                int largo;
+                int crcEsperado;
+                byte[] payload;
+                try {
+                    largo = in.readInt();
+                    crcEsperado = in.readInt();
+                    if (largo <= 0 || largo > 1 << 20) return valido;
+                    payload = in.readNBytes(largo);
+                } catch (EOFException fin) {
+                    return valido;
+                }
+                if (payload.length < largo) return valido;
+
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != crcEsperado) return valido;
+
+                DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(payload));
+                int ordinal = entrada.readUnsignedByte();
+                if (ordinal >= tipos.length) return valido;
+                Tipo tipo = tipos[ordinal];
+
+                switch (tipo) {
+                    case ALTA, DESHACER_ALTA ->
+                            consumidor.accept(new Entrada(tipo, entrada.readUTF(), entrada.readInt(), null));
+                    case FIN_LOTE, DESHACER_LOTE ->
+                            consumidor.accept(new Entrada(tipo, null, entrada.readInt(), null));
+                    default -> {
+                        String solicitante = entrada.readUTF();
+                        String objetivo = entrada.readUTF();
+                        LocalDateTime fecha = LocalDateTime.ofEpochSecond(entrada.readLong(), entrada.readInt(), ZoneOffset.UTC);
+                        consumidor.accept(new Entrada(tipo, null, 0, new FollowRequest(solicitante, objetivo, fecha)));
+                    }
+                }
+                valido += 8 + largo;
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ar.uade.redsocial.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Destino de las métricas de una red (ver
+ * {@link RedSocialEmpresarial#activarMetricas(RegistroMetricas)}).
+ *
+ * {@link #operacion} se llama en el hilo que ejecutó la operación, al terminar
+ * (también si falló): debe ser barata y thread-safe. Los indicadores se
+ * publican una vez, al activar; el registro los lee cuando los necesita.
+ */
+public interface RegistroMetricas {
+
+    void operacion(Operacion operacion, long nanos);
+
+    void indicador(Indicador indicador, LongSupplier valor);
+}
@@ -0,0 +1,20 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.FollowRequest;
+
+import java.util.List;
+
+/**
+ * Resultado de procesar un lote de solicitudes de seguimiento.
+ *
+ * @param aplicadas   solicitudes aplicadas, en orden FIFO.
+ * @param rechazadas  solicitudes descartadas con el motivo (no vuelven a la cola).
+ */
+public record ResultadoLote(List<FollowRequest> aplicadas, List<Rechazo> rechazadas) {
+
+    public record Rechazo(FollowRequest request, String motivo) { }
+
+    public int procesadas() {
+        return aplicadas.size() + rechazadas.size();
+    }
+}
@@ -0,0 +1,53 @@
+package ar.uade.redsocial.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Relaciones "siguiendo" leídas del JSON que se validan en una segunda pasada
+ * (cuando ya existen todos los clientes).
+ *
+ * Se guardan en arreglos paralelos: por cliente su nombre, la cantidad de
+ * seguidos declarada y, como mucho, los 2 primeros destinos (con más de 2 el
+ * cliente es inválido y no hace falta conservarlos).
+ */
+final class SeguimientosPendientes {
+
+    private String[] origenes = new String[64];
+    private int[] cantidades = new int[64];
+    private String[] destinos = new String[128];
+    private int size;
+
+    void agregar(String origen, List<String> siguiendo) {
+        if (size == origenes.length) {
+            origenes = Arrays.copyOf(origenes, size * 2);
+            cantidades = Arrays.copyOf(cantidades, size * 2);
+            destinos = Arrays.copyOf(destinos, size * 4);
+        }
+        origenes[size] = origen;
+        cantidades[size] = siguiendo.size();
+        for (int i = 0; i < Math.min(2, siguiendo.size()); i++) {
+            destinos[size * 2 + i] = siguiendo.get(i);
+        }
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String origen(int i) {
+        return origenes[i];
+    }
+
+    int cantidad(int i) {
+        return cantidades[i];
+    }
+
+    /**
+     * @param j 0 o 1 (sólo válido si cantidad(i) <= 2)
+     */
+    String destino(int i, int j) {
+        return destinos[i * 2 + j];
+    }
+}
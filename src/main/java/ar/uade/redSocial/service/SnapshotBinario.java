@@ -0,0 +1,306 @@
+package ar.uade.redsocial.service;
+
+import ar.uade.redsocial.model.Cliente;
+import ar.uade.redsocial.model.FollowRequest;
+import ar.uade.redsocial.model.TablaNombres;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Formato binario versionado de la red (snapshot).
+ *
+ * Layout (big endian):
+ * - cabecera: int MAGIA, short VERSION
+ * - tabla de nombres: int n; por cliente (id = posición): int largo, bytes UTF-8, int scoring
+ * - siguiendo: por cliente: byte cantidad, int id...
+ * - conexiones: por cliente: int grado, int id...
+ * - cola pendiente: int m; por solicitud: int solicitante, int objetivo, long epochSecond, int nano
+ *
+ * La lectura usa ventanas MappedByteBuffer sobre el FileChannel (sin límite de 2 GB)
+ * y entrega todo con ids ya resueltos a nombres, sin construir DTOs.
+ */
+final class SnapshotBinario {
+
+    static final int MAGIA = 0x52534531; // "RSE1"
+    static final short VERSION = 1;
+
+    private static final int BUFFER_ESCRITURA = 1 << 20;
+    private static final long VENTANA_LECTURA = 64L << 20;
+
+    /**
+     * Recibe el contenido de un snapshot en orden: clientes, seguimientos, conexiones, pendientes.
+     */
+    interface Receptor {
+        void cliente(String nombre, int scoring);
+
+        void seguimiento(String origen, String destino);
+
+        void conexion(String origen, String destino);
+
+        void pendiente(FollowRequest request);
+    }
+
+    private SnapshotBinario() { }
+
+    // ---------------- ESCRITURA ----------------
+
+    /**
+     * Relaciones hacia nombres que no son clientes de la red (sólo posibles
+     * manipulando Cliente directamente) no se guardan.
+     *
+     * Se escribe en un archivo temporal al lado, con fsync, y se mueve sobre
+     * {@code path} en forma atómica: una caída a mitad de la escritura deja el
+     * snapshot anterior intacto. Al volver, el snapshot nuevo ya es durable.
+     */
+    static void escribir(Path path, Collection<Cliente> clientes, Iterable<FollowRequest> pendientes)
+            throws IOException {
+        Path temporal = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            escribirEn(temporal, clientes, pendientes);
+            Files.move(temporal, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private static void escribirEn(Path path, Collection<Cliente> clientes, Iterable<FollowRequest> pendientes)
+            throws IOException {
+        TablaNombres ids = new TablaNombres();
+        for (Cliente c : clientes) {
+            ids.intern(c.getNombre());
+        }
+
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Escritor out = new Escritor(canal);
+            out.putInt(MAGIA);
+            out.putShort(VERSION);
+
+            out.putInt(clientes.size());
+            for (Cliente c : clientes) {
+                byte[] nombre = c.getNombre().getBytes(StandardCharsets.UTF_8);
+                out.putInt(nombre.length);
+                out.put(nombre);
+                out.putInt(c.getScoring());
+            }
+
+            for (Cliente c : clientes) {
+                int[] seguidos = resolver(ids, c.getSiguiendo());
+                out.putByte((byte) seguidos.length);
+                for (int id : seguidos) out.putInt(id);
+            }
+
+            for (Cliente c : clientes) {
+                int[] conexiones = resolver(ids, c.getConexiones());
+                out.putInt(conexiones.length);
+                for (int id : conexiones) out.putInt(id);
+            }
+
+            int cantidad = 0;
+            for (FollowRequest ignored : pendientes) cantidad++;
+            out.putInt(cantidad);
+            for (FollowRequest fr : pendientes) {
+                out.putInt(ids.id(fr.solicitante()));
+                out.putInt(ids.id(fr.objetivo()));
+                out.putLong(fr.fechaHora().toEpochSecond(ZoneOffset.UTC));
+                out.putInt(fr.fechaHora().getNano());
+            }
+            out.flush();
+            canal.force(true);
+        }
+    }
+
+    private static int[] resolver(TablaNombres ids, Collection<String> nombres) {
+        int[] resultado = new int[nombres.size()];
+        int n = 0;
+        for (String nombre : nombres) {
+            int id = ids.id(nombre);
+            if (id >= 0) resultado[n++] = id;
+        }
+        return n == resultado.length ? resultado : Arrays.copyOf(resultado, n);
+    }
+
+    private static final class Escritor {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_ESCRITURA);
+
+        Escritor(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        void putByte(byte b) throws IOException {
+            reservar(1);
+            buffer.put(b);
+        }
+
+        void putShort(short s) throws IOException {
+            reservar(2);
+            buffer.putShort(s);
+        }
+
+        void putInt(int i) throws IOException {
+            reservar(4);
+            buffer.putInt(i);
+        }
+
+        void putLong(long l) throws IOException {
+            reservar(8);
+            buffer.putLong(l);
+        }
+
+        void put(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                reservar(1);
+                int n = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, n);
+                offset += n;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void reservar(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+    }
+
+    // ---------------- LECTURA ----------------
+
+    /**
+     * @throws IllegalArgumentException si el archivo no es un snapshot válido.
+     */
+    static void leer(Path path, Receptor receptor) throws IOException {
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ)) {
+            Lector in = new Lector(canal);
+
+            if (in.getInt() != MAGIA) {
+                throw new IllegalArgumentException("Snapshot inválido: cabecera desconocida");
+            }
+            short version = in.getShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Versión de snapshot no soportada: " + version);
+            }
+
+            int n = in.getInt();
+            if (n < 0) throw new IllegalArgumentException("Snapshot inválido: cantidad de clientes");
+            String[] nombres = new String[n];
+            for (int i = 0; i < n; i++) {
+                nombres[i] = in.getString();
+                receptor.cliente(nombres[i], in.getInt());
+            }
+
+            for (int i = 0; i < n; i++) {
+                int cantidad = in.getByte() & 0xFF;
+                for (int j = 0; j < cantidad; j++) {
+                    receptor.seguimiento(nombres[i], nombre(nombres, in.getInt()));
+                }
+            }
+
+            for (int i = 0; i < n; i++) {
+                int grado = in.getInt();
+                for (int j = 0; j < grado; j++) {
+                    receptor.conexion(nombres[i], nombre(nombres, in.getInt()));
+                }
+            }
+
+            int pendientes = in.getInt();
+            for (int i = 0; i < pendientes; i++) {
+                String solicitante = nombre(nombres, in.getInt());
+                String objetivo = nombre(nombres, in.getInt());
+                LocalDateTime fecha = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+                receptor.pendiente(new FollowRequest(solicitante, objetivo, fecha));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Snapshot inválido: archivo truncado", e);
+        }
+    }
+
+    private static String nombre(String[] nombres, int id) {
+        if (id < 0 || id >= nombres.length) {
+            throw new IllegalArgumentException("Snapshot inválido: id de cliente fuera de rango " + id);
+        }
+        return nombres[id];
+    }
+
+    /**
+     * Lectura secuencial sobre ventanas mapeadas en memoria del archivo.
+     */
+    private static final class Lector {
+        private final FileChannel canal;
+        private final long tamanio;
+        private long inicioVentana;
+        private MappedByteBuffer ventana;
+
+        Lector(FileChannel canal) throws IOException {
+            this.canal = canal;
+            this.tamanio = canal.size();
+            mapear(0);
+        }
+
+        byte getByte() throws IOException {
+            asegurar(1);
+            return ventana.get();
+        }
+
+        short getShort() throws IOException {
+            asegurar(2);
+            return ventana.getShort();
+        }
+
+        int getInt() throws IOException {
+            asegurar(4);
+            return ventana.getInt();
+        }
+
+        long getLong() throws IOException {
+            asegurar(8);
+            return ventana.getLong();
+        }
+
+        String getString() throws IOException {
+            int largo = getInt();
+            if (largo < 0 || largo > VENTANA_LECTURA) {
+                throw new IllegalArgumentException("Snapshot inválido: largo de nombre " + largo);
+            }
+            asegurar(largo);
+            byte[] bytes = new byte[largo];
+            ventana.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // Re-mapea desde la posición actual si el valor cruza el final de la ventana
+        private void asegurar(int bytes) throws IOException {
+            if (ventana.remaining() >= bytes) return;
+            long posicion = inicioVentana + ventana.position();
+            if (posicion + bytes > tamanio) {
+                throw new BufferUnderflowException();
+            }
+            mapear(posicion);
+        }
+
+        private void mapear(long desde) throws IOException {
+            inicioVentana = desde;
+            ventana = canal.map(FileChannel.MapMode.READ_ONLY, desde, Math.min(VENTANA_LECTURA, tamanio - desde));
+        }
+    }
+}
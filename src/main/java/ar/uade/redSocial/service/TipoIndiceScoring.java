@@ -0,0 +1,22 @@
+package ar.uade.redsocial.service;
+
+/**
+ * Implementación del índice por scoring.
+ */
+public enum TipoIndiceScoring {
+
+    /**
+     * Mapa ordenado: cualquier dominio de scorings, O(log d) por operación.
+     */
+    ARBOL,
+
+    /**
+     * Arreglo indexado por scoring: O(1) por alta y consulta puntual. Conviene
+     * con scorings chicos (los mayores a unos miles caen en un árbol aparte).
+     */
+    DENSO;
+
+    IndiceScoring crear() {
+        return this == DENSO ? new IndiceScoringDenso() : new IndiceScoringArbol();
+    }
+}
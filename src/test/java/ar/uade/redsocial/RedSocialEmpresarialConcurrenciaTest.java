@@ -0,0 +1,240 @@
+package ar.uade.redsocial;
+
+import ar.uade.redsocial.model.Action;
+import ar.uade.redsocial.model.ActionType;
+import ar.uade.redsocial.model.Cliente;
+import ar.uade.redsocial.model.FollowRequest;
+import ar.uade.redsocial.service.RedSocialEmpresarial;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedSocialEmpresarialConcurrenciaTest {
+
+    private static final int HILOS = 8;
+    private static final int CLIENTES = 400;
+    private static final int SCORING_MAX = 50;
+
+    @Test
+    void testStress_invariantesConEscriturasYLecturasConcurrentes() throws Exception {
+        RedSocialEmpresarial red = new RedSocialEmpresarial();
+        List<String> nombres = new ArrayList<>();
+        for (int i = 0; i < CLIENTES; i++) {
+            nombres.add("C" + i);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS + 2);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        // Altas en paralelo, cada hilo su porción
+        for (int h = 0; h < HILOS; h++) {
+            int hilo = h;
+            tareas.add(pool.submit(() -> {
+                for (int i = hilo; i < CLIENTES; i += HILOS) {
+                    red.agregarCliente(nombres.get(i), i % SCORING_MAX);
+                }
+            }));
+        }
+        esperar(tareas);
+        assertEquals(CLIENTES, red.cantidadClientes());
+
+        // Solicitudes, procesamiento, lecturas y algunos undo mezclados
+        for (int h = 0; h < HILOS; h++) {
+            int hilo = h;
+            tareas.add(pool.submit(() -> {
+                Random random = new Random(hilo);
+                for (int i = 0; i < 2_000; i++) {
+                    String a = nombres.get(random.nextInt(CLIENTES));
+                    String b = nombres.get(random.nextInt(CLIENTES));
+                    try {
+                        if (random.nextBoolean()) {
+                            red.solicitarSeguir(a, b);
+                        } else {
+                            red.procesarSiguienteSolicitud();
+                        }
+                    } catch (IllegalArgumentException | IllegalStateException | NoSuchElementException esperado) {
+                        // duplicados, límite de 2, cola vacía o cliente borrado por undo
+                    }
+                    if (i % 500 == 0) {
+                        try {
+                            red.undo();
+                        } catch (IllegalStateException esperado) {
+                            // REQUEST ya procesada: no está en la cola
+                        }
+                    }
+                }
+            }));
+        }
+        tareas.add(pool.submit(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                for (Cliente c : red.buscarPorScoringEntre(0, SCORING_MAX)) {
+                    assertNotNull(c);
+                    assertTrue(c.getSiguiendo().size() <= 2);
+                }
+            }
+        }));
+        // Llena la cache de recomendaciones mientras cambian las relaciones
+        tareas.add(pool.submit(() -> {
+            Random random = new Random(-1);
+            for (int i = 0; i < 20_000; i++) {
+                try {
+                    red.recomendarA(nombres.get(random.nextInt(CLIENTES)), 3);
+                } catch (IllegalArgumentException esperado) {
+                    // cliente borrado por undo
+                }
+            }
+        }));
+        esperar(tareas);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Sin pendientes, lo recomendado (aunque venga de la cache) es exactamente lo calculable
+        red.procesarTodasLasSolicitudes();
+
+        verificarInvariantes(red, nombres);
+    }
+
+    @Test
+    void testProcesamientoParalelo_clientesDisjuntos() throws Exception {
+        RedSocialEmpresarial red = new RedSocialEmpresarial();
+        for (int i = 0; i < CLIENTES; i++) {
+            red.agregarCliente("C" + i, i % SCORING_MAX);
+        }
+        for (int i = 0; i < CLIENTES; i++) {
+            red.solicitarSeguir("C" + i, "C" + ((i + 1) % CLIENTES));
+            red.solicitarSeguir("C" + i, "C" + ((i + 2) % CLIENTES));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            tareas.add(pool.submit(() -> {
+                for (int i = 0; i < CLIENTES * 2 / HILOS; i++) {
+                    red.procesarSiguienteSolicitud();
+                }
+            }));
+        }
+        esperar(tareas);
+        pool.shutdown();
+
+        assertEquals(0, red.cantidadSolicitudesPendientes());
+        for (int i = 0; i < CLIENTES; i++) {
+            assertEquals(2, red.buscarPorNombre("C" + i).getSiguiendo().size());
+            assertEquals(2, red.cantidadSeguidores("C" + i));
+        }
+    }
+
+    @Test
+    void testSolicitudConcurrenteConAlta_quedaArribaDelAltaEnLaPila() throws Exception {
+        RedSocialEmpresarial red = new RedSocialEmpresarial();
+        red.agregarCliente("Y", 1);
+        int altas = 2_000;
+
+        // Cada solicitud Y -> Xi entra apenas Xi es visible, mientras el alta puede seguir en curso
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        List<Future<?>> tareas = new ArrayList<>();
+        tareas.add(pool.submit(() -> {
+            for (int i = 0; i < altas; i++) {
+                red.agregarCliente("X" + i, i % SCORING_MAX);
+            }
+        }));
+        tareas.add(pool.submit(() -> {
+            for (int i = 0; i < altas; i++) {
+                while (red.buscarPorNombre("X" + i) == null) {
+                    Thread.onSpinWait();
+                }
+                red.solicitarSeguir("Y", "X" + i);
+            }
+        }));
+        esperar(tareas);
+        pool.shutdown();
+
+        // Deshacer todo: ninguna solicitud puede salir de la pila después del alta de su objetivo
+        Set<String> deshechos = new HashSet<>();
+        Optional<Action> accion;
+        while ((accion = red.undo()).isPresent()) {
+            Action a = accion.get();
+            if (a.type() == ActionType.ADD_CLIENT) {
+                deshechos.add(a.detalle());
+            } else {
+                FollowRequest req = (FollowRequest) a.payload();
+                assertFalse(deshechos.contains(req.objetivo()), "solicitud debajo del alta de " + req.objetivo());
+            }
+        }
+        assertEquals(0, red.cantidadClientes());
+        assertEquals(0, red.cantidadSolicitudesPendientes());
+    }
+
+    private static void verificarInvariantes(RedSocialEmpresarial red, List<String> nombres) {
+        List<Cliente> existentes = new ArrayList<>();
+        for (String nombre : nombres) {
+            Cliente c = red.buscarPorNombre(nombre);
+            if (c != null) existentes.add(c);
+        }
+        assertEquals(existentes.size(), red.cantidadClientes());
+
+        // Índice por scoring consistente con el mapa principal
+        assertEquals(existentes.size(), red.buscarPorScoringEntre(0, SCORING_MAX).size());
+        assertEquals(existentes.size(), red.contarPorScoringEntre(0, SCORING_MAX));
+        for (Cliente c : existentes) {
+            assertTrue(red.buscarPorScoring(c.getScoring()).contains(c));
+        }
+
+        // Recomendaciones (cacheadas o no) = seguidos de los seguidos, sin pendientes
+        for (Cliente c : existentes) {
+            Set<String> esperadas = new HashSet<>();
+            for (String seguido : c.getSiguiendo()) {
+                for (String candidato : red.buscarPorNombre(seguido).getSiguiendo()) {
+                    if (!candidato.equals(c.getNombre()) && !c.getSiguiendo().contains(candidato)) {
+                        esperadas.add(candidato);
+                    }
+                }
+            }
+            Set<String> recomendadas = new HashSet<>();
+            red.recomendarA(c.getNombre(), Integer.MAX_VALUE).forEach(r -> recomendadas.add(r.getNombre()));
+            assertEquals(esperadas, recomendadas, "recomendaciones de " + c.getNombre());
+        }
+
+        // Máximo 2 seguidos, seguidos existentes y contador de seguidores exacto
+        for (Cliente c : existentes) {
+            assertTrue(c.getSiguiendo().size() <= 2, c.getNombre() + " sigue a más de 2");
+            for (String seguido : c.getSiguiendo()) {
+                assertNotNull(red.buscarPorNombre(seguido));
+            }
+        }
+        for (Cliente objetivo : existentes) {
+            long seguidores = existentes.stream()
+                    .filter(c -> c.getSiguiendo().contains(objetivo.getNombre()))
+                    .count();
+            assertEquals(seguidores, red.cantidadSeguidores(objetivo.getNombre()));
+        }
+
+        // Ranking de seguidores: cada cliente seguido aparece una vez, en orden
+        List<Cliente> ranking = red.topPorSeguidores(Integer.MAX_VALUE);
+        assertEquals(existentes.stream().filter(c -> red.cantidadSeguidores(c.getNombre()) > 0).count(),
+                ranking.size());
+        for (int i = 1; i < ranking.size(); i++) {
+            assertTrue(red.cantidadSeguidores(ranking.get(i - 1).getNombre())
+                    >= red.cantidadSeguidores(ranking.get(i).getNombre()));
+        }
+    }
+
+    private static void esperar(List<Future<?>> tareas) throws Exception {
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        tareas.clear();
+    }
+}
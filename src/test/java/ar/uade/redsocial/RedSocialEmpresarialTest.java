@@ -1,16 +1,50 @@
 package ar.uade.redsocial;
 
 import ar.uade.redsocial.model.Action;
+import ar.uade.redsocial.model.ActionType;
 import ar.uade.redsocial.model.Cliente;
+import ar.uade.redsocial.model.FabricaClientes;
 import ar.uade.redsocial.model.FollowRequest;
+import ar.uade.redsocial.model.ObservadorRelaciones;
+import ar.uade.redsocial.service.ConexionAlcanzada;
+import ar.uade.redsocial.service.EstadisticasCache;
+import ar.uade.redsocial.service.EventoCambio;
+import ar.uade.redsocial.service.FeedCambios;
+import ar.uade.redsocial.service.HistogramaLatencias;
+import ar.uade.redsocial.service.Indicador;
+import ar.uade.redsocial.service.IngresoSolicitudes;
+import ar.uade.redsocial.service.LimiteHistorial;
+import ar.uade.redsocial.service.MetricasEnMemoria;
+import ar.uade.redsocial.service.Operacion;
+import ar.uade.redsocial.service.PaginaClientes;
+import ar.uade.redsocial.service.PoliticaSync;
 import ar.uade.redsocial.service.RedSocialEmpresarial;
+import ar.uade.redsocial.service.RedSocialParticionada;
+import ar.uade.redsocial.service.RegistroMetricas;
+import ar.uade.redsocial.service.ResultadoLote;
+import ar.uade.redsocial.service.TipoIndiceScoring;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -73,6 +107,39 @@ class RedSocialEmpresarialTest {
         Files.deleteIfExists(tempFile);
     }
 
+    @Test
+    void testLoadFromJson_errorAlFinal_dejaLosClientesAnteriores() throws Exception {
+        String jsonContent = """
+            {
+              "clientes": [
+                { "nombre": "A", "scoring": 1, "siguiendo": ["B"] },
+                { "nombre": "B", "scoring": 2 },
+                { "nombre": "C", "scoring": 3 } ... error
+              ]
+            }
+            """;
+        Path tempFile = Files.createTempFile("data_tarde", ".json");
+        Files.writeString(tempFile, jsonContent);
+
+        // Streaming: no es atómica, los clientes ya leídos quedan (sin seguimientos)
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> red.loadFromJson(tempFile.toString()));
+        assertEquals("JSON inválido o mal formateado", ex.getMessage());
+        assertEquals(3, red.cantidadClientes());
+        assertTrue(red.buscarPorNombre("A").getSiguiendo().isEmpty());
+
+        // La carga paralela sí es atómica
+        RedSocialEmpresarial otra = new RedSocialEmpresarial();
+        assertThrows(IllegalArgumentException.class, () -> otra.loadFromJsonParalelo(tempFile.toString()));
+        assertEquals(0, otra.cantidadClientes());
+
+        // Los errores de datos llegan con su propio mensaje
+        Files.writeString(tempFile, "{ \"clientes\": [ { \"nombre\": \"A\", \"scoring\": 1 } ] }");
+        ex = assertThrows(IllegalArgumentException.class, () -> red.loadFromJson(tempFile.toString()));
+        assertEquals("Cliente duplicado en JSON: A", ex.getMessage());
+        Files.deleteIfExists(tempFile);
+    }
+
     @Test
     void testLoadFromJson_duplicados_falla() throws Exception {
         String jsonContent = """
@@ -102,6 +169,494 @@ class RedSocialEmpresarialTest {
         Files.deleteIfExists(tempFile);
     }
 
+    @Test
+    void testLoadFromJson_reglasDeSiguiendo_fallan() throws Exception {
+        String[] casos = {
+            "{ \"clientes\": [ { \"nombre\": \"A\", \"siguiendo\": [\"B\", \"C\", \"D\"] } ] }",
+            "{ \"clientes\": [ { \"nombre\": \"A\", \"siguiendo\": [\"A\"] } ] }",
+            "{ \"clientes\": [ { \"nombre\": \"A\", \"siguiendo\": [\"Fantasma\"] } ] }",
+            "{ \"clientes\": [ { \"nombre\": \"A\" }, null ] }"
+        };
+        String[] mensajes = { "más de 2 seguidos", "seguirse a sí mismo", "inexistente", "null" };
+
+        for (int i = 0; i < casos.length; i++) {
+            Path tempFile = Files.createTempFile("data_sig", ".json");
+            Files.writeString(tempFile, casos[i]);
+
+            RedSocialEmpresarial nueva = new RedSocialEmpresarial();
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> nueva.loadFromJson(tempFile.toString()));
+            assertTrue(e.getMessage().contains(mensajes[i]), e.getMessage());
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Test
+    void testImportarDelta_aplicaSoloLasDiferencias() throws Exception {
+        for (boolean compacta : new boolean[] { false, true }) {
+            RedSocialEmpresarial r = new RedSocialEmpresarial(compacta);
+            r.agregarCliente("A", 10);
+            r.agregarCliente("B", 20);
+            r.agregarCliente("C", 30);
+            r.agregarCliente("D", 5);
+            r.solicitarSeguir("A", "B");
+            r.solicitarSeguir("A", "C");
+            r.solicitarSeguir("B", "C");
+            r.solicitarSeguir("D", "A");
+            r.procesarTodasLasSolicitudes();
+            r.activarCacheDeRangos(8);
+            assertEquals(List.of("D", "A"), nombres(r.buscarPorScoringEntre(0, 15)));
+            assertEquals(List.of("C", "B"), nombres(r.recomendarA("D", 5)));
+
+            Path delta = Files.createTempFile("delta", ".json");
+            Files.writeString(delta, """
+                {
+                  "altas": [ { "nombre": "E", "scoring": 7, "siguiendo": ["C"] } ],
+                  "scorings": [ { "nombre": "B", "scoring": 50 }, { "nombre": "A", "scoring": 12 } ],
+                  "dejarDeSeguir": [ { "solicitante": "A", "objetivo": "C" } ],
+                  "seguir": [ { "solicitante": "A", "objetivo": "E" }, { "solicitante": "D", "objetivo": "C" } ]
+                }
+                """);
+            r.importarDelta(delta.toString());
+
+            assertEquals(5, r.cantidadClientes());
+            assertEquals(Set.of("B", "E"), r.buscarPorNombre("A").getSiguiendo());
+            assertEquals(3, r.cantidadSeguidores("C"));
+            assertEquals(List.of("D", "E", "A"), nombres(r.buscarPorScoringEntre(0, 15)));
+            assertEquals(List.of("B"), nombres(r.buscarPorScoring(50)));
+            assertTrue(r.buscarPorScoring(20).isEmpty());
+            assertEquals(1, r.posicionPorScoring("B"));
+            assertEquals(List.of("B", "E"), nombres(r.recomendarA("D", 5)));
+            assertEquals(List.of("E"), nombres(r.buscarPorPrefijo("E", 5)));
+
+            // Sólo un cambio de scoring: invalida las recomendaciones a dos saltos
+            Files.writeString(delta, "{ \"scorings\": [ { \"nombre\": \"E\", \"scoring\": 100 } ] }");
+            r.importarDelta(delta.toString());
+            assertEquals(List.of("E", "B"), nombres(r.recomendarA("D", 5)));
+            assertEquals(List.of("D", "A"), nombres(r.buscarPorScoringEntre(0, 15)));
+
+            // Atómico: A quedaría con 3 seguidos; ni la alta ni el scoring se aplican
+            Files.writeString(delta, """
+                {
+                  "altas": [ { "nombre": "F", "scoring": 1 } ],
+                  "scorings": [ { "nombre": "C", "scoring": 0 } ],
+                  "seguir": [ { "solicitante": "A", "objetivo": "F" } ]
+                }
+                """);
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> r.importarDelta(delta.toString()));
+            assertTrue(ex.getMessage().contains("más de 2"));
+            assertNull(r.buscarPorNombre("F"));
+            assertEquals(30, r.buscarPorNombre("C").getScoring());
+            assertEquals(Set.of("B", "E"), r.buscarPorNombre("A").getSiguiendo());
+
+            Files.writeString(delta, "{ \"dejarDeSeguir\": [ { \"solicitante\": \"D\", \"objetivo\": \"B\" } ] }");
+            assertThrows(IllegalArgumentException.class, () -> r.importarDelta(delta.toString()));
+            Files.writeString(delta, "{ \"altas\": [ { \"nombre\": \"A\", \"scoring\": 1 } ] }");
+            assertThrows(IllegalArgumentException.class, () -> r.importarDelta(delta.toString()));
+
+            // No entra al historial (4 altas, 4 solicitudes y el lote)
+            assertEquals(9, r.cantidadAccionesEnHistorial());
+            Files.deleteIfExists(delta);
+        }
+    }
+
+    @Test
+    void testUndoMultipleYSavepoints() {
+        for (boolean compacta : new boolean[] { false, true }) {
+            RedSocialEmpresarial r = new RedSocialEmpresarial(compacta);
+            r.agregarCliente("A", 10);
+            r.agregarCliente("B", 20);
+            r.solicitarSeguir("A", "B");
+            r.procesarTodasLasSolicitudes();
+            long sp = r.savepoint();
+
+            r.agregarCliente("C", 30);
+            r.agregarCliente("D", 5);
+            r.solicitarSeguir("C", "A");
+            r.solicitarSeguir("D", "A");
+            r.solicitarSeguir("B", "C");
+            r.procesarTodasLasSolicitudes();
+            r.solicitarSeguir("A", "C");
+            r.agregarCliente("E", 7);
+            assertEquals(12, r.cantidadAccionesEnHistorial());
+
+            List<Action> deshechas = r.rollbackTo(sp);
+            assertEquals(8, deshechas.size());
+            assertEquals("E", deshechas.get(0).detalle());
+            assertEquals(ActionType.REQUEST_FOLLOW, deshechas.get(1).type());
+            assertEquals("C", deshechas.get(7).detalle());
+
+            // Mismo estado que antes del savepoint
+            assertEquals(2, r.cantidadClientes());
+            assertEquals(Set.of("B"), r.buscarPorNombre("A").getSiguiendo());
+            assertTrue(r.buscarPorNombre("B").getSiguiendo().isEmpty());
+            assertEquals(0, r.cantidadSeguidores("A"));
+            assertEquals(1, r.cantidadSeguidores("B"));
+            assertEquals(0, r.cantidadSolicitudesPendientes());
+            assertEquals(4, r.cantidadAccionesEnHistorial());
+            assertEquals(List.of("A", "B"), nombres(r.buscarPorScoringEntre(0, 100)));
+            assertEquals(List.of("A", "B"), nombres(r.buscarPorPrefijo("", 10)));
+
+            // Los nombres vuelven a estar libres
+            r.agregarCliente("C", 1);
+            r.solicitarSeguir("C", "A");
+            r.procesarTodasLasSolicitudes();
+            assertEquals(1, r.cantidadSeguidores("A"));
+
+            // Sigue válido mientras no se deshaga por debajo de él
+            assertEquals(3, r.rollbackTo(sp).size());
+            assertTrue(r.rollbackTo(sp).isEmpty());
+            assertEquals(1, r.undo(1).size());
+            assertThrows(IllegalArgumentException.class, () -> r.rollbackTo(sp));
+            assertThrows(IllegalArgumentException.class, () -> r.undo(-1));
+
+            assertEquals(3, r.undo(100).size());
+            assertEquals(0, r.cantidadClientes());
+            assertTrue(r.undo(5).isEmpty());
+
+            // Acciones posteriores al savepoint descartadas por el límite del historial
+            RedSocialEmpresarial acotada = new RedSocialEmpresarial(compacta, LimiteHistorial.porCantidad(3));
+            long marca = acotada.savepoint();
+            for (int i = 0; i < 4; i++) {
+                acotada.agregarCliente("X" + i, i);
+            }
+            assertThrows(IllegalStateException.class, () -> acotada.rollbackTo(marca));
+            assertEquals(3, acotada.undo(3).size());
+            assertEquals(List.of("X0"), nombres(acotada.buscarPorScoringEntre(0, 10)));
+        }
+    }
+
+    @Test
+    void testExportarJson_idaYVueltaConLoadFromJson() throws Exception {
+        for (boolean compacta : new boolean[] { false, true }) {
+            RedSocialEmpresarial r = new RedSocialEmpresarial(compacta);
+            for (int i = 0; i < 50; i++) {
+                r.agregarCliente("C" + i, i % 7);
+            }
+            r.agregarCliente("Ñandú \"comillas\"", 3);
+            for (int i = 0; i < 50; i++) {
+                r.solicitarSeguir("C" + i, "C" + (i + 1) % 50);
+                if (i % 3 == 0) r.solicitarSeguir("C" + i, "Ñandú \"comillas\"");
+            }
+            r.procesarTodasLasSolicitudes();
+            r.buscarPorNombre("C1").agregarConexion("C2");
+            r.buscarPorNombre("C1").agregarConexion("C9");
+            r.solicitarSeguir("C4", "C8");
+            r.solicitarSeguir("C2", "C0");
+
+            for (boolean comprimir : new boolean[] { false, true }) {
+                Path archivo = Files.createTempFile("export", comprimir ? ".json.gz" : ".json");
+                r.exportarJson(archivo.toString(), true, comprimir);
+                byte[] bytes = Files.readAllBytes(archivo);
+                assertEquals(comprimir, (bytes[0] & 0xff) == 0x1f && (bytes[1] & 0xff) == 0x8b);
+
+                // La carga paralela lee las mismas secciones que la secuencial
+                for (boolean paralela : new boolean[] { false, true }) {
+                    RedSocialEmpresarial copia = new RedSocialEmpresarial(compacta);
+                    if (paralela) {
+                        copia.loadFromJsonParalelo(archivo.toString(), 4);
+                    } else {
+                        copia.loadFromJson(archivo.toString());
+                    }
+                    assertEquals(r.cantidadClientes(), copia.cantidadClientes());
+                    for (Cliente c : r.buscarPorScoringEntre(0, 10)) {
+                        Cliente otro = copia.buscarPorNombre(c.getNombre());
+                        assertEquals(c.getScoring(), otro.getScoring());
+                        assertEquals(c.getSiguiendo(), otro.getSiguiendo());
+                        assertEquals(c.getConexiones(), otro.getConexiones());
+                        assertEquals(r.cantidadSeguidores(c.getNombre()), copia.cantidadSeguidores(c.getNombre()));
+                    }
+                    assertEquals(0, copia.cantidadAccionesEnHistorial());
+
+                    // La cola vuelve en el mismo orden FIFO
+                    assertEquals(2, copia.cantidadSolicitudesPendientes());
+                    List<FollowRequest> aplicadas = copia.procesarTodasLasSolicitudes().aplicadas();
+                    assertEquals(List.of("C4", "C2"), aplicadas.stream().map(FollowRequest::solicitante).toList());
+                }
+
+                Files.deleteIfExists(archivo);
+            }
+
+            // Sin la cola, a un Writer cualquiera
+            StringWriter destino = new StringWriter();
+            r.exportarJson(destino, false);
+            assertTrue(destino.toString().startsWith("{\"clientes\":[{"));
+            assertFalse(destino.toString().contains("solicitudesPendientes"));
+            Path archivo = Files.createTempFile("export", ".json");
+            Files.writeString(archivo, destino.toString());
+            RedSocialEmpresarial sinCola = new RedSocialEmpresarial(compacta);
+            sinCola.loadFromJson(archivo.toString());
+            assertEquals(51, sinCola.cantidadClientes());
+            assertEquals(0, sinCola.cantidadSolicitudesPendientes());
+
+            // Solicitud pendiente o conexión que no corresponde: mismo error en las dos cargas
+            for (String invalido : List.of("""
+                    { "clientes": [ { "nombre": "A", "scoring": 1 } ],
+                      "solicitudesPendientes": [ { "solicitante": "A", "objetivo": "B" } ] }
+                    """, """
+                    { "clientes": [ { "nombre": "A", "scoring": 1, "conexiones": ["A"] } ] }
+                    """)) {
+                Files.writeString(archivo, invalido);
+                IllegalArgumentException secuencial = assertThrows(IllegalArgumentException.class,
+                        () -> new RedSocialEmpresarial(compacta).loadFromJson(archivo.toString()));
+                RedSocialEmpresarial paralela = new RedSocialEmpresarial(compacta);
+                IllegalArgumentException enParalelo = assertThrows(IllegalArgumentException.class,
+                        () -> paralela.loadFromJsonParalelo(archivo.toString(), 4));
+                assertEquals(secuencial.getMessage(), enParalelo.getMessage());
+                assertEquals(0, paralela.cantidadClientes());
+            }
+            Files.deleteIfExists(archivo);
+        }
+    }
+
+    @Test
+    void testLoadFromJsonParalelo_mismoResultadoQueSecuencial() throws Exception {
+        StringBuilder json = new StringBuilder("{ \"clientes\": [");
+        int n = 5_000;
+        for (int i = 0; i < n; i++) {
+            if (i > 0) json.append(',');
+            json.append("{ \"nombre\": \"C").append(i).append("\", \"scoring\": ").append(i % 37)
+                .append(", \"siguiendo\": [\"C").append((i + 1) % n).append("\", \"C").append((i + 3) % n).append("\"] }");
+        }
+        json.append("] }");
+        Path tempFile = Files.createTempFile("data_par", ".json");
+        Files.writeString(tempFile, json.toString());
+
+        RedSocialEmpresarial secuencial = new RedSocialEmpresarial();
+        secuencial.loadFromJson(tempFile.toString());
+        red.loadFromJsonParalelo(tempFile.toString(), 4);
+
+        assertEquals(n, red.cantidadClientes());
+        for (int s = 0; s < 37; s++) {
+            assertEquals(secuencial.buscarPorScoring(s).size(), red.buscarPorScoring(s).size());
+        }
+        for (int i = 0; i < n; i++) {
+            String nombre = "C" + i;
+            assertEquals(secuencial.buscarPorNombre(nombre).getSiguiendo(), red.buscarPorNombre(nombre).getSiguiendo());
+            assertEquals(2, red.cantidadSeguidores(nombre));
+        }
+        assertTrue(red.undo().isEmpty(), "La carga JSON no debe registrar historial");
+        Files.deleteIfExists(tempFile);
+    }
+
+    @Test
+    void testLoadFromJsonParalelo_errorEsAtomicoYConMismoMensaje() throws Exception {
+        String jsonContent = """
+            {
+              "clientes": [
+                { "nombre": "A", "scoring": 10, "siguiendo": ["B"] },
+                { "nombre": "B", "scoring": 20, "siguiendo": ["Fantasma"] },
+                { "nombre": "C", "scoring": 30, "siguiendo": ["A", "B", "C"] }
+              ]
+            }
+            """;
+        Path tempFile = Files.createTempFile("data_par_err", ".json");
+        Files.writeString(tempFile, jsonContent);
+
+        IllegalArgumentException secuencial = assertThrows(IllegalArgumentException.class,
+                () -> new RedSocialEmpresarial().loadFromJson(tempFile.toString()));
+        IllegalArgumentException paralelo = assertThrows(IllegalArgumentException.class,
+                () -> red.loadFromJsonParalelo(tempFile.toString(), 4));
+
+        assertEquals(secuencial.getMessage(), paralelo.getMessage());
+        assertEquals(0, red.cantidadClientes(), "Una carga fallida no deja clientes a medias");
+        Files.deleteIfExists(tempFile);
+    }
+
+    // ---------------- TEST SNAPSHOT BINARIO ----------------
+
+    @Test
+    void testSnapshot_roundTrip() throws Exception {
+        red.agregarCliente("Ana", 90);
+        red.agregarCliente("Beto", 40);
+        red.agregarCliente("Ñandú", 40);
+        red.solicitarSeguir("Ana", "Beto");
+        red.procesarSiguienteSolicitud();
+        red.solicitarSeguir("Beto", "Ñandú");
+        red.buscarPorNombre("Ana").agregarConexion("Ñandú");
+
+        Path tempFile = Files.createTempFile("red", ".snap");
+        red.guardarSnapshot(tempFile.toString());
+        // Se escribe al lado y se mueve sobre el archivo existente
+        assertFalse(Files.exists(Path.of(tempFile + ".tmp")));
+
+        for (boolean compacta : new boolean[] { false, true }) {
+            RedSocialEmpresarial copia = new RedSocialEmpresarial(compacta);
+            copia.cargarSnapshot(tempFile.toString());
+
+            assertEquals(3, copia.cantidadClientes());
+            for (String nombre : List.of("Ana", "Beto", "Ñandú")) {
+                Cliente original = red.buscarPorNombre(nombre);
+                Cliente cargado = copia.buscarPorNombre(nombre);
+                assertEquals(original.getScoring(), cargado.getScoring());
+                assertEquals(original.getSiguiendo(), cargado.getSiguiendo());
+                assertEquals(original.getConexiones(), cargado.getConexiones());
+                assertEquals(red.cantidadSeguidores(nombre), copia.cantidadSeguidores(nombre));
+            }
+            assertEquals(2, copia.buscarPorScoring(40).size());
+
+            // La solicitud pendiente se conserva (misma fecha) y se procesa
+            assertEquals(1, copia.cantidadSolicitudesPendientes());
+            FollowRequest pendiente = copia.procesarSiguienteSolicitud();
+            assertEquals("Beto", pendiente.solicitante());
+            assertEquals("Ñandú", pendiente.objetivo());
+            assertTrue(copia.buscarPorNombre("Beto").getSiguiendo().contains("Ñandú"));
+
+            assertTrue(copia.undo().map(a -> a.detalle().contains("Beto -> Ñandú")).orElse(false),
+                    "La carga del snapshot no registra historial");
+            assertTrue(copia.undo().isEmpty());
+        }
+        Files.deleteIfExists(tempFile);
+    }
+
+    @Test
+    void testSnapshot_archivoInvalido_falla() throws Exception {
+        Path tempFile = Files.createTempFile("basura", ".snap");
+        Files.writeString(tempFile, "no es un snapshot");
+
+        assertThrows(IllegalArgumentException.class, () -> red.cargarSnapshot(tempFile.toString()));
+        Files.deleteIfExists(tempFile);
+    }
+
+    @Test
+    void testSnapshot_seguimientosInvalidos_falla() throws Exception {
+        // A y B; A sigue a: sí mismo / B dos veces / B, B y A (tres)
+        int[][] seguidosDeA = { { 0 }, { 1, 1 }, { 1, 1, 0 } };
+        Path tempFile = Files.createTempFile("red_invalida", ".snap");
+        for (int[] seguidos : seguidosDeA) {
+            java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(128);
+            buffer.putInt(0x52534531).putShort((short) 1);
+            buffer.putInt(2);
+            for (String nombre : List.of("A", "B")) {
+                buffer.putInt(1).put(nombre.getBytes()).putInt(10);
+            }
+            buffer.put((byte) seguidos.length);
+            for (int id : seguidos) buffer.putInt(id);
+            buffer.put((byte) 0);               // B no sigue a nadie
+            buffer.putInt(0).putInt(0);         // sin conexiones
+            buffer.putInt(0);                   // sin pendientes
+            Files.write(tempFile, java.util.Arrays.copyOf(buffer.array(), buffer.position()));
+
+            for (boolean compacta : new boolean[] { false, true }) {
+                RedSocialEmpresarial r = new RedSocialEmpresarial(compacta);
+                assertThrows(IllegalArgumentException.class, () -> r.cargarSnapshot(tempFile.toString()));
+                assertTrue(r.buscarPorNombre("A").getSiguiendo().size() <= 2);
+                assertFalse(r.buscarPorNombre("A").getSiguiendo().contains("A"));
+            }
+        }
+        Files.deleteIfExists(tempFile);
+    }
+
+    @Test
+    void testRegistro_recuperaSobreSnapshot() throws Exception {
+        Path snap = Files.createTempFile("red", ".snap");
+        Path wal = Files.createTempFile("red", ".wal");
+
+        red.agregarCliente("A", 10);
+        red.agregarCliente("B", 20);
+        red.activarRegistro(wal.toString(), PoliticaSync.porLote(4));
+        red.guardarSnapshot(snap.toString());
+
+        red.agregarCliente("C", 30);
+        red.agregarCliente("D", 30);
+        red.solicitarSeguir("C", "A");
+        red.procesarSiguienteSolicitud();
+        red.solicitarSeguir("D", "B");
+        red.solicitarSeguir("A", "B");
+        red.undo(); // compensa la solicitud A -> B
+        red.agregarCliente("E", 5);
+        red.undo(); // compensa el alta de E
+        red.cerrarRegistro();
+
+        // Escritura interrumpida: la entrada final incompleta se descarta
+        Files.write(wal, new byte[] { 0, 0, 0, 40, 1, 2 }, java.nio.file.StandardOpenOption.APPEND);
+
+        RedSocialEmpresarial recuperada = new RedSocialEmpresarial(true);
+        recuperada.cargarSnapshot(snap.toString());
+        assertEquals(9, recuperada.recuperarDesdeRegistro(wal.toString()));
+
+        assertEquals(4, recuperada.cantidadClientes());
+        assertNull(recuperada.buscarPorNombre("E"));
+        assertEquals(Set.of("A"), recuperada.buscarPorNombre("C").getSiguiendo());
+        assertEquals(1, recuperada.cantidadSeguidores("A"));
+        assertEquals(1, recuperada.cantidadSolicitudesPendientes());
+        assertEquals("D", recuperada.procesarSiguienteSolicitud().solicitante());
+
+        // El historial también se reconstruye
+        assertEquals("D -> B", recuperada.undo().map(Action::detalle).orElse(null));
+        assertTrue(recuperada.buscarPorNombre("D").getSiguiendo().isEmpty());
+        assertEquals(0, recuperada.cantidadSeguidores("B"));
+
+        Files.deleteIfExists(snap);
+        Files.deleteIfExists(wal);
+    }
+
+    @Test
+    void testRegistro_snapshotHaceCheckpoint() throws Exception {
+        Path snap = Files.createTempFile("red", ".snap");
+        Path wal = Files.createTempFile("red", ".wal");
+
+        red.activarRegistro(wal.toString(), PoliticaSync.porOperacion());
+        red.agregarCliente("A", 10);
+        red.agregarCliente("B", 20);
+        red.guardarSnapshot(snap.toString());
+
+        // Las acciones anteriores al snapshot ya no se pueden deshacer
+        assertTrue(red.undo().isEmpty());
+        red.cerrarRegistro();
+
+        RedSocialEmpresarial recuperada = new RedSocialEmpresarial();
+        recuperada.cargarSnapshot(snap.toString());
+        assertEquals(0, recuperada.recuperarDesdeRegistro(wal.toString()));
+        assertNotNull(recuperada.buscarPorNombre("B"));
+
+        Files.deleteIfExists(snap);
+        Files.deleteIfExists(wal);
+    }
+
+    // ---------------- TEST HISTORIAL ACOTADO ----------------
+
+    @Test
+    void testHistorialAcotado_descartaLasMasAntiguas() {
+        RedSocialEmpresarial acotada = new RedSocialEmpresarial(false, LimiteHistorial.porCantidad(3));
+        acotada.agregarCliente("A", 10);
+        acotada.agregarCliente("B", 20);
+        acotada.agregarCliente("C", 30);
+        acotada.solicitarSeguir("A", "B");
+        assertEquals(3, acotada.cantidadAccionesEnHistorial());
+
+        // Dentro de la ventana, undo se comporta igual (detalle y payload reconstruidos)
+        Action solicitud = acotada.undo().orElseThrow();
+        assertEquals(ActionType.REQUEST_FOLLOW, solicitud.type());
+        assertEquals("A -> B", solicitud.detalle());
+        assertInstanceOf(FollowRequest.class, solicitud.payload());
+        assertEquals(0, acotada.cantidadSolicitudesPendientes());
+
+        Action alta = acotada.undo().orElseThrow();
+        assertEquals(ActionType.ADD_CLIENT, alta.type());
+        assertEquals("C", alta.detalle());
+        assertInstanceOf(Cliente.class, alta.payload());
+        assertNull(acotada.buscarPorNombre("C"));
+
+        assertEquals("B", acotada.undo().map(Action::detalle).orElse(null));
+
+        // El alta de A quedó fuera de la capacidad
+        assertTrue(acotada.undo().isEmpty());
+        assertNotNull(acotada.buscarPorNombre("A"));
+    }
+
+    @Test
+    void testCheckpoint_descartaHistorial() {
+        red.agregarCliente("A", 10);
+        red.agregarCliente("B", 20);
+        assertEquals(2, red.checkpoint());
+
+        red.agregarCliente("C", 30);
+        assertEquals("C", red.undo().map(Action::detalle).orElse(null));
+        assertTrue(red.undo().isEmpty());
+        assertEquals(2, red.cantidadClientes());
+    }
+
     // ---------------- TEST FIFO & UNDO REQUEST ----------------
 
     @Test
@@ -123,6 +678,115 @@ class RedSocialEmpresarialTest {
         assertEquals("A", req2.objetivo());
     }
 
+    @Test
+    void testProcesarSolicitudes_loteConRechazosYUndoCompuesto() {
+        red.agregarCliente("A", 10);
+        red.agregarCliente("B", 20);
+        red.agregarCliente("C", 30);
+        red.agregarCliente("D", 40);
+        red.solicitarSeguir("A", "B");
+        red.solicitarSeguir("A", "C");
+        red.solicitarSeguir("A", "D"); // supera el límite de 2
+        red.solicitarSeguir("B", "C");
+        red.solicitarSeguir("C", "D");
+
+        ResultadoLote parcial = red.procesarSolicitudes(4);
+        assertEquals(3, parcial.aplicadas().size());
+        assertEquals(1, parcial.rechazadas().size());
+        assertEquals("D", parcial.rechazadas().get(0).request().objetivo());
+        assertTrue(parcial.rechazadas().get(0).motivo().contains("límite"));
+        assertEquals(1, red.cantidadSolicitudesPendientes());
+
+        ResultadoLote resto = red.procesarTodasLasSolicitudes();
+        assertEquals(1, resto.aplicadas().size());
+        assertEquals(0, red.cantidadSolicitudesPendientes());
+        assertEquals(0, red.procesarTodasLasSolicitudes().procesadas());
+
+        // Cada lote es una sola acción en el historial
+        Action ultimo = red.undo().orElseThrow();
+        assertEquals(ActionType.PROCESS_FOLLOW_BATCH, ultimo.type());
+        assertTrue(red.buscarPorNombre("C").getSiguiendo().isEmpty());
+
+        red.undo();
+        assertTrue(red.buscarPorNombre("A").getSiguiendo().isEmpty());
+        assertTrue(red.buscarPorNombre("B").getSiguiendo().isEmpty());
+        assertEquals(0, red.cantidadSeguidores("C"));
+    }
+
+    @Test
+    void testRegistro_recuperaLote() throws Exception {
+        Path wal = Files.createTempFile("red", ".wal");
+        red.activarRegistro(wal.toString(), PoliticaSync.porOperacion());
+        red.agregarCliente("A", 10);
+        red.agregarCliente("B", 20);
+        red.agregarCliente("C", 30);
+        red.solicitarSeguir("A", "B");
+        red.solicitarSeguir("B", "A");
+        red.solicitarSeguir("C", "A");
+        red.procesarSolicitudes(2);
+        red.procesarTodasLasSolicitudes();
+        red.undo(); // deshace el segundo lote (C -> A)
+        red.cerrarRegistro();
+
+        RedSocialEmpresarial recuperada = new RedSocialEmpresarial();
+        recuperada.recuperarDesdeRegistro(wal.toString());
+        assertEquals(Set.of("B"), recuperada.buscarPorNombre("A").getSiguiendo());
+        assertEquals(Set.of("A"), recuperada.buscarPorNombre("B").getSiguiendo());
+        assertTrue(recuperada.buscarPorNombre("C").getSiguiendo().isEmpty());
+        assertEquals(0, recuperada.cantidadSolicitudesPendientes());
+
+        assertEquals(ActionType.PROCESS_FOLLOW_BATCH, recuperada.undo().map(Action::type).orElse(null));
+        assertEquals(0, recuperada.cantidadSeguidores("A"));
+        Files.deleteIfExists(wal);
+    }
+
+    @Test
+    void testRegistro_porLote_loteYDescartesSeHacenDurables() throws Exception {
+        Path wal = Files.createTempFile("red", ".wal");
+        red.activarRegistro(wal.toString(), PoliticaSync.porLote(2));
+        red.agregarCliente("A", 10);          // 1
+        red.agregarCliente("B", 20);          // 2: fsync
+        red.solicitarSeguir("A", "B");        // 3
+        red.solicitarSeguir("B", "A");        // 4: fsync
+        red.procesarSolicitudes(2);           // 5, 6 y FIN_LOTE 7: se confirma sólo el cierre
+        red.solicitarSeguir("A", "B");        // 8
+        assertThrows(IllegalStateException.class,
+                () -> red.procesarSiguienteSolicitud()); // DESCARTE 9: A ya sigue a B
+
+        // Sin cerrar el registro: a lo sumo lote - 1 entradas sin fsync
+        RedSocialEmpresarial recuperada = new RedSocialEmpresarial();
+        assertEquals(9, recuperada.recuperarDesdeRegistro(wal.toString()));
+        assertEquals(Set.of("B"), recuperada.buscarPorNombre("A").getSiguiendo());
+        assertEquals(0, recuperada.cantidadSolicitudesPendientes());
+
+        red.cerrarRegistro();
+        Files.deleteIfExists(wal);
+    }
+
+    @Test
+    void testRegistro_colaCorruptaSeCortaAlReactivar() throws Exception {
+        Path wal = Files.createTempFile("red", ".wal");
+        red.activarRegistro(wal.toString(), PoliticaSync.porOperacion());
+        red.agregarCliente("A", 10);
+        red.agregarCliente("B", 20);
+        red.cerrarRegistro();
+
+        // Caída a mitad de escritura: queda basura al final
+        Files.write(wal, new byte[] { 0, 0, 0, 40, 1, 2 }, java.nio.file.StandardOpenOption.APPEND);
+
+        RedSocialEmpresarial recuperada = new RedSocialEmpresarial();
+        assertEquals(2, recuperada.recuperarDesdeRegistro(wal.toString()));
+        recuperada.activarRegistro(wal.toString(), PoliticaSync.porOperacion());
+        recuperada.agregarCliente("C", 30);
+        recuperada.cerrarRegistro();
+
+        // Lo escrito después de reactivar no queda detrás de la basura
+        RedSocialEmpresarial otra = new RedSocialEmpresarial();
+        assertEquals(3, otra.recuperarDesdeRegistro(wal.toString()));
+        assertNotNull(otra.buscarPorNombre("C"));
+        Files.deleteIfExists(wal);
+    }
+
     @Test
     void testUndo_RequestFollow() {
         red.agregarCliente("A", 10);
@@ -146,6 +810,26 @@ class RedSocialEmpresarialTest {
         assertEquals("B", pending.objetivo());
     }
 
+    @Test
+    void testSolicitarSeguir_duplicadoPendiente_falla() {
+        red.agregarCliente("A", 10);
+        red.agregarCliente("B", 10);
+        red.agregarCliente("C", 10);
+
+        red.solicitarSeguir("A", "B");
+        red.solicitarSeguir("A", "C");
+        assertThrows(IllegalArgumentException.class, () -> red.solicitarSeguir("A", "B"));
+        assertEquals(2, red.cantidadSolicitudesPendientes());
+
+        // Una vez procesada, el mismo par puede volver a pedirse
+        red.procesarSiguienteSolicitud();
+        red.buscarPorNombre("A").dejarDeSeguir("B");
+        red.solicitarSeguir("A", "B");
+
+        assertEquals("C", red.procesarSiguienteSolicitud().objetivo());
+        assertEquals("B", red.procesarSiguienteSolicitud().objetivo());
+    }
+
     // ---------------- TEST UNDO ADD_CLIENT (Cleanup) ----------------
 
     @Test
@@ -189,6 +873,187 @@ class RedSocialEmpresarialTest {
         assertEquals(1, red.buscarPorScoring(200).size()); // B existe
     }
 
+    @Test
+    void testUndo_AddClient_IndiceInversoDeSeguidores() {
+        red.agregarCliente("A", 10);
+        red.agregarCliente("B", 20);
+
+        red.solicitarSeguir("A", "B");
+        red.procesarSiguienteSolicitud();
+        assertEquals(1, red.cantidadSeguidores("B"));
+
+        // Undo PROCESS A -> B descuenta el seguidor
+        red.undo();
+        assertEquals(0, red.cantidadSeguidores("B"));
+        assertFalse(red.buscarPorNombre("A").getSiguiendo().contains("B"));
+
+        // C es seguido por A y B, y C sigue a A
+        red = new RedSocialEmpresarial();
+        red.agregarCliente("A", 10);
+        red.agregarCliente("B", 20);
+        red.agregarCliente("C", 30);
+        red.buscarPorNombre("A").seguirA("C");
+        red.buscarPorNombre("B").seguirA("C");
+        red.buscarPorNombre("C").seguirA("A");
+        assertEquals(2, red.cantidadSeguidores("C"));
+        assertEquals(1, red.cantidadSeguidores("A"));
+
+        red.undo(); // borra C
+
+        assertNull(red.buscarPorNombre("C"));
+        assertFalse(red.buscarPorNombre("A").getSiguiendo().contains("C"));
+        assertFalse(red.buscarPorNombre("B").getSiguiendo().contains("C"));
+        assertEquals(0, red.cantidadSeguidores("A"), "C ya no cuenta como seguidor de A");
+        assertEquals(0, red.cantidadSeguidores("C"));
+    }
+
+    @Test
+    void testCliente_soloSuRedLoDesvinculaOCambiaElScoring() {
+        red.agregarCliente("A", 10);
+        red.agregarCliente("B", 20);
+        Cliente a = red.buscarPorNombre("A");
+
+        FabricaClientes ajena = new FabricaClientes(new ObservadorRelaciones() {
+            @Override
+            public void seguimientoAgregado(String seguidor, String objetivo) { }
+            @Override
+            public void seguimientoRemovido(String seguidor, String objetivo) { }
+            @Override
+            public void conexionAgregada(String origen, String destino) { }
+            @Override
+            public void conexionRemovida(String origen, String destino) { }
+        }, null);
+        assertThrows(IllegalArgumentException.class, () -> ajena.desvincular(a));
+        assertThrows(IllegalArgumentException.class, () -> ajena.cambiarScoring(a, 99));
+        assertEquals(10, a.getScoring());
+        assertEquals(List.of(a), red.buscarPorScoring(10));
+
+        // El índice inverso sigue enterado de los cambios
+        a.seguirA("B");
+        assertEquals(1, red.cantidadSeguidores("B"));
+    }
+
+    // ---------------- TEST MODO COMPACTO ----------------
+
+    @Test
+    void testModoCompacto_relacionesYUndo() {
+        red = new RedSocialEmpresarial(true);
+        red.agregarCliente("A", 10);
+        red.agregarCliente("B", 20);
+        red.agregarCliente("C", 30);
+        red.agregarCliente("D", 40);
+
+        red.solicitarSeguir("A", "B");
+        red.solicitarSeguir("A", "C");
+        red.procesarSiguienteSolicitud();
+        red.procesarSiguienteSolicitud();
+        red.buscarPorNombre("B").agregarConexion("C");
+
+        Cliente a = red.buscarPorNombre("A");
+        assertEquals(2, a.getSiguiendo().size());
+        assertTrue(a.getSiguiendo().containsAll(List.of("B", "C")));
+        assertTrue(red.buscarPorNombre("B").getConexiones().contains("C"));
+        assertEquals(1, red.cantidadSeguidores("C"));
+
+        // Límite de 2 ranuras
+        assertThrows(IllegalStateException.class, () -> a.seguirA("D"));
+        // Sólo se puede relacionar con clientes existentes
+        assertThrows(IllegalArgumentException.class, () -> a.seguirA("Z"));
+
+        // Undo PROCESS A -> C
+        red.undo();
+        assertEquals(Set.of("B"), a.getSiguiendo());
+        assertEquals(0, red.cantidadSeguidores("C"));
+    }
+
+    @Test
+    void testModoCompacto_lecturasSinLockDuranteElCrecimiento() throws Exception {
+        RedSocialEmpresarial compacta = new RedSocialEmpresarial(true);
+        compacta.agregarCliente("A", 1);
+        compacta.agregarCliente("B", 2);
+        Cliente a = compacta.buscarPorNombre("A");
+        a.seguirA("B");
+
+        // Las altas hacen crecer la tabla de nombres y el grafo varias veces
+        AtomicBoolean terminar = new AtomicBoolean();
+        AtomicInteger fallas = new AtomicInteger();
+        Thread lector = new Thread(() -> {
+            while (!terminar.get()) {
+                if (!a.getSiguiendo().equals(Set.of("B"))) fallas.incrementAndGet();
+            }
+        });
+        lector.start();
+        for (int i = 0; i < 50_000; i++) {
+            compacta.agregarCliente("X" + i, i % 10);
+        }
+        terminar.set(true);
+        lector.join();
+
+        assertEquals(0, fallas.get());
+        assertEquals(Set.of("B"), a.getSiguiendo());
+    }
+
+    @Test
+    void testModoCompacto_conexionesSinLockDuranteAltasYBajas() throws Exception {
+        RedSocialEmpresarial compacta = new RedSocialEmpresarial(true);
+        compacta.agregarCliente("A", 1);
+        for (int i = 0; i < 8; i++) {
+            compacta.agregarCliente("C" + i, 1);
+        }
+        Cliente a = compacta.buscarPorNombre("A");
+        compacta.agregarCliente("Fijo", 1);
+        a.agregarConexion("Fijo");
+
+        // Un escritor crece y achica la lista (remover mueve el último al hueco)
+        AtomicBoolean terminar = new AtomicBoolean();
+        AtomicInteger fallas = new AtomicInteger();
+        Thread lector = new Thread(() -> {
+            while (!terminar.get()) {
+                List<String> vistas = new ArrayList<>(a.getConexiones());
+                if (!vistas.contains("Fijo") || vistas.contains("A") || vistas.size() != Set.copyOf(vistas).size()) {
+                    fallas.incrementAndGet();
+                }
+            }
+        });
+        lector.start();
+        for (int vuelta = 0; vuelta < 20_000; vuelta++) {
+            for (int i = 0; i < 8; i++) a.agregarConexion("C" + i);
+            for (int i = 7; i >= 0; i -= 2) a.removerConexion("C" + (vuelta + i) % 8);
+            for (int i = 0; i < 8; i++) a.removerConexion("C" + i);
+        }
+        terminar.set(true);
+        lector.join();
+
+        assertEquals(0, fallas.get());
+        assertEquals(Set.of("Fijo"), a.getConexiones());
+    }
+
+    @Test
+    void testModoCompacto_undoAddClientLimpiaReferencias() {
+        red = new RedSocialEmpresarial(true);
+        red.agregarCliente("A", 10);
+        red.agregarCliente("B", 20);
+        red.agregarCliente("C", 30);
+
+        red.buscarPorNombre("A").seguirA("C");
+        red.buscarPorNombre("B").agregarConexion("C");
+        Cliente c = red.buscarPorNombre("C");
+        c.seguirA("A");
+
+        red.undo(); // borra C
+
+        assertNull(red.buscarPorNombre("C"));
+        assertTrue(red.buscarPorNombre("A").getSiguiendo().isEmpty());
+        assertTrue(red.buscarPorNombre("B").getConexiones().isEmpty());
+        assertEquals(0, red.cantidadSeguidores("A"));
+        assertTrue(c.getSiguiendo().isEmpty(), "El cliente borrado ya no tiene relaciones en el grafo");
+
+        // El id liberado se reutiliza sin heredar relaciones
+        red.agregarCliente("D", 40);
+        assertTrue(red.buscarPorNombre("D").getSiguiendo().isEmpty());
+        assertTrue(c.getSiguiendo().isEmpty());
+    }
+
     // ---------------- TEST BUSQUEDAS ----------------
 
     @Test
@@ -201,4 +1066,573 @@ class RedSocialEmpresarialTest {
         List<Cliente> rango = red.buscarPorScoringEntre(10, 50); // Inclusivo
         assertEquals(2, rango.size());
     }
+
+    @Test
+    void testRangoPaginado_recorreTodoEnOrdenConCursor() {
+        for (int i = 0; i < 25; i++) {
+            red.agregarCliente("C" + (char) ('a' + i), i % 5);
+        }
+        red.agregarCliente("Afuera", 99);
+
+        assertEquals(20, red.contarPorScoringEntre(1, 4));
+        assertEquals(0, red.contarPorScoringEntre(50, 60));
+
+        List<String> esperado = red.buscarPorScoringEntre(1, 4).stream()
+                .sorted(java.util.Comparator.comparingInt(Cliente::getScoring).thenComparing(Cliente::getNombre))
+                .map(Cliente::getNombre)
+                .toList();
+        assertEquals(esperado, red.streamPorScoringEntre(1, 4).map(Cliente::getNombre).toList());
+
+        List<String> paginado = new java.util.ArrayList<>();
+        PaginaClientes pagina = red.paginaPorScoringEntre(1, 4, 7, null);
+        int paginas = 1;
+        paginado.addAll(pagina.clientes().stream().map(Cliente::getNombre).toList());
+        while (pagina.hayMas()) {
+            pagina = red.paginaPorScoringEntre(1, 4, 7, pagina.siguiente());
+            paginado.addAll(pagina.clientes().stream().map(Cliente::getNombre).toList());
+            paginas++;
+        }
+        assertEquals(esperado, paginado);
+        assertEquals(3, paginas); // 7 + 7 + 6, sin página vacía al final
+
+        // El cursor sigue siendo válido aunque se borre el cliente al que apunta
+        red.agregarCliente("Cab", 0);
+        PaginaClientes primera = red.paginaPorScoringEntre(0, 4, 2, null);
+        assertEquals(new PaginaClientes.Cursor(0, "Cab"), primera.siguiente());
+        red.undo();
+        assertEquals("Cf", red.paginaPorScoringEntre(0, 4, 1, primera.siguiente()).clientes().get(0).getNombre());
+    }
+
+    @Test
+    void testIndiceScoringDenso_mismosResultadosQueArbol() {
+        RedSocialEmpresarial arbol = new RedSocialEmpresarial(false, LimiteHistorial.sinLimite(), TipoIndiceScoring.ARBOL);
+        RedSocialEmpresarial denso = new RedSocialEmpresarial(false, LimiteHistorial.sinLimite(), TipoIndiceScoring.DENSO);
+        // Incluye scorings fuera del arreglo denso
+        int[] scorings = { 0, 3, 3, 7, 4095, 4096, 100_000, Integer.MAX_VALUE };
+        for (RedSocialEmpresarial r : List.of(arbol, denso)) {
+            for (int i = 0; i < scorings.length; i++) {
+                r.agregarCliente("C" + i, scorings[i]);
+            }
+            r.undo(); // baja del último: su grupo queda vacío
+        }
+
+        for (int[] rango : new int[][] { { 0, Integer.MAX_VALUE }, { 3, 4096 }, { 5, 6 }, { 4000, 200_000 } }) {
+            assertEquals(nombres(arbol.buscarPorScoringEntre(rango[0], rango[1])),
+                    nombres(denso.buscarPorScoringEntre(rango[0], rango[1])));
+            assertEquals(nombres(arbol.streamPorScoringEntre(rango[0], rango[1]).toList()),
+                    nombres(denso.streamPorScoringEntre(rango[0], rango[1]).toList()));
+            assertEquals(arbol.contarPorScoringEntre(rango[0], rango[1]),
+                    denso.contarPorScoringEntre(rango[0], rango[1]));
+            assertEquals(nombres(arbol.paginaPorScoringEntre(rango[0], rango[1], 2, null).clientes()),
+                    nombres(denso.paginaPorScoringEntre(rango[0], rango[1], 2, null).clientes()));
+        }
+        assertEquals(2, denso.buscarPorScoring(3).size());
+        assertTrue(denso.buscarPorScoring(Integer.MAX_VALUE).isEmpty());
+        assertEquals(List.of("C6", "C5", "C4", "C3"), nombres(denso.topPorScoring(4)));
+        assertEquals(nombres(arbol.topPorScoring(10)), nombres(denso.topPorScoring(10)));
+        assertEquals(3, denso.posicionPorScoring("C4"));
+        assertEquals(5, denso.posicionPorScoring("C1"));
+        assertThrows(IllegalArgumentException.class, () -> denso.buscarPorScoringEntre(5, 4));
+    }
+
+    private static List<String> nombres(List<Cliente> clientes) {
+        return clientes.stream().map(Cliente::getNombre).toList();
+    }
+
+    // ---------------- TEST RANKINGS ----------------
+
+    @Test
+    void testRankings_topYPosicionIncrementales() {
+        for (boolean compacta : new boolean[] { false, true }) {
+            RedSocialEmpresarial r = new RedSocialEmpresarial(compacta);
+            r.agregarCliente("A", 50);
+            r.agregarCliente("B", 90);
+            r.agregarCliente("C", 50);
+            r.agregarCliente("D", 10);
+
+            assertEquals(List.of("B", "A", "C"), r.topPorScoring(3).stream().map(Cliente::getNombre).toList());
+            assertEquals(1, r.posicionPorScoring("B"));
+            assertEquals(2, r.posicionPorScoring("C"));
+            assertEquals(4, r.posicionPorScoring("D"));
+
+            r.solicitarSeguir("A", "D");
+            r.solicitarSeguir("B", "D");
+            r.solicitarSeguir("C", "A");
+            r.procesarTodasLasSolicitudes();
+            assertEquals(List.of("D", "A"), r.topPorSeguidores(5).stream().map(Cliente::getNombre).toList());
+            assertEquals(1, r.posicionPorSeguidores("D"));
+            assertEquals(3, r.posicionPorSeguidores("B"));
+
+            // Undo del lote y baja de cliente actualizan el ranking
+            r.undo();
+            assertTrue(r.topPorSeguidores(5).isEmpty());
+
+            r.solicitarSeguir("A", "D");
+            r.procesarSiguienteSolicitud();
+            r.agregarCliente("E", 99);
+            r.solicitarSeguir("E", "A");
+            r.procesarSiguienteSolicitud();
+            assertEquals(List.of("A", "D"), r.topPorSeguidores(5).stream().map(Cliente::getNombre).toList());
+            r.undo(); // PROCESS E -> A
+            assertEquals(List.of("D"), r.topPorSeguidores(5).stream().map(Cliente::getNombre).toList());
+
+            r.agregarCliente("F", 1);
+            r.buscarPorNombre("D").seguirA("F");
+            assertEquals(2, r.topPorSeguidores(5).size());
+            r.undo(); // ADD F: la baja limpia el ranking
+            assertEquals(List.of("D"), r.topPorSeguidores(5).stream().map(Cliente::getNombre).toList());
+
+            assertThrows(IllegalArgumentException.class, () -> r.posicionPorScoring("Nadie"));
+        }
+    }
+
+    // ---------------- TEST RECOMENDACIONES ----------------
+
+    @Test
+    void testRecomendaciones_rankingYCacheInvalidada() {
+        for (boolean compacta : new boolean[] { false, true }) {
+            RedSocialEmpresarial r = new RedSocialEmpresarial(compacta);
+            r.agregarCliente("A", 0);
+            r.agregarCliente("B", 5);
+            r.agregarCliente("C", 5);
+            r.agregarCliente("D", 1);
+            r.agregarCliente("E", 10);
+            r.agregarCliente("F", 0);
+            String[][] seguimientos = { { "A", "B" }, { "A", "C" }, { "B", "D" }, { "B", "E" }, { "C", "D" }, { "C", "A" } };
+            for (String[] s : seguimientos) {
+                r.solicitarSeguir(s[0], s[1]);
+            }
+            r.procesarTodasLasSolicitudes();
+
+            // E: 1 camino × 11, D: 2 caminos × 2; A no se recomienda a sí mismo
+            assertEquals(List.of("E", "D"), nombres(r.recomendarA("A", 5)));
+            assertEquals(List.of("E"), nombres(r.recomendarA("A", 1)));
+
+            // Cambia un seguido de un seguido: se invalida A
+            r.buscarPorNombre("B").dejarDeSeguir("E");
+            assertEquals(List.of("D"), nombres(r.recomendarA("A", 5)));
+
+            assertTrue(r.recomendarA("F", 5).isEmpty());
+            r.solicitarSeguir("F", "C");
+            assertTrue(r.recomendarA("F", 5).isEmpty()); // pendiente, todavía no lo sigue
+            r.procesarSiguienteSolicitud();
+            assertEquals(List.of("D", "A"), nombres(r.recomendarA("F", 5)));
+
+            // Los pendientes se excluyen; al procesarse pasan a seguidos
+            r.solicitarSeguir("F", "D");
+            assertEquals(List.of("A"), nombres(r.recomendarA("F", 5)));
+            r.procesarSiguienteSolicitud();
+            assertEquals(List.of("A"), nombres(r.recomendarA("F", 5)));
+
+            // Undo del PROCESS F -> D: D vuelve a ser candidato
+            r.undo();
+            assertEquals(List.of("D", "A"), nombres(r.recomendarA("F", 5)));
+        }
+    }
+
+    // ---------------- TEST CONEXIONES ----------------
+
+    @Test
+    void testCacheDeRangos_aciertosEInvalidacionPrecisa() {
+        RedSocialEmpresarial r = new RedSocialEmpresarial();
+        assertTrue(r.estadisticasCacheDeRangos().isEmpty());
+        r.agregarCliente("A", 10);
+        r.agregarCliente("B", 20);
+        r.agregarCliente("C", 30);
+        r.activarCacheDeRangos(2);
+
+        List<Cliente> bajos = r.buscarPorScoringEntre(0, 15);
+        List<Cliente> altos = r.buscarPorScoringEntre(25, 40);
+        assertSame(bajos, r.buscarPorScoringEntre(0, 15));
+        assertEquals(List.of("A"), nombres(bajos));
+        assertThrows(UnsupportedOperationException.class, () -> bajos.add(r.buscarPorNombre("B")));
+
+        // Un alta con scoring 12 invalida [0, 15] pero no [25, 40]
+        r.agregarCliente("D", 12);
+        assertEquals(List.of("A", "D"), nombres(r.buscarPorScoringEntre(0, 15)));
+        assertSame(altos, r.buscarPorScoringEntre(25, 40));
+
+        // El undo del alta también invalida
+        r.undo();
+        assertEquals(List.of("A"), nombres(r.buscarPorScoringEntre(0, 15)));
+
+        EstadisticasCache e = r.estadisticasCacheDeRangos().orElseThrow();
+        assertEquals(2, e.aciertos());
+        assertEquals(4, e.fallos());
+        assertEquals(2, e.invalidaciones());
+        assertEquals(2, e.entradas());
+        assertEquals(2 / 6.0, e.tasaDeAciertos(), 1e-9);
+
+        // Capacidad 2: un tercer rango desaloja al menos usado ([25, 40])
+        r.buscarPorScoringEntre(15, 25);
+        assertEquals(1, r.estadisticasCacheDeRangos().orElseThrow().desalojos());
+        assertNotSame(altos, r.buscarPorScoringEntre(25, 40));
+
+        r.desactivarCacheDeRangos();
+        assertTrue(r.estadisticasCacheDeRangos().isEmpty());
+        List<Cliente> sinCache = r.buscarPorScoringEntre(0, 15);
+        sinCache.add(r.buscarPorNombre("B")); // sin cache la lista es propia
+    }
+
+    @Test
+    void testBusquedaPorNombre_prefijoYSimilares() {
+        RedSocialEmpresarial r = new RedSocialEmpresarial();
+        for (String nombre : new String[] { "Ana", "Andrea", "Andres", "Andrés", "Bruno", "Ann", "Juan" }) {
+            r.agregarCliente(nombre, 1);
+        }
+
+        assertEquals(List.of("Andrea", "Andres", "Andrés"), nombres(r.buscarPorPrefijo("And", 10)));
+        assertEquals(List.of("Ana", "Andrea"), nombres(r.buscarPorPrefijo("An", 2)));
+        assertTrue(r.buscarPorPrefijo("Z", 5).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> r.buscarPorPrefijo("A", 0));
+
+        // Andres (0), Andrea / Andrés (1); Ana está a 4
+        assertEquals(List.of("Andres", "Andrea", "Andrés"), nombres(r.buscarSimilares("Andres", 1, 10)));
+        assertEquals(List.of("Ana", "Ann", "Juan"), nombres(r.buscarSimilares("Anan", 2, 10)));
+        assertEquals(List.of("Ana"), nombres(r.buscarSimilares("Ama", 1, 1)));
+
+        // Las bajas (undo del alta) salen del índice
+        r.agregarCliente("Anabel", 2);
+        assertEquals(List.of("Ana", "Anabel"), nombres(r.buscarPorPrefijo("Ana", 10)));
+        r.undo();
+        assertEquals(List.of("Ana"), nombres(r.buscarPorPrefijo("Ana", 10)));
+
+        // Contra fuerza bruta, con nombres que comparten prefijos
+        RedSocialEmpresarial grande = new RedSocialEmpresarial();
+        Random random = new Random(7);
+        List<String> todos = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            StringBuilder nombre = new StringBuilder();
+            for (int j = random.nextInt(6) + 1; j > 0; j--) nombre.append((char) ('a' + random.nextInt(4)));
+            if (grande.buscarPorNombre(nombre.toString()) == null) {
+                grande.agregarCliente(nombre.toString(), 0);
+                todos.add(nombre.toString());
+            }
+        }
+        for (String consulta : List.of("abc", "dddd", "a", "cabad", "")) {
+            for (int k = 0; k <= 2; k++) {
+                int distancia = k;
+                List<String> esperado = todos.stream()
+                        .filter(n -> levenshtein(consulta, n) <= distancia)
+                        .sorted(Comparator.comparingInt((String n) -> levenshtein(consulta, n))
+                                .thenComparing(Comparator.naturalOrder()))
+                        .limit(50)
+                        .toList();
+                assertEquals(esperado, nombres(grande.buscarSimilares(consulta, k, 50)), consulta + " / " + k);
+            }
+        }
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int sustitucion = d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                d[i][j] = Math.min(sustitucion, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    @Test
+    void testParticionada_mismasConsultasQueRedUnica() {
+        RedSocialEmpresarial unica = new RedSocialEmpresarial();
+        try (RedSocialParticionada particionada = new RedSocialParticionada(4)) {
+            for (int i = 0; i < 60; i++) {
+                unica.agregarCliente("C" + i, i % 7);
+                particionada.agregarCliente("C" + i, i % 7);
+            }
+            assertThrows(IllegalArgumentException.class, () -> particionada.agregarCliente("C3", 1));
+            assertEquals(60, particionada.cantidadClientes());
+            assertEquals(nombres(unica.buscarPorScoringEntre(2, 5)), nombres(particionada.buscarPorScoringEntre(2, 5)));
+            assertEquals(unica.contarPorScoringEntre(2, 5), particionada.contarPorScoringEntre(2, 5));
+            assertEquals(nombres(unica.topPorScoring(10)), nombres(particionada.topPorScoring(10)));
+            assertEquals(nombres(unica.buscarPorScoring(3)), nombres(particionada.buscarPorScoring(3)));
+            assertEquals(nombres(unica.buscarPorPrefijo("C1", 5)), nombres(particionada.buscarPorPrefijo("C1", 5)));
+
+            // Seguimientos (la mayoría entre particiones distintas)
+            particionada.solicitarSeguir("C0", "C1");
+            for (int i = 1; i < 60; i++) {
+                particionada.solicitarSeguir("C" + i, i == 59 ? "C1" : "C" + (i + 1));
+                particionada.solicitarSeguir("C" + i, "C0");
+            }
+            assertThrows(IllegalArgumentException.class, () -> particionada.solicitarSeguir("C1", "X"));
+            assertEquals(119, particionada.cantidadSolicitudesPendientes());
+            ResultadoLote lote = particionada.procesarTodasLasSolicitudes();
+            assertEquals(119, lote.aplicadas().size());
+            assertEquals(59, particionada.cantidadSeguidores("C0"));
+            assertEquals(1, particionada.cantidadSeguidores("C30"));
+
+            // Alta nueva con una solicitud pendiente; undo en orden inverso
+            particionada.agregarCliente("Nuevo", 3);
+            particionada.solicitarSeguir("Nuevo", "C7");
+            assertEquals(ActionType.REQUEST_FOLLOW, particionada.undo().orElseThrow().type());
+            assertEquals(ActionType.ADD_CLIENT, particionada.undo().orElseThrow().type());
+            assertNull(particionada.buscarPorNombre("Nuevo"));
+            assertEquals(0, particionada.cantidadSolicitudesPendientes());
+
+            // Cada partición deshace su propio lote (quedan 60 altas + 119 solicitudes)
+            while (particionada.cantidadAccionesEnHistorial() > 60 + 119) {
+                assertEquals(ActionType.PROCESS_FOLLOW_BATCH, particionada.undo().orElseThrow().type());
+            }
+            assertEquals(0, particionada.cantidadSeguidores("C0"));
+            assertEquals(60, particionada.cantidadClientes());
+        }
+    }
+
+    @Test
+    void testIngresoSolicitudes_fifoErroresYUndo() throws Exception {
+        RedSocialEmpresarial r = new RedSocialEmpresarial();
+        for (String nombre : new String[] { "A", "B", "C" }) {
+            r.agregarCliente(nombre, 1);
+        }
+        try (IngresoSolicitudes ingreso = new IngresoSolicitudes(r, 4, IngresoSolicitudes.Contrapresion.BLOQUEAR)) {
+            assertThrows(IllegalArgumentException.class, () -> ingreso.solicitarSeguir("A", "A"));
+
+            CompletableFuture<Void> ab = ingreso.solicitarSeguir("A", "B");
+            CompletableFuture<Void> ac = ingreso.solicitarSeguir("A", "C");
+            CompletableFuture<Void> duplicada = ingreso.solicitarSeguir("A", "B");
+            CompletableFuture<Void> inexistente = ingreso.solicitarSeguir("X", "A");
+            CompletableFuture<Void> bc = ingreso.solicitarSeguir("B", "C");
+            CompletableFuture.allOf(ab, ac, bc).get(5, TimeUnit.SECONDS);
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> duplicada.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, error.getCause());
+            error = assertThrows(ExecutionException.class, () -> inexistente.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, error.getCause());
+            assertEquals(3, ingreso.aplicadas());
+            assertEquals(5, ingreso.latencias().cantidad());
+        }
+
+        // Cada solicitud es su propio REQUEST_FOLLOW, en orden de llegada
+        assertEquals(3, r.cantidadSolicitudesPendientes());
+        FollowRequest ultima = (FollowRequest) r.undo().orElseThrow().payload();
+        assertEquals("B", ultima.solicitante());
+        assertEquals("A", r.procesarSiguienteSolicitud().solicitante());
+        assertEquals(List.of("B"), List.copyOf(r.buscarPorNombre("A").getSiguiendo()));
+    }
+
+    @Test
+    void testIngresoSolicitudes_contrapresion() throws Exception {
+        for (IngresoSolicitudes.Contrapresion politica : List.of(
+                IngresoSolicitudes.Contrapresion.RECHAZAR, IngresoSolicitudes.Contrapresion.DESCARTAR_ANTIGUA)) {
+            RedSocialEmpresarial r = new RedSocialEmpresarial();
+            for (int i = 0; i < 10; i++) {
+                r.agregarCliente("C" + i, i);
+            }
+            // El aplicador queda detenido al terminar su primer lote
+            CountDownLatch enLote = new CountDownLatch(1);
+            CountDownLatch seguir = new CountDownLatch(1);
+            r.activarMetricas(new RegistroMetricas() {
+                @Override
+                public void operacion(Operacion operacion, long nanos) {
+                    if (operacion != Operacion.SOLICITAR_LOTE) return;
+                    enLote.countDown();
+                    try {
+                        seguir.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                @Override
+                public void indicador(Indicador indicador, LongSupplier valor) { }
+            });
+
+            try (IngresoSolicitudes ingreso = new IngresoSolicitudes(r, 2, politica)) {
+                CompletableFuture<Void> primera = ingreso.solicitarSeguir("C0", "C1");
+                assertTrue(enLote.await(5, TimeUnit.SECONDS));
+
+                CompletableFuture<Void> f1 = ingreso.solicitarSeguir("C1", "C2");
+                CompletableFuture<Void> f2 = ingreso.solicitarSeguir("C2", "C3");
+                CompletableFuture<Void> f3 = ingreso.solicitarSeguir("C3", "C4"); // buffer lleno
+                seguir.countDown();
+                primera.get(5, TimeUnit.SECONDS);
+
+                CompletableFuture<Void> fallida = politica == IngresoSolicitudes.Contrapresion.RECHAZAR ? f3 : f1;
+                ExecutionException error = assertThrows(ExecutionException.class, () -> fallida.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalStateException.class, error.getCause());
+                for (CompletableFuture<Void> f : List.of(f1, f2, f3)) {
+                    if (f != fallida) f.get(5, TimeUnit.SECONDS);
+                }
+                assertEquals(1, ingreso.rechazadas() + ingreso.descartadas());
+            }
+            assertEquals(3, r.cantidadSolicitudesPendientes());
+        }
+    }
+
+    @Test
+    void testFeedDeCambios_secuenciaRetractacionYReanudacion() throws Exception {
+        RedSocialEmpresarial r = new RedSocialEmpresarial();
+        r.agregarCliente("Previo", 1); // antes de activar: sin evento
+        FeedCambios feed = new FeedCambios(100);
+        r.activarFeedDeCambios(feed);
+
+        r.agregarCliente("A", 1);
+        r.agregarCliente("B", 2);
+        r.solicitarSeguir("A", "B");
+        r.procesarSiguienteSolicitud();
+        r.undo();
+        assertEquals(5, feed.ultimaSecuencia());
+
+        List<EventoCambio> recibidos = Collections.synchronizedList(new ArrayList<>());
+        try (FeedCambios.Suscripcion s = feed.suscribir(1, recibidos::addAll)) {
+            esperarHasta(() -> recibidos.size() == 5);
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L), recibidos.stream().map(EventoCambio::secuencia).toList());
+            assertEquals(List.of(ActionType.ADD_CLIENT, ActionType.ADD_CLIENT, ActionType.REQUEST_FOLLOW,
+                            ActionType.PROCESS_FOLLOW, ActionType.PROCESS_FOLLOW),
+                    recibidos.stream().map(e -> e.accion().type()).toList());
+            assertEquals("A", recibidos.get(0).accion().detalle());
+            assertEquals(2, ((Cliente) recibidos.get(1).accion().payload()).getScoring());
+
+            // El undo llega como retractación de la misma acción
+            EventoCambio retractada = recibidos.get(4);
+            assertEquals(EventoCambio.Tipo.RETRACTADA, retractada.tipo());
+            assertEquals(recibidos.get(3).accion().payload(), retractada.accion().payload());
+
+            r.agregarCliente("C", 3);
+            esperarHasta(() -> recibidos.size() == 6);
+            assertEquals(7, s.posicion());
+        }
+
+        // Retomar desde una secuencia retenida
+        List<EventoCambio> retomados = Collections.synchronizedList(new ArrayList<>());
+        try (FeedCambios.Suscripcion s = feed.suscribir(4, retomados::addAll)) {
+            esperarHasta(() -> retomados.size() == 3);
+            assertEquals(4, retomados.get(0).secuencia());
+        }
+        assertThrows(IllegalArgumentException.class, () -> feed.suscribir(0, e -> { }));
+        assertThrows(IllegalArgumentException.class, () -> feed.suscribir(8, e -> { }));
+
+        // Un suscriptor lento no frena a la red: se atrasa más que la retención y termina con error
+        FeedCambios chico = new FeedCambios(4, 1);
+        r.activarFeedDeCambios(chico);
+        CountDownLatch bloqueado = new CountDownLatch(1);
+        CountDownLatch seguir = new CountDownLatch(1);
+        FeedCambios.Suscripcion lenta = chico.suscribir(1, lote -> {
+            bloqueado.countDown();
+            try {
+                seguir.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        r.agregarCliente("D0", 1);
+        assertTrue(bloqueado.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 6; i++) {
+            r.agregarCliente("D" + i, 1);
+        }
+        seguir.countDown();
+        esperarHasta(() -> !lenta.activa());
+        assertInstanceOf(IllegalStateException.class, lenta.error().orElseThrow());
+        assertEquals(2, lenta.posicion());
+        assertEquals(4, chico.primeraRetenida());
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicion.getAsBoolean()) {
+            assertTrue(System.nanoTime() < limite, "timeout");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void testConexiones_vecindarioYGradoDeSeparacion() {
+        for (boolean compacta : new boolean[] { false, true }) {
+            RedSocialEmpresarial r = new RedSocialEmpresarial(compacta);
+            for (String nombre : List.of("A", "B", "C", "D", "E", "F")) {
+                r.agregarCliente(nombre, 1);
+            }
+            // A -> B -> C -> D, A -> E -> D, D -> A (dirigidas); F aislado
+            r.buscarPorNombre("A").agregarConexion("B");
+            r.buscarPorNombre("B").agregarConexion("C");
+            r.buscarPorNombre("C").agregarConexion("D");
+            r.buscarPorNombre("A").agregarConexion("E");
+            r.buscarPorNombre("E").agregarConexion("D");
+            r.buscarPorNombre("D").agregarConexion("A");
+
+            assertEquals(Set.of("B", "E"), r.conexionesHasta("A", 1)
+                    .map(c -> c.cliente().getNombre()).collect(java.util.stream.Collectors.toSet()));
+            List<Integer> distancias = r.conexionesHasta("A", 10).map(ConexionAlcanzada::distancia).toList();
+            assertEquals(List.of(1, 1, 2, 2), distancias);
+            assertEquals(1, r.conexionesHasta("A", 10).limit(1).count());
+            assertEquals(0, r.conexionesHasta("F", 3).count());
+            assertEquals(0, r.conexionesHasta("A", 0).count());
+
+            assertEquals(OptionalInt.of(2), r.gradoDeSeparacion("A", "D"));
+            assertEquals(OptionalInt.of(3), r.gradoDeSeparacion("B", "A"));
+            assertEquals(OptionalInt.of(0), r.gradoDeSeparacion("C", "C"));
+            assertEquals(OptionalInt.empty(), r.gradoDeSeparacion("B", "A", 2));
+            assertEquals(OptionalInt.empty(), r.gradoDeSeparacion("A", "F"));
+
+            // Sin E -> D queda sólo el camino largo
+            r.buscarPorNombre("E").removerConexion("D");
+            assertEquals(OptionalInt.of(3), r.gradoDeSeparacion("A", "D"));
+            assertThrows(IllegalArgumentException.class, () -> r.gradoDeSeparacion("A", "Nadie"));
+        }
+    }
+
+    // ---------------- TEST MÉTRICAS ----------------
+
+    @Test
+    void testMetricas_contadoresIndicadoresYJmx() throws Exception {
+        MetricasEnMemoria metricas = new MetricasEnMemoria();
+        red.agregarCliente("Previo", 1); // antes de activar: no cuenta
+        red.activarMetricas(metricas);
+
+        red.agregarCliente("A", 10);
+        red.agregarCliente("B", 20);
+        assertThrows(IllegalArgumentException.class, () -> red.agregarCliente("A", 5)); // falla y cuenta
+        red.solicitarSeguir("A", "B");
+        red.buscarPorScoringEntre(0, 100);
+        red.contarPorScoringEntre(0, 100);
+
+        assertEquals(3, metricas.cantidad(Operacion.AGREGAR_CLIENTE));
+        assertEquals(1, metricas.cantidad(Operacion.SOLICITAR_SEGUIR));
+        assertEquals(2, metricas.cantidad(Operacion.BUSQUEDA_RANGO));
+        assertEquals(1, metricas.valor(Indicador.SOLICITUDES_PENDIENTES));
+        assertEquals(4, metricas.valor(Indicador.ACCIONES_EN_HISTORIAL));
+        assertEquals(3, metricas.valor(Indicador.CLIENTES));
+        assertEquals(3, metricas.valor(Indicador.GRUPOS_POR_SCORING));
+
+        red.procesarSiguienteSolicitud();
+        red.undo();
+        assertEquals(1, metricas.cantidad(Operacion.PROCESAR_SOLICITUD));
+        assertEquals(1, metricas.cantidad(Operacion.UNDO));
+        assertTrue(metricas.latencias(Operacion.UNDO).maximo() > 0);
+
+        javax.management.ObjectName nombre = metricas.registrarJmx("test");
+        try {
+            javax.management.MBeanServer servidor = java.lang.management.ManagementFactory.getPlatformMBeanServer();
+            assertEquals(3L, servidor.getAttribute(nombre, "Clientes"));
+            assertEquals(0L, servidor.getAttribute(nombre, "SolicitudesPendientes"));
+            assertNotNull(servidor.getAttribute(nombre, "LatenciaP99Nanos"));
+        } finally {
+            MetricasEnMemoria.desregistrarJmx(nombre);
+        }
+
+        red.desactivarMetricas();
+        red.agregarCliente("C", 30);
+        assertEquals(3, metricas.cantidad(Operacion.AGREGAR_CLIENTE));
+    }
+
+    @Test
+    void testHistogramaLatencias_percentilesConErrorAcotado() {
+        HistogramaLatencias h = new HistogramaLatencias();
+        assertEquals(0, h.percentil(99));
+        for (long v = 1; v <= 100_000; v++) {
+            h.registrar(v * 1_000);
+        }
+        assertEquals(100_000, h.cantidad());
+        assertEquals(100_000_000, h.maximo());
+        for (double p : new double[] { 50, 90, 99, 99.9 }) {
+            double esperado = p / 100 * 100_000_000;
+            assertEquals(esperado, h.percentil(p), esperado / 32);
+        }
+        assertEquals(100_000_000, h.percentil(100));
+        assertThrows(IllegalArgumentException.class, () -> h.percentil(101));
+    }
 }